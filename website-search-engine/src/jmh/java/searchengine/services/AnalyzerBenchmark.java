@@ -0,0 +1,77 @@
+package searchengine.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.analysis.EnglishAnalyzer;
+import searchengine.analysis.LanguageAnalyzers;
+import searchengine.analysis.RussianAnalyzer;
+import searchengine.component.MorphologyProvider;
+import searchengine.config.MorphologyConfig;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность анализаторов языков в словах в миллисекунду: разбиение текста на слова
+ * ({@code tokenize}) и разбиение с лемматизацией каждого слова без кэша лемм ({@code analyze}).
+ * Русский текст генерируется из словаря тестовых страниц, английский - из словаря ниже,
+ * смешанный текст чередует слова обоих языков.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnalyzerBenchmark {
+
+    private static final int WORDS = 1000;
+    private static final long SEED = 42;
+    private static final List<String> ENGLISH_VOCABULARY = List.of(
+            "leopard", "leopards", "lives", "living", "forest", "forests", "mountains", "snow", "hunting",
+            "hunts", "search", "engine", "indexed", "pages", "sites", "crawler", "running", "quickly",
+            "wildlife", "reserve", "population", "animals", "protected", "species", "spotted", "cats");
+
+    @Param({"russian", "english", "mixed"})
+    private String language;
+
+    private LanguageAnalyzers analyzers;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MorphologyConfig config = new MorphologyConfig();
+        MorphologyProvider morphologyProvider = new MorphologyProvider(config);
+        analyzers = new LanguageAnalyzers(
+                List.of(new RussianAnalyzer(morphologyProvider), new EnglishAnalyzer(morphologyProvider)), config);
+
+        List<String> russianVocabulary = BenchmarkFixtures.load().getVocabulary();
+        Random random = new Random(SEED);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < WORDS; i++) {
+            boolean english = language.equals("english") || (language.equals("mixed") && i % 2 == 1);
+            List<String> vocabulary = english ? ENGLISH_VOCABULARY : russianVocabulary;
+            builder.append(i % 12 == 0 ? ". " : " ").append(vocabulary.get(random.nextInt(vocabulary.size())));
+        }
+        text = builder.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void tokenize(Blackhole blackhole) {
+        analyzers.tokenize(text, (word, analyzer) -> blackhole.consume(word));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void analyze(Blackhole blackhole) {
+        analyzers.tokenize(text, (word, analyzer) -> blackhole.consume(analyzer.lemma(word)));
+    }
+}
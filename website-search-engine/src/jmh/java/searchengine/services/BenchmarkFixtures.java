@@ -0,0 +1,94 @@
+package searchengine.services;
+
+import searchengine.utils.HtmlContent;
+import searchengine.utils.HtmlStreamExtractor;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Тестовые страницы из {@code src/test/resources/test-site} и генератор текста на их словаре.
+ * Каталог задается системным свойством {@code benchmark.fixtures}, которое передает задача {@code jmh}.
+ */
+final class BenchmarkFixtures {
+
+    static final String SITE_URL = "http://bench.test";
+
+    private final List<String> html = new ArrayList<>();
+    private final List<HtmlContent> pages = new ArrayList<>();
+    private final List<String> vocabulary;
+
+    private BenchmarkFixtures(Path directory) throws IOException {
+        Set<String> words = new LinkedHashSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".html")).sorted().toList()) {
+                String source = Files.readString(file, StandardCharsets.UTF_8);
+                HtmlContent content = HtmlStreamExtractor.extract(new StringReader(source), SITE_URL + "/" + file.getFileName());
+                html.add(source);
+                pages.add(content);
+                for (String word : content.getText().split("[^\\p{L}]+")) {
+                    if (word.length() > 2) {
+                        words.add(word.toLowerCase());
+                    }
+                }
+            }
+        }
+        if (pages.isEmpty()) {
+            throw new IllegalStateException("В каталоге " + directory + " нет HTML-страниц для бенчмарков");
+        }
+        this.vocabulary = List.copyOf(words);
+    }
+
+    static BenchmarkFixtures load() {
+        String directory = System.getProperty("benchmark.fixtures", "src/test/resources/test-site");
+        try {
+            return new BenchmarkFixtures(Paths.get(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать страницы для бенчмарков из " + directory, e);
+        }
+    }
+
+    /**
+     * Исходный HTML тестовых страниц в том же порядке, что и {@link #getPages()}.
+     */
+    List<String> getHtml() {
+        return html;
+    }
+
+    List<HtmlContent> getPages() {
+        return pages;
+    }
+
+    List<String> getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Текст страницы: текст одной из исходных страниц и случайные слова из их словаря.
+     * @param index     номер генерируемой страницы
+     * @param wordCount сколько случайных слов добавить
+     * @param random    генератор с фиксированным зерном, чтобы набор данных был воспроизводимым
+     */
+    String generateText(int index, int wordCount, Random random) {
+        StringBuilder text = new StringBuilder(pages.get(index % pages.size()).getText());
+        for (int i = 0; i < wordCount; i++) {
+            text.append(i % 12 == 0 ? ". " : " ").append(vocabulary.get(random.nextInt(vocabulary.size())));
+        }
+        return text.toString();
+    }
+
+    String title(int index) {
+        return pages.get(index % pages.size()).getTitle() + " " + index;
+    }
+}
@@ -0,0 +1,65 @@
+package searchengine.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.utils.HtmlStreamExtractor;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обработка ссылок при обходе без сети и базы данных: извлечение текста и ссылок из HTML тестовых
+ * страниц и нормализация ссылок {@link SiteCrawler} на ссылках страниц и их вариантах: с параметрами,
+ * якорями, {@code www.}, файлами и адресами чужих сайтов. Проверка ссылок по robots.txt и посещенным
+ * адресам выполняется внутри обхода и отдельно не измеряется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CrawlerBenchmark {
+
+    private List<String> html;
+    private List<String> links;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures fixtures = BenchmarkFixtures.load();
+        html = fixtures.getHtml();
+        links = new ArrayList<>();
+        fixtures.getPages().forEach(page -> page.getLinks().forEach(link -> {
+            links.add(link);
+            links.add(link + "?utm_source=bench&page=2");
+            links.add(link + "#section");
+            links.add(link.replace("://", "://www.") + "/");
+            links.add(link + "/document.pdf");
+            links.add(link.replace(BenchmarkFixtures.SITE_URL, "http://other.test"));
+        }));
+        for (int i = 0; i < 20; i++) {
+            links.add(BenchmarkFixtures.SITE_URL + "/page" + (i * 97));
+            links.add(BenchmarkFixtures.SITE_URL + "/catalog/section-" + i + "/item?id=" + i);
+        }
+    }
+
+    @Benchmark
+    public void normalizeUrl(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(SiteCrawler.normalizeUrl(link));
+        }
+    }
+
+    @Benchmark
+    public void extractLinks(Blackhole blackhole) throws IOException {
+        for (String page : html) {
+            blackhole.consume(HtmlStreamExtractor.extract(new StringReader(page), BenchmarkFixtures.SITE_URL + "/").getLinks());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package searchengine.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import searchengine.WebsiteSearchEngineApplication;
+import searchengine.dto.search.SearchResponseDTO;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.model.Status;
+import searchengine.repository.PageRepository;
+import searchengine.repository.SiteRepository;
+import searchengine.utils.ObjectIntHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие участки поиска на наборе данных в H2 через публичные методы сервисов: сбор лемм,
+ * полный {@link SearchService#search} и индексация страницы. Набор данных генерируется из тестовых страниц
+ * {@code test-site}: их текст дополняется случайными словами из того же словаря,
+ * размер задается параметром {@code pages}. Профилировщик {@code gc} (включен в {@code build.gradle})
+ * добавляет к результатам количество байт, выделенных за операцию: {@code search} - на запрос,
+ * {@code indexPage} - на проиндексированную страницу.
+ * <p>
+ * Время этапов поиска (суммирование релевантности, сниппеты и др.) берется из таймера
+ * {@code search.stage} и выводится по окончании прогона {@code search}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    private static final int WORDS_PER_PAGE = 400;
+    /** Количество страниц и текстов, по которым циклически проходит {@code indexPage}. */
+    private static final int INDEXED_PAGES = 32;
+    private static final long SEED = 42;
+
+    @Param({"500", "2000"})
+    private int pages;
+
+    @Param({"леопард", "страница Кавказа"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private SearchService searchService;
+    private LemmaService lemmaService;
+    private String pageText;
+    private final List<Page> indexedPages = new ArrayList<>();
+    private final List<String> indexedTexts = new ArrayList<>();
+    private int indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WebsiteSearchEngineApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--logging.level.root=WARN",
+                        "--logging.level.searchengine=WARN");
+        searchService = context.getBean(SearchService.class);
+        lemmaService = context.getBean(LemmaService.class);
+
+        BenchmarkFixtures fixtures = BenchmarkFixtures.load();
+        generateSite(fixtures);
+
+        Random random = new Random(SEED);
+        pageText = fixtures.generateText(0, WORDS_PER_PAGE, random);
+        for (int i = 0; i < INDEXED_PAGES; i++) {
+            indexedTexts.add(fixtures.generateText(i, WORDS_PER_PAGE, random));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(MeterRegistry.class).find("search.stage").timers().stream()
+                .filter(timer -> timer.count() > 0)
+                .forEach(timer -> System.out.printf("search.stage %s: %.1f us%n",
+                        timer.getId().getTag("stage"), timer.mean(TimeUnit.MICROSECONDS)));
+        context.close();
+    }
+
+    @Benchmark
+    public SearchResponseDTO search() {
+        return searchService.search(query, null, 0, 10);
+    }
+
+    @Benchmark
+    public ObjectIntHashMap<String> collectLemmas() {
+        return lemmaService.collectLemmas(pageText);
+    }
+
+    /**
+     * Переиндексация страницы: каждый вызов берет следующую страницу и другой текст, поэтому частоты
+     * лемм и строки индекса меняются от вызова к вызову. Слова текстов взяты из словаря тестовых
+     * страниц и после первых вызовов уже есть в кэше лемм слов: измеряется путь с прогретым кэшем,
+     * то есть запись в базу и подсчет лемм. Стоимость лемматизации новых слов измеряет {@code AnalyzerBenchmark}.
+     */
+    @Benchmark
+    public void indexPage() {
+        // Сдвиг текста на каждом круге, чтобы страница не получала один и тот же текст повторно.
+        Page page = indexedPages.get(indexed % INDEXED_PAGES);
+        String text = indexedTexts.get((indexed + indexed / INDEXED_PAGES) % INDEXED_PAGES);
+        indexed++;
+        lemmaService.lemmatizePage(page, text);
+    }
+
+    private void generateSite(BenchmarkFixtures fixtures) {
+        SiteRepository siteRepository = context.getBean(SiteRepository.class);
+        PageRepository pageRepository = context.getBean(PageRepository.class);
+        PageContentService pageContentService = context.getBean(PageContentService.class);
+
+        Site site = new Site();
+        site.setUrl(BenchmarkFixtures.SITE_URL);
+        site.setName("Benchmark");
+        site.setStatus(Status.INDEXING);
+        site.setStatusTime(LocalDateTime.now());
+        siteRepository.save(site);
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < pages; i++) {
+            String title = fixtures.title(i);
+            String text = fixtures.generateText(i, WORDS_PER_PAGE, random);
+            Page page = new Page();
+            page.setSite(site);
+            page.setPath("/page" + i);
+            page.setCode(200);
+            page.setTitle(title);
+            pageRepository.save(page);
+            pageContentService.save(page, "<html><head><title>" + title + "</title></head><body><p>" + text + "</p></body></html>");
+            lemmaService.lemmatizePage(page, title + " " + text);
+            if (indexedPages.size() < INDEXED_PAGES) {
+                indexedPages.add(page);
+            }
+        }
+
+        site.setStatus(Status.INDEXED);
+        site.setStatusTime(LocalDateTime.now());
+        siteRepository.save(site);
+    }
+}
@@ -0,0 +1,75 @@
+package searchengine.services;
+
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import searchengine.WebsiteSearchEngineApplication;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время старта: подъем контекста Spring на H2 без загрузки словарей морфологии, подъем контекста
+ * с первой лемматизацией (включает загрузку словарей при первом обращении) и загрузка самих словарей.
+ * Словари хранятся в статических полях, поэтому {@code contextWithFirstQuery} загружает их только
+ * в первой итерации форка; последующие итерации показывают старт контекста с уже загруженными словарями,
+ * как у повторно создаваемых контекстов тестов.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext context() {
+        context = startContext();
+        return context;
+    }
+
+    @Benchmark
+    public Set<String> contextWithFirstQuery() {
+        context = startContext();
+        return context.getBean(LemmaService.class).getLemmaSet("леопард");
+    }
+
+    @Benchmark
+    public LuceneMorphology[] loadDictionaries() throws IOException {
+        return new LuceneMorphology[]{new RussianLuceneMorphology(), new EnglishLuceneMorphology()};
+    }
+
+    private static ConfigurableApplicationContext startContext() {
+        return new SpringApplicationBuilder(WebsiteSearchEngineApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--morphology.warm-up=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.searchengine=WARN");
+    }
+}
@@ -0,0 +1,25 @@
+package searchengine.analysis;
+
+import org.springframework.stereotype.Component;
+import searchengine.component.MorphologyProvider;
+
+/**
+ * Английский язык: латиница без диакритики.
+ */
+@Component
+public class EnglishAnalyzer extends MorphologyAnalyzer {
+
+    public EnglishAnalyzer(MorphologyProvider morphologyProvider) {
+        super(morphologyProvider::english);
+    }
+
+    @Override
+    public String language() {
+        return "english";
+    }
+
+    @Override
+    public boolean isLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+}
@@ -0,0 +1,40 @@
+package searchengine.analysis;
+
+/**
+ * Обработка слов одного языка: алфавит, по которому слова языка выделяются из текста,
+ * нормализация символов и лемматизация с фильтрацией стоп-слов.
+ * Анализаторы подключаются настройкой {@code morphology.analyzers} по имени языка.
+ */
+public interface LanguageAnalyzer {
+
+    /**
+     * @return имя языка в настройке {@code morphology.analyzers}
+     */
+    String language();
+
+    /**
+     * @param c символ в нижнем регистре
+     * @return {@code true}, если символ относится к алфавиту языка
+     */
+    boolean isLetter(char c);
+
+    /**
+     * Приводит символ слова к виду, в котором слова хранятся в словаре языка.
+     */
+    default char normalize(char c) {
+        return c;
+    }
+
+    /**
+     * Проверка по набору стоп-слов языка без обращения к словарю морфологии.
+     * @param word слово в нижнем регистре, состоящее из букв языка
+     * @return {@code true}, если слово заведомо не индексируется
+     */
+    boolean isStopWord(String word);
+
+    /**
+     * @param word слово в нижнем регистре, состоящее из букв языка
+     * @return лемма слова или {@code null}, если слово не индексируется (стоп-слово или слово без нормальной формы)
+     */
+    String lemma(String word);
+}
@@ -0,0 +1,121 @@
+package searchengine.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.MorphologyConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Подключенные анализаторы языков и разбиение текста на слова.
+ * <p>
+ * Язык определяется по алфавиту для каждого непрерывного участка букв: участок букв одного анализатора
+ * становится словом этого языка, смена алфавита внутри слова (например, "iphone" и окончание кириллицей)
+ * разделяет его на два слова. Анализатор символа находится по таблице, построенной при запуске,
+ * поэтому определение языка не требует регулярных выражений.
+ * <p>
+ * Слова со сменой алфавита раньше отбрасывались целиком: ни один словарь морфологии не содержит слов
+ * из букв двух алфавитов. Разделение сохраняет в индексе части, которые являются словами своего языка:
+ * названия с падежным окончанием ("iPhone-у") и слова, склеенные при извлечении текста ("смартфонiphone").
+ * Обратная сторона - слово с латинской буквой, похожей на кириллическую ("мoлоко" с латинской "o"),
+ * распадается на обрывки; обрывки короче {@link #MIN_WORD_LENGTH} отбрасываются, остальные
+ * лемматизируются как обычные слова.
+ */
+@Component
+@Slf4j
+public class LanguageAnalyzers {
+
+    /**
+     * Слова короче отбрасываются для всех языков.
+     */
+    static final int MIN_WORD_LENGTH = 2;
+
+    /**
+     * Размер таблицы анализаторов по символам: латиница и кириллица.
+     */
+    private static final int TABLE_SIZE = 0x0500;
+
+    private final List<LanguageAnalyzer> analyzers;
+    private final LanguageAnalyzer[] analyzerByChar = new LanguageAnalyzer[TABLE_SIZE];
+
+    public LanguageAnalyzers(List<LanguageAnalyzer> available, MorphologyConfig morphologyConfig) {
+        Map<String, LanguageAnalyzer> byLanguage = available.stream()
+                .collect(Collectors.toMap(LanguageAnalyzer::language, Function.identity()));
+        List<LanguageAnalyzer> enabled = new ArrayList<>();
+        for (String language : morphologyConfig.getAnalyzers()) {
+            LanguageAnalyzer analyzer = byLanguage.get(language);
+            if (analyzer == null) {
+                throw new IllegalStateException("Неизвестный анализатор языка '" + language
+                        + "'. Доступные анализаторы: " + byLanguage.keySet());
+            }
+            enabled.add(analyzer);
+        }
+        this.analyzers = List.copyOf(enabled);
+        for (char c = 0; c < TABLE_SIZE; c++) {
+            analyzerByChar[c] = findAnalyzer(c);
+        }
+        log.info("Подключены анализаторы языков: {}", morphologyConfig.getAnalyzers());
+    }
+
+    /**
+     * Разбивает текст на слова подключенных языков. Слова передаются в нижнем регистре
+     * и с нормализованными символами; символы, не относящиеся ни к одному языку, разделяют слова.
+     */
+    public void tokenize(String text, WordConsumer consumer) {
+        StringBuilder word = new StringBuilder(32);
+        LanguageAnalyzer current = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            LanguageAnalyzer analyzer = analyzerFor(c);
+            if (analyzer != current) {
+                emit(word, current, consumer);
+                current = analyzer;
+            }
+            if (analyzer != null) {
+                word.append(analyzer.normalize(c));
+            }
+        }
+        emit(word, current, consumer);
+    }
+
+    /**
+     * @param word слово, полученное из {@link #tokenize}
+     * @return анализатор языка слова или {@code null}, если язык не подключен
+     */
+    public LanguageAnalyzer forWord(String word) {
+        return word.isEmpty() ? null : analyzerFor(word.charAt(0));
+    }
+
+    public List<LanguageAnalyzer> getAnalyzers() {
+        return analyzers;
+    }
+
+    private LanguageAnalyzer analyzerFor(char c) {
+        return c < TABLE_SIZE ? analyzerByChar[c] : findAnalyzer(c);
+    }
+
+    private LanguageAnalyzer findAnalyzer(char c) {
+        for (LanguageAnalyzer analyzer : analyzers) {
+            if (analyzer.isLetter(c)) {
+                return analyzer;
+            }
+        }
+        return null;
+    }
+
+    private static void emit(StringBuilder word, LanguageAnalyzer analyzer, WordConsumer consumer) {
+        if (analyzer != null && word.length() >= MIN_WORD_LENGTH) {
+            consumer.accept(word.toString(), analyzer);
+        }
+        word.setLength(0);
+    }
+
+    @FunctionalInterface
+    public interface WordConsumer {
+        void accept(String word, LanguageAnalyzer analyzer);
+    }
+}
@@ -0,0 +1,110 @@
+package searchengine.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.morphology.LuceneMorphology;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Анализатор на словаре морфологии: служебные части речи отбрасываются,
+ * лемма - первая нормальная форма слова.
+ * <p>
+ * Частые служебные слова проверяются по набору стоп-слов до обращения к словарю. Набор строится
+ * один раз из списка кандидатов {@code stopwords/<язык>.txt}: в него попадают только кандидаты,
+ * которые словарь относит к служебным частям речи, поэтому результат лемматизации не меняется.
+ */
+@Slf4j
+abstract class MorphologyAnalyzer implements LanguageAnalyzer {
+
+    private final Supplier<LuceneMorphology> morphology;
+    private volatile Set<String> stopWords;
+
+    MorphologyAnalyzer(Supplier<LuceneMorphology> morphology) {
+        this.morphology = morphology;
+    }
+
+    @Override
+    public boolean isStopWord(String word) {
+        return stopWords().contains(word);
+    }
+
+    @Override
+    public String lemma(String word) {
+        return isStopWord(word) ? null : dictionaryLemma(word);
+    }
+
+    /**
+     * Лемма только по словарю морфологии, без проверки набора стоп-слов.
+     */
+    String dictionaryLemma(String word) {
+        LuceneMorphology luceneMorphology = morphology.get();
+        if (isServicePart(luceneMorphology.getMorphInfo(word))) {
+            return null;
+        }
+        List<String> normalForms = luceneMorphology.getNormalForms(word);
+        return normalForms.isEmpty() ? null : normalForms.get(0);
+    }
+
+    private Set<String> stopWords() {
+        Set<String> result = stopWords;
+        if (result == null) {
+            synchronized (this) {
+                result = stopWords;
+                if (result == null) {
+                    result = buildStopWords();
+                    stopWords = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<String> buildStopWords() {
+        LuceneMorphology luceneMorphology = morphology.get();
+        List<String> candidates = readCandidates();
+        Set<String> result = new HashSet<>();
+        for (String candidate : candidates) {
+            if (isServicePart(luceneMorphology.getMorphInfo(candidate))) {
+                result.add(candidate);
+            }
+        }
+        log.debug("Стоп-слова языка '{}': {} из {} кандидатов.", language(), result.size(), candidates.size());
+        return Set.copyOf(result);
+    }
+
+    private List<String> readCandidates() {
+        String resource = "stopwords/" + language() + ".txt";
+        InputStream stream = MorphologyAnalyzer.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            log.warn("Список стоп-слов {} не найден, все слова проверяются по словарю морфологии.", resource);
+            return List.of();
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .filter(line -> line.chars().allMatch(c -> isLetter((char) c)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать список стоп-слов " + resource, e);
+        }
+    }
+
+    private boolean isServicePart(List<String> morphInfo) {
+        if (morphInfo.isEmpty()) {
+            return false;
+        }
+        String info = morphInfo.get(0);
+        return info.contains("ПРЕДЛ") || info.contains("СОЮЗ") || info.contains("МЕЖД") || info.contains("ЧАСТ") || info.contains("МЕСТОИМ") // Русский
+                || info.contains("PREP") || info.contains("CONJ") || info.contains("PART") || info.contains("PN"); // Английский
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.analysis;
+
+import org.springframework.stereotype.Component;
+import searchengine.component.MorphologyProvider;
+
+/**
+ * Русский язык: кириллица, буква "ё" заменяется на "е".
+ * <p>
+ * В большинстве текстов "ё" пишется как "е", поэтому "ёлка" и "елка" индексируются как одно слово,
+ * и запрос с "е" находит страницы с "ё". До появления анализаторов "ё" считалась разделителем и слово
+ * разрывалось ("ёлка" давала "лка"), поэтому индекс, построенный прежней версией, нужно перестроить
+ * ({@code /api/reindex}).
+ */
+@Component
+public class RussianAnalyzer extends MorphologyAnalyzer {
+
+    public RussianAnalyzer(MorphologyProvider morphologyProvider) {
+        super(morphologyProvider::russian);
+    }
+
+    @Override
+    public String language() {
+        return "russian";
+    }
+
+    @Override
+    public boolean isLetter(char c) {
+        return (c >= 'а' && c <= 'я') || c == 'ё';
+    }
+
+    @Override
+    public char normalize(char c) {
+        return c == 'ё' ? 'е' : c;
+    }
+}
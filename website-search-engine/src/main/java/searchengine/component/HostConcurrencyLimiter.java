@@ -0,0 +1,111 @@
+package searchengine.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.AdaptiveConcurrencyLimit;
+import searchengine.utils.CancellationToken;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Адаптивные лимиты параллельных запросов по хостам. Быстрые сайты обходятся с большим
+ * параллелизмом, а медленные или перегруженные не получают больше запросов, чем выдерживают.
+ * Для хостов с Crawl-delay дополнительно соблюдается интервал между началами запросов.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HostConcurrencyLimiter {
+
+    /**
+     * Как часто ожидающий слота запрос проверяет отмену обхода.
+     */
+    private static final long CANCELLATION_CHECK_MILLIS = 100;
+
+    private final CrawlerConfig crawlerConfig;
+    private final SearchEngineMetrics metrics;
+    private final Map<String, AdaptiveConcurrencyLimit> limitsByHost = new ConcurrentHashMap<>();
+    /** Время в миллисекундах, раньше которого не может начаться следующий запрос к хосту. */
+    private final Map<String, AtomicLong> nextFetchByHost = new ConcurrentHashMap<>();
+
+    /**
+     * Ожидает очереди запроса к хосту страницы: запросы к хосту начинаются не чаще одного раза
+     * в {@code delayMillis}, сколько бы задач ни обходили хост одновременно. Каждый вызов занимает
+     * ближайшее свободное время и сдвигает следующее на {@code delayMillis}.
+     * @param url          адрес страницы
+     * @param delayMillis  минимальный интервал между запросами к хосту (Crawl-delay)
+     * @param cancellation отмена обхода; при отмене ожидание прекращается
+     * @return {@code false}, если обход отменен во время ожидания
+     */
+    public boolean awaitTurn(String url, long delayMillis, CancellationToken cancellation) throws InterruptedException {
+        if (delayMillis <= 0) {
+            return !cancellation.isCancelled();
+        }
+        AtomicLong nextFetch = nextFetchByHost.computeIfAbsent(SearchEngineMetrics.hostOf(url), host -> new AtomicLong());
+        long now = System.currentTimeMillis();
+        long turn = Math.max(now, nextFetch.getAndUpdate(next -> Math.max(next, now) + delayMillis));
+        return cancellation.sleep(turn - now);
+    }
+
+    /**
+     * Ожидает свободный слот для запроса к хосту страницы. Ожидание выполняется через
+     * {@link ForkJoinPool#managedBlock}, чтобы пул обхода мог временно добавить рабочий поток.
+     * @param url          адрес страницы
+     * @param cancellation отмена обхода; при отмене ожидание прекращается
+     * @return лимит хоста, которому нужно сообщить результат запроса
+     * @throws CancellationException если обход отменен до получения слота
+     */
+    public AdaptiveConcurrencyLimit acquire(String url, CancellationToken cancellation) throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = limitFor(SearchEngineMetrics.hostOf(url));
+        SlotBlocker blocker = new SlotBlocker(limit, cancellation);
+        ForkJoinPool.managedBlock(blocker);
+        if (!blocker.acquired) {
+            cancellation.throwIfCancelled();
+        }
+        return limit;
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(String host) {
+        return limitsByHost.computeIfAbsent(host, h -> {
+            CrawlerConfig.Concurrency config = crawlerConfig.getConcurrency();
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config.getInitialLimit(), config.getMinLimit(),
+                    config.getMaxLimit(), config.getBackoffRatio(), config.getLatencyTolerance());
+            metrics.registerHostConcurrency(h, limit);
+            log.debug("Создан адаптивный лимит запросов для хоста {}: {}", h, limit.getLimit());
+            return limit;
+        });
+    }
+
+    /**
+     * Ожидание слота хоста, которое прекращается при отмене обхода.
+     */
+    private static final class SlotBlocker implements ForkJoinPool.ManagedBlocker {
+        private final AdaptiveConcurrencyLimit limit;
+        private final CancellationToken cancellation;
+        private boolean acquired;
+
+        SlotBlocker(AdaptiveConcurrencyLimit limit, CancellationToken cancellation) {
+            this.limit = limit;
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            while (!acquired && !cancellation.isCancelled()) {
+                acquired = limit.tryAcquire(CANCELLATION_CHECK_MILLIS);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return acquired || (acquired = limit.tryAcquire()) || cancellation.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package searchengine.component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import searchengine.config.IndexConfig;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.repository.BulkInsertRepository;
+import searchengine.services.LemmaDictionaryService;
+import searchengine.services.LemmaService;
+import searchengine.utils.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер записи индекса при обходе: леммы и строки индекса многих страниц накапливаются в памяти
+ * и записываются пачкой. Частота каждой леммы обновляется одной строкой многострочного UPSERT
+ * за сброс, а не отдельным UPSERT на каждую страницу, поэтому потоки обхода не конкурируют
+ * за блокировки строк частых лемм.
+ * <p>
+ * Буфер сбрасывается при накоплении {@code index.write-buffer.max-pages} страниц или
+ * {@code index.write-buffer.max-rows} строк индекса, по таймеру и явно перед завершением обхода сайта.
+ * Сброс по заполнению и по таймеру записывает страницы всех сайтов, поэтому его ошибки только
+ * логируются: ошибка записи одного сайта не должна прерывать обход другого, который заполнил буфер.
+ * Данные сайта записываются в одной транзакции: приращения частот и строки индекса фиксируются вместе,
+ * поэтому частота леммы всегда равна количеству страниц с ней в индексе.
+ * <p>
+ * Неудачная запись сайта повторяется с перечитанными ID лемм до {@value #MAX_FLUSH_ATTEMPTS} раз.
+ * Если все попытки не удались, ID страниц запоминаются: обход сайта по {@link #takeUnindexedPages}
+ * помечает сайт FAILED, а индекс этих страниц восстанавливается перестройкой из сохраненных страниц.
+ */
+@Component
+@Slf4j
+public class IndexWriteBuffer {
+
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final LemmaService lemmaService;
+    private final LemmaIdCache lemmaIdCache;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final LemmaDictionaryService lemmaDictionaryService;
+    private final SearchEngineMetrics metrics;
+    private final IndexConfig indexConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Сбросы выполняются по одному: так леммы не блокируются встречными транзакциями этого же узла. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<Integer, SiteBatch> pending = new HashMap<>();
+    private int pendingPages;
+    private int pendingRows;
+    /** Страницы, индекс которых записать не удалось, по ID сайта. */
+    private final Map<Integer, Set<Integer>> unindexedPages = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushExecutor;
+
+    public IndexWriteBuffer(LemmaService lemmaService,
+                            LemmaIdCache lemmaIdCache,
+                            BulkInsertRepository bulkInsertRepository,
+                            LemmaDictionaryService lemmaDictionaryService,
+                            SearchEngineMetrics metrics,
+                            IndexConfig indexConfig,
+                            PlatformTransactionManager transactionManager) {
+        this.lemmaService = lemmaService;
+        this.lemmaIdCache = lemmaIdCache;
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.lemmaDictionaryService = lemmaDictionaryService;
+        this.metrics = metrics;
+        this.indexConfig = indexConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void startFlushing() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Index-Write-Buffer-Flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = indexConfig.getWriteBuffer().getFlushMillis();
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopFlushing() {
+        flushExecutor.shutdownNow();
+        flushQuietly();
+    }
+
+    /**
+     * Выделяет леммы страницы и добавляет их в буфер. Если буфер заполнен, сбрасывает его в потоке вызова;
+     * ошибки записи не выбрасываются, а страницы возвращает {@link #takeUnindexedPages}.
+     * @param page          сохраненная страница
+     * @param textForLemmas текст страницы
+     * @return {@code false}, если в тексте нет лемм и страница не индексируется
+     */
+    public boolean add(Page page, String textForLemmas) {
+        long lemmatizeStart = System.nanoTime();
+        ObjectIntHashMap<String> lemmas = lemmaService.collectLemmas(textForLemmas);
+        metrics.recordLemmatization(System.nanoTime() - lemmatizeStart);
+        if (lemmas.isEmpty()) {
+            log.warn("Для страницы {} не найдено подходящих лемм.", page.getPath());
+            return false;
+        }
+
+        IndexConfig.WriteBuffer config = indexConfig.getWriteBuffer();
+        boolean full;
+        synchronized (this) {
+            pending.computeIfAbsent(page.getSite().getId(), id -> new SiteBatch(page.getSite())).add(page.getId(), lemmas);
+            pendingPages++;
+            pendingRows += lemmas.size();
+            full = pendingPages >= config.getMaxPages() || pendingRows >= config.getMaxRows();
+        }
+        if (full) {
+            flushQuietly();
+        }
+        return true;
+    }
+
+    /**
+     * Записывает в базу данных все накопленные страницы.
+     * @throws DataAccessException  если данные одного из сайтов записать не удалось; данные остальных сайтов записываются,
+     *                              а страницы сайта возвращает {@link #takeUnindexedPages}
+     * @throws TransactionException если не удалось зафиксировать транзакцию
+     */
+    public void flush() {
+        Map<Integer, RuntimeException> failures = flushAll();
+        if (!failures.isEmpty()) {
+            throw failures.values().iterator().next();
+        }
+    }
+
+    /**
+     * Записывает все накопленные страницы перед завершением обхода сайта. Выбрасывает только ошибку
+     * записи страниц этого сайта: ошибки других сайтов достаются их собственным обходам.
+     * @param siteId ID сайта, обход которого завершается
+     * @throws DataAccessException  если не удалось записать страницы сайта
+     * @throws TransactionException если не удалось зафиксировать транзакцию сайта
+     */
+    public void flush(int siteId) {
+        RuntimeException failure = flushAll().get(siteId);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return ошибки записи по ID сайта; страницы этих сайтов запоминаются для {@link #takeUnindexedPages}
+     */
+    private Map<Integer, RuntimeException> flushAll() {
+        flushLock.lock();
+        try {
+            Map<Integer, SiteBatch> batches;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return Map.of();
+                }
+                batches = pending;
+                pending = new HashMap<>();
+                pendingPages = 0;
+                pendingRows = 0;
+            }
+            Map<Integer, RuntimeException> failures = new HashMap<>();
+            for (SiteBatch batch : batches.values()) {
+                try {
+                    flushSite(batch);
+                } catch (DataAccessException | TransactionException e) {
+                    log.error("Не удалось записать индекс {} страниц сайта {}: {}. ID страниц: {}",
+                            batch.rows.size(), batch.site.getName(), e.getMessage(), batch.rows.keySet());
+                    unindexedPages.computeIfAbsent(batch.site.getId(), id -> ConcurrentHashMap.newKeySet())
+                            .addAll(batch.rows.keySet());
+                    failures.put(batch.site.getId(), e);
+                }
+            }
+            return failures;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет из буфера несброшенные страницы сайта, например перед удалением его данных.
+     * Если сброс уже идет, дожидается его завершения.
+     * @param siteId ID сайта
+     */
+    public void discard(int siteId) {
+        flushLock.lock();
+        try {
+            synchronized (this) {
+                SiteBatch removed = pending.remove(siteId);
+                if (removed != null) {
+                    pendingPages -= removed.rows.size();
+                    pendingRows -= removed.rowCount;
+                    log.debug("Из буфера индекса удалено {} страниц сайта {}", removed.rows.size(), removed.site.getName());
+                }
+            }
+            unindexedPages.remove(siteId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает и забывает страницы сайта, индекс которых не удалось записать ни при одном сбросе.
+     * @param siteId ID сайта
+     * @return ID страниц; пустое множество, если ошибок записи не было
+     */
+    public Set<Integer> takeUnindexedPages(int siteId) {
+        Set<Integer> pages = unindexedPages.remove(siteId);
+        return pages == null ? Set.of() : pages;
+    }
+
+    /**
+     * Сброс по заполнению или таймеру: ошибки записи сайтов уже залогированы и запомнены в {@link #flushAll}.
+     */
+    private void flushQuietly() {
+        try {
+            flushAll();
+        } catch (Exception e) {
+            log.warn("Ошибка фонового сброса буфера индекса: {}", e.getMessage());
+        }
+    }
+
+    private void flushSite(SiteBatch batch) {
+        long start = System.nanoTime();
+        int siteId = batch.site.getId();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeSite(batch);
+                break;
+            } catch (DataAccessException | TransactionException e) {
+                // ID в кэше могли устареть, если леммы удалены в обход кэша: следующая попытка прочитает их заново.
+                lemmaIdCache.evict(siteId);
+                if (attempt >= MAX_FLUSH_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Попытка {} записи индекса сайта {} не удалась, повторяю: {}", attempt, batch.site.getName(), e.getMessage());
+            }
+        }
+        metrics.recordDbWrite("index-flush", System.nanoTime() - start);
+        log.debug("Буфер индекса сайта {} записан: страниц {}, лемм {}, строк индекса {} за {} мс",
+                batch.site.getName(), batch.rows.size(), batch.frequencyDeltas.size(), batch.rowCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void writeSite(SiteBatch batch) {
+        int batchSize = indexConfig.getInsertBatchSize();
+        int siteId = batch.site.getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            bulkInsertRepository.addLemmaFrequencies(siteId, batch.frequencyDeltas, batchSize);
+            ObjectIntHashMap<String> ids = lemmaIdCache.resolve(siteId, batch.frequencyDeltas.keys());
+
+            List<Object[]> indexRows = new ArrayList<>(batch.rowCount);
+            batch.rows.forEach((pageId, pageLemmas) -> pageLemmas.forEach((lemma, rank) ->
+                    indexRows.add(new Object[]{pageId, ids.getInt(lemma, 0), (float) rank})));
+            bulkInsertRepository.insertRows("`index`", "page_id, lemma_id, `rank`", indexRows, batchSize);
+            lemmaDictionaryService.refreshFrequencies(siteId, batch.frequencyDeltas.keys());
+        });
+    }
+
+    /**
+     * Несброшенные страницы одного сайта: леммы каждой страницы и суммарные приращения частот.
+     */
+    private static class SiteBatch {
+        private final Site site;
+        private final Map<Integer, ObjectIntHashMap<String>> rows = new HashMap<>();
+        private final ObjectIntHashMap<String> frequencyDeltas = new ObjectIntHashMap<>(1024);
+        private int rowCount;
+
+        SiteBatch(Site site) {
+            this.site = site;
+        }
+
+        void add(int pageId, ObjectIntHashMap<String> lemmas) {
+            if (rows.put(pageId, lemmas) == null) {
+                lemmas.forEach((lemma, count) -> frequencyDeltas.addTo(lemma, 1));
+                rowCount += lemmas.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package searchengine.component;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.model.Site;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счетчики хода индексации в памяти. Обновляются задачами обхода без обращения к базе данных,
+ * поэтому опрос прогресса остается дешевым даже во время обхода большого сайта.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndexingProgressTracker {
+
+    private final SearchEngineMetrics metrics;
+    private final Map<String, SiteProgress> progressBySiteUrl = new ConcurrentHashMap<>();
+
+    /**
+     * Начинает учет обхода сайта. Счетчики предыдущего обхода этого сайта сбрасываются.
+     * @param site сайт
+     * @return счетчики обхода
+     */
+    public SiteProgress start(Site site) {
+        AtomicInteger queued = metrics.frontierSize(site.getName());
+        queued.set(0);
+        SiteProgress progress = new SiteProgress(site.getUrl(), site.getName(), queued);
+        progressBySiteUrl.put(site.getUrl(), progress);
+        return progress;
+    }
+
+    public Collection<SiteProgress> getAll() {
+        return progressBySiteUrl.values();
+    }
+
+    /**
+     * Счетчики обхода одного сайта.
+     */
+    @Getter
+    public static class SiteProgress {
+
+        /** Окно в секундах, по которому считается текущая скорость загрузки. */
+        private static final int RATE_WINDOW_SECONDS = 10;
+        /** Младшие биты корзины скорости - число загрузок, старшие - секунда, к которой они относятся. */
+        private static final int COUNT_BITS = 24;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final String url;
+        private final String name;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile long finishedAt;
+        /** Ссылки, поставленные в очередь обхода. */
+        private final AtomicLong discovered = new AtomicLong();
+        /** Страницы, загруженные с сайта (с любым кодом ответа). */
+        private final AtomicLong fetched = new AtomicLong();
+        /** Страницы, для которых сохранены леммы и индекс. */
+        private final AtomicLong indexed = new AtomicLong();
+        /** Страницы, которые не удалось загрузить или проиндексировать. */
+        private final AtomicLong failed = new AtomicLong();
+        /** Ссылки, ожидающие обработки. */
+        private final AtomicInteger queued;
+
+        /**
+         * Корзины загрузок по секундам окна. Секунда и счетчик хранятся в одном значении, поэтому переход
+         * корзины на новую секунду и увеличение счетчика выполняются одной атомарной операцией.
+         */
+        @Getter(AccessLevel.NONE)
+        private final AtomicLongArray fetchBuckets = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+        SiteProgress(String url, String name, AtomicInteger queued) {
+            this.url = url;
+            this.name = name;
+            this.queued = queued;
+        }
+
+        public void linkDiscovered() {
+            discovered.incrementAndGet();
+            queued.incrementAndGet();
+        }
+
+        public void linkProcessed() {
+            queued.decrementAndGet();
+        }
+
+        public void pageFetched() {
+            fetched.incrementAndGet();
+            long second = System.currentTimeMillis() / 1000;
+            int bucket = (int) (second % RATE_WINDOW_SECONDS);
+            fetchBuckets.getAndUpdate(bucket, value -> (value >>> COUNT_BITS) == second
+                    ? Math.min(value + 1, (second << COUNT_BITS) | COUNT_MASK)
+                    : (second << COUNT_BITS) | 1);
+        }
+
+        public void pageIndexed() {
+            indexed.incrementAndGet();
+        }
+
+        public void pageFailed() {
+            failed.incrementAndGet();
+        }
+
+        public void finish() {
+            finishedAt = System.currentTimeMillis();
+            queued.set(0);
+        }
+
+        public boolean isFinished() {
+            return finishedAt != 0;
+        }
+
+        public long getElapsedMillis() {
+            return (isFinished() ? finishedAt : System.currentTimeMillis()) - startedAt;
+        }
+
+        /**
+         * Скорость загрузки страниц за последние {@value #RATE_WINDOW_SECONDS} секунд.
+         * @return страниц в секунду
+         */
+        public double getFetchRate() {
+            if (isFinished()) {
+                return 0;
+            }
+            long now = System.currentTimeMillis() / 1000;
+            long count = 0;
+            for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                long value = fetchBuckets.get(i);
+                if (now - (value >>> COUNT_BITS) < RATE_WINDOW_SECONDS) {
+                    count += value & COUNT_MASK;
+                }
+            }
+            double windowSeconds = Math.min(RATE_WINDOW_SECONDS, Math.max(1, getElapsedMillis() / 1000.0));
+            return count / windowSeconds;
+        }
+
+        /**
+         * Оценка оставшегося времени обхода по текущей скорости и размеру очереди.
+         * @return секунды или {@code null}, если скорость пока неизвестна
+         */
+        public Long getEtaSeconds() {
+            if (isFinished()) {
+                return 0L;
+            }
+            double rate = getFetchRate();
+            if (rate <= 0) {
+                return null;
+            }
+            return Math.round(Math.max(0, queued.get()) / rate);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package searchengine.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.IndexConfig;
+import searchengine.repository.LemmaRepository;
+import searchengine.repository.projection.LemmaView;
+import searchengine.utils.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш ID лемм по сайтам: после UPSERT частот строки индекса строятся по ID из памяти,
+ * без повторного чтения лемм по строкам из базы данных. Отсутствующие в кэше леммы читаются
+ * из базы данных одним запросом и запоминаются.
+ * <p>
+ * Кэш должен удаляться вместе с данными: леммы с нулевой частотой удаляются через {@link #remove},
+ * сайт целиком - через {@link #evict}. Перестройка индекса меняет ID всех лемм и заполняет кэш заново.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LemmaIdCache {
+
+    private final LemmaRepository lemmaRepository;
+    private final IndexConfig indexConfig;
+    private final Map<Integer, Map<String, Integer>> idsBySite = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает ID лемм сайта. Вызывается после записи лемм в базу данных в той же транзакции,
+     * поэтому недостающие леммы находятся запросом к базе данных.
+     * @param siteId ID сайта
+     * @param lemmas леммы
+     * @return ID по леммам; леммы, которых нет в базе данных, пропускаются
+     */
+    public ObjectIntHashMap<String> resolve(int siteId, Collection<String> lemmas) {
+        Map<String, Integer> cached = idsBySite.computeIfAbsent(siteId, id -> new ConcurrentHashMap<>());
+        ObjectIntHashMap<String> result = new ObjectIntHashMap<>(lemmas.size());
+        List<String> missing = new ArrayList<>();
+        for (String lemma : lemmas) {
+            Integer id = cached.get(lemma);
+            if (id != null) {
+                result.put(lemma, id);
+            } else {
+                missing.add(lemma);
+            }
+        }
+
+        int batchSize = indexConfig.getInsertBatchSize();
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<String> batch = missing.subList(from, Math.min(missing.size(), from + batchSize));
+            for (LemmaView view : lemmaRepository.findViewsBySiteIdAndLemmaIn(siteId, batch)) {
+                cached.put(view.getLemma(), view.getId());
+                result.put(view.getLemma(), view.getId());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Запоминает ID лемм сайта, назначенные при записи.
+     * @param siteId ID сайта
+     * @param ids    ID по леммам
+     */
+    public void putAll(int siteId, Map<String, Integer> ids) {
+        idsBySite.computeIfAbsent(siteId, id -> new ConcurrentHashMap<>()).putAll(ids);
+    }
+
+    /**
+     * Удаляет из кэша леммы сайта, удаленные из базы данных.
+     * @param siteId ID сайта
+     * @param lemmas удаленные леммы
+     */
+    public void remove(int siteId, Collection<String> lemmas) {
+        Map<String, Integer> cached = idsBySite.get(siteId);
+        if (cached != null) {
+            lemmas.forEach(cached::remove);
+        }
+    }
+
+    /**
+     * Удаляет из кэша все леммы сайта.
+     * @param siteId ID сайта
+     */
+    public void evict(int siteId) {
+        if (idsBySite.remove(siteId) != null) {
+            log.debug("Кэш ID лемм сайта {} очищен.", siteId);
+        }
+    }
+
+    /**
+     * Удаляет из кэша леммы всех сайтов.
+     */
+    public void clear() {
+        idsBySite.clear();
+    }
+}
@@ -0,0 +1,115 @@
+package searchengine.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import searchengine.config.MorphologyConfig;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Словари морфологии, загружаемые при первом обращении. Загрузка словарей занимает основную часть
+ * времени старта приложения, поэтому она откладывается до первой лемматизации или выполняется
+ * в фоне после старта (настройка {@code morphology.warm-up}).
+ * <p>
+ * Словари неизменяемы и хранятся в статических полях: все контексты Spring в одной JVM,
+ * в том числе контексты тестов, используют один экземпляр каждого словаря. Если словарь загрузить
+ * не удалось, обращение выбрасывает {@link IllegalStateException}, а следующее обращение повторяет загрузку.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MorphologyProvider {
+
+    private static final LazyMorphology RUSSIAN = new LazyMorphology("russian", RussianLuceneMorphology::new);
+    private static final LazyMorphology ENGLISH = new LazyMorphology("english", EnglishLuceneMorphology::new);
+
+    private final MorphologyConfig morphologyConfig;
+
+    /**
+     * @throws IllegalStateException если словарь не удалось загрузить
+     */
+    public LuceneMorphology russian() {
+        return RUSSIAN.get();
+    }
+
+    /**
+     * @throws IllegalStateException если словарь не удалось загрузить
+     */
+    public LuceneMorphology english() {
+        return ENGLISH.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        if (!morphologyConfig.isWarmUp()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                russian();
+                english();
+                log.info("Словари морфологии загружены за {} мс.",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (IllegalStateException e) {
+                log.warn("{}. Загрузка будет повторена при первой лемматизации.", e.getMessage());
+            }
+        }, "Morphology-Warm-Up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @FunctionalInterface
+    interface MorphologyLoader {
+        LuceneMorphology load() throws IOException;
+    }
+
+    /**
+     * Словарь, загружаемый при первом обращении (double-checked locking). Неудачная загрузка
+     * не запоминается, в отличие от инициализации статического поля класса-холдера, после
+     * которой класс остается непригодным до перезапуска JVM.
+     */
+    static final class LazyMorphology {
+        private final String language;
+        private final MorphologyLoader loader;
+        private volatile LuceneMorphology morphology;
+
+        LazyMorphology(String language, MorphologyLoader loader) {
+            this.language = language;
+            this.loader = loader;
+        }
+
+        LuceneMorphology get() {
+            LuceneMorphology result = morphology;
+            if (result == null) {
+                synchronized (this) {
+                    result = morphology;
+                    if (result == null) {
+                        result = load();
+                        morphology = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private LuceneMorphology load() {
+            long start = System.nanoTime();
+            try {
+                LuceneMorphology loaded = loader.load();
+                log.debug("Словарь морфологии '{}' загружен за {} мс.", language,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return loaded;
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Не удалось загрузить словарь морфологии: " + language, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package searchengine.component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.CancellationToken;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Загрузка страниц сайтов через {@link HttpClient}. В отличие от Jsoup, запрос прерывается отменой
+ * на любом этапе: и во время соединения и ожидания заголовков ответа, и при чтении тела.
+ * <p>
+ * Поведение совпадает с {@code Jsoup.connect(url).execute()}: перенаправления выполняются, на ответ
+ * не 2xx выбрасывается {@link HttpStatusException}, на содержимое не HTML/XML -
+ * {@link UnsupportedMimeTypeException}, тело ограничено {@code crawler.max-body-size}, а
+ * {@code crawler.timeout} ограничивает всю загрузку вместе с чтением тела (0 - без ограничения).
+ */
+@Component
+@Slf4j
+public class PageFetcher {
+
+    private static final Pattern CHARSET_PATTERN = Pattern.compile("charset\\s*=\\s*[\"']?([^\\s;\"']+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SUPPORTED_CONTENT_TYPE = Pattern.compile("(?i)(text/[\\w.+-]+|application/([\\w.-]+\\+)?xml)\\s*(;.*)?");
+
+    private final CrawlerConfig crawlerConfig;
+    private final HttpClient client;
+    /** Закрывает тела ответов, которые не дочитаны за {@code crawler.timeout}. */
+    private final ScheduledThreadPoolExecutor deadlines;
+
+    public PageFetcher(CrawlerConfig crawlerConfig) {
+        this.crawlerConfig = crawlerConfig;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (crawlerConfig.getTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(crawlerConfig.getTimeout()));
+        }
+        this.client = builder.build();
+        this.deadlines = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Page-Fetch-Deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deadlines.shutdownNow();
+    }
+
+    /**
+     * Отправляет запрос GET и ждет заголовки ответа. Обработчик отмены регистрируется до отправки
+     * запроса: отмена закрывает соединение, и метод выбрасывает {@link CancellationException}.
+     * @param url          адрес страницы
+     * @param cancellation отмена обхода
+     * @return ответ с открытым потоком тела; его нужно закрыть
+     * @throws HttpStatusException          если код ответа не 2xx
+     * @throws UnsupportedMimeTypeException если ответ не HTML или XML
+     * @throws IOException                  при сетевой ошибке или таймауте
+     */
+    public Response open(String url, CancellationToken cancellation) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        int timeout = crawlerConfig.getTimeout();
+        HttpRequest.Builder request = HttpRequest.newBuilder(toUri(url)).GET();
+        if (timeout > 0) {
+            request.timeout(Duration.ofMillis(timeout));
+        }
+        if (crawlerConfig.getUserAgent() != null) {
+            request.header("User-Agent", crawlerConfig.getUserAgent());
+        }
+        if (crawlerConfig.getReferrer() != null) {
+            request.header("Referer", crawlerConfig.getReferrer());
+        }
+
+        Response response = new Response(url);
+        response.registration = cancellation.onCancel(response::abort);
+        try {
+            response.start(client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream()));
+            HttpResponse<InputStream> httpResponse = response.awaitHeaders();
+            response.accept(httpResponse, crawlerConfig.getMaxBodySize());
+            checkResponse(httpResponse, url);
+            if (timeout > 0) {
+                long remaining = Math.max(1, timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                response.body.deadline = deadlines.schedule(response.body::expire, remaining, TimeUnit.MILLISECONDS);
+            }
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    private static void checkResponse(HttpResponse<InputStream> response, String url) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            throw new HttpStatusException("HTTP error fetching URL", statusCode, url);
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (contentType != null && !SUPPORTED_CONTENT_TYPE.matcher(contentType.trim()).matches()) {
+            throw new UnsupportedMimeTypeException("Unhandled content type", contentType, url);
+        }
+    }
+
+    /**
+     * Адрес из ссылки страницы: недопустимые в URI символы (пробелы, кириллица) кодируются, как это делает Jsoup.
+     */
+    static URI toUri(String url) throws MalformedURLException {
+        try {
+            return URI.create(url);
+        } catch (IllegalArgumentException e) {
+            URL parsed = new URL(url);
+            try {
+                URI uri = new URI(parsed.getProtocol(), parsed.getUserInfo(), parsed.getHost(), parsed.getPort(),
+                        parsed.getPath(), parsed.getQuery(), null);
+                return URI.create(uri.toASCIIString());
+            } catch (URISyntaxException | IllegalArgumentException invalid) {
+                throw new MalformedURLException(invalid.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ответ сайта: код состояния, итоговый адрес после перенаправлений, кодировка из заголовка
+     * Content-Type и поток тела. Закрытие освобождает соединение и снимает обработчик отмены.
+     */
+    public static final class Response implements AutoCloseable {
+        private final String requestUrl;
+        private CancellationToken.Registration registration;
+        private volatile CompletableFuture<HttpResponse<InputStream>> future;
+        private volatile boolean aborted;
+        private int statusCode;
+        private String url;
+        private String charset;
+        private volatile LimitedBody body;
+
+        private Response(String requestUrl) {
+            this.requestUrl = requestUrl;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return кодировка из заголовка Content-Type или {@code null}
+         */
+        public String getCharset() {
+            return charset;
+        }
+
+        public InputStream getBody() {
+            return body;
+        }
+
+        private void start(CompletableFuture<HttpResponse<InputStream>> future) {
+            this.future = future;
+            if (aborted) {
+                future.cancel(true);
+            }
+        }
+
+        private HttpResponse<InputStream> awaitHeaders() throws IOException, InterruptedException {
+            try {
+                return future.get();
+            } catch (CancellationException e) {
+                throw cancelled();
+            } catch (ExecutionException e) {
+                // Отмененный запрос HttpClient завершается ошибкой ввода-вывода, а не CancellationException.
+                if (aborted) {
+                    throw cancelled();
+                }
+                if (e.getCause() instanceof IOException cause) {
+                    throw cause;
+                }
+                throw new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                throw e;
+            }
+        }
+
+        private CancellationException cancelled() {
+            return new CancellationException("Загрузка " + requestUrl + " прервана остановкой индексации");
+        }
+
+        private void accept(HttpResponse<InputStream> response, int maxBodySize) {
+            statusCode = response.statusCode();
+            url = response.uri().toString();
+            charset = response.headers().firstValue("Content-Type")
+                    .map(CHARSET_PATTERN::matcher)
+                    .filter(Matcher::find)
+                    .map(matcher -> matcher.group(1))
+                    .orElse(null);
+            body = new LimitedBody(response.body(), maxBodySize);
+            if (aborted) {
+                body.closeQuietly();
+            }
+        }
+
+        /**
+         * Прерывает загрузку из потока отмены: до получения заголовков отменяет запрос, после - закрывает поток тела.
+         */
+        private void abort() {
+            aborted = true;
+            CompletableFuture<HttpResponse<InputStream>> current = future;
+            if (current != null) {
+                current.cancel(true);
+            }
+            LimitedBody currentBody = body;
+            if (currentBody != null) {
+                currentBody.closeQuietly();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (registration != null) {
+                registration.close();
+            }
+            if (body != null) {
+                body.closeQuietly();
+            } else if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Поток тела, который заканчивается после {@code limit} байт, как при {@code maxBodySize} в Jsoup.
+     * По истечении таймаута поток закрывается, а чтение завершается {@link SocketTimeoutException}.
+     */
+    private static final class LimitedBody extends FilterInputStream {
+        private long remaining;
+        private volatile boolean expired;
+        private volatile ScheduledFuture<?> deadline;
+
+        LimitedBody(InputStream in, int limit) {
+            super(in);
+            this.remaining = limit > 0 ? limit : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = readChecked(() -> super.read());
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int toRead = (int) Math.min(length, remaining);
+            int count = readChecked(() -> super.read(buffer, offset, toRead));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        /**
+         * Закрытый поток HttpClient при чтении возвращает конец потока или ошибку; после таймаута
+         * и то и другое означает, что тело прочитано не полностью.
+         */
+        private int readChecked(IoRead read) throws IOException {
+            int result;
+            try {
+                result = read.get();
+            } catch (IOException e) {
+                if (expired) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                throw e;
+            }
+            if (result == -1 && expired) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            return result;
+        }
+
+        void expire() {
+            expired = true;
+            closeQuietly();
+        }
+
+        void closeQuietly() {
+            ScheduledFuture<?> current = deadline;
+            if (current != null && !expired) {
+                current.cancel(false);
+            }
+            try {
+                close();
+            } catch (IOException e) {
+                log.debug("Не удалось закрыть поток ответа: {}", e.getMessage());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoRead {
+        int get() throws IOException;
+    }
+}
@@ -0,0 +1,92 @@
+package searchengine.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.RobotsRules;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш правил robots.txt по хостам. Файл загружается один раз на хост за время индексации.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RobotsCache {
+
+    private final CrawlerConfig crawlerConfig;
+    private final Map<String, RobotsRules> rulesByOrigin = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает правила robots.txt для хоста страницы.
+     * <p>
+     * По RFC 9309 ответ 4xx означает отсутствие ограничений, а ответ 5xx или недоступность
+     * файла - запрет обхода всего хоста; причина доступна в {@link RobotsRules#getUnavailableReason()},
+     * чтобы сайт не считался проиндексированным без страниц. Если учет robots.txt отключен в конфигурации,
+     * все адреса разрешены.
+     * @param url адрес любой страницы хоста
+     */
+    public RobotsRules rulesFor(String url) {
+        if (!crawlerConfig.isRespectRobots()) {
+            return RobotsRules.allowAll();
+        }
+        String origin = originOf(url);
+        if (origin == null) {
+            return RobotsRules.allowAll();
+        }
+        return rulesByOrigin.computeIfAbsent(origin, this::load);
+    }
+
+    /**
+     * Сбрасывает кэш, чтобы при следующей индексации правила были прочитаны заново.
+     */
+    public void clear() {
+        rulesByOrigin.clear();
+    }
+
+    private RobotsRules load(String origin) {
+        String robotsUrl = origin + "/robots.txt";
+        try {
+            Connection.Response response = Jsoup.connect(robotsUrl)
+                    .userAgent(crawlerConfig.getUserAgent())
+                    .timeout(crawlerConfig.getTimeout())
+                    .ignoreHttpErrors(true)
+                    .ignoreContentType(true)
+                    .execute();
+            int statusCode = response.statusCode();
+            if (statusCode >= 200 && statusCode < 300) {
+                RobotsRules rules = RobotsRules.parse(response.body(), crawlerConfig.getUserAgent());
+                log.info("Загружен {}: sitemap {}, Crawl-delay {} мс", robotsUrl, rules.getSitemaps().size(), rules.getCrawlDelayMillis());
+                return rules;
+            }
+            if (statusCode >= 500) {
+                log.warn("{} вернул код {}. Обход хоста запрещен до следующей индексации.", robotsUrl, statusCode);
+                return RobotsRules.unavailable(robotsUrl + " недоступен: код ответа " + statusCode);
+            }
+            log.debug("{} вернул код {}. Ограничений нет.", robotsUrl, statusCode);
+            return RobotsRules.allowAll();
+        } catch (IOException e) {
+            log.warn("Не удалось загрузить {}: {}. Обход хоста запрещен до следующей индексации.", robotsUrl, e.getMessage());
+            return RobotsRules.unavailable(robotsUrl + " недоступен: " + e.getMessage());
+        }
+    }
+
+    private String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+                return null;
+            }
+            return uri.getScheme().toLowerCase() + "://" + uri.getRawAuthority().toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
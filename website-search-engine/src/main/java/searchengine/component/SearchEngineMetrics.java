@@ -0,0 +1,235 @@
+package searchengine.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import searchengine.utils.AdaptiveConcurrencyLimit;
+import searchengine.utils.CountingLruCache;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Метрики обхода сайтов и поиска. Публикуются через Micrometer на эндпоинтах
+ * {@code /actuator/metrics} и {@code /actuator/prometheus}.
+ */
+@Component
+public class SearchEngineMetrics {
+
+    public static final String STAGE_LEMMAS = "lemmas";
+    public static final String STAGE_LOOKUP = "lookup";
+    public static final String STAGE_INTERSECTION = "intersection";
+    public static final String STAGE_SCORING = "scoring";
+    public static final String STAGE_HYDRATION = "hydration";
+    public static final String STAGE_SNIPPET = "snippet";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> frontierSizes = new ConcurrentHashMap<>();
+    // Счетчики горячих путей регистрируются один раз: builder().register() на каждое событие
+    // ищет счетчик в реестре и создает теги.
+    private final Counter contentOriginalBytes;
+    private final Counter contentStoredBytes;
+    private final Timer contentCompress;
+    private final Timer contentDecompress;
+    private final Timer lemmatization;
+    private final Timer searchRequest;
+    private final Timer indexingStop;
+    private final Map<String, Timer> fetchTimers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> responseCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> pageCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> duplicateCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> dbWriteTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> searchStageTimers = new ConcurrentHashMap<>();
+
+    public SearchEngineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.contentOriginalBytes = Counter.builder("storage.page.content.bytes")
+                .description("Объем содержимого страниц")
+                .tag("kind", "original")
+                .register(registry);
+        this.contentStoredBytes = Counter.builder("storage.page.content.bytes")
+                .description("Объем содержимого страниц")
+                .tag("kind", "stored")
+                .register(registry);
+        this.contentCompress = Timer.builder("storage.page.content.codec")
+                .description("Время сжатия и распаковки содержимого страниц")
+                .tag("operation", "compress")
+                .register(registry);
+        this.contentDecompress = Timer.builder("storage.page.content.codec")
+                .description("Время сжатия и распаковки содержимого страниц")
+                .tag("operation", "decompress")
+                .register(registry);
+        this.lemmatization = Timer.builder("indexing.lemmatize")
+                .description("Время выделения лемм из текста страницы")
+                .register(registry);
+        this.searchRequest = Timer.builder("search.request")
+                .description("Общее время выполнения поискового запроса")
+                .register(registry);
+        this.indexingStop = Timer.builder("indexing.stop")
+                .description("Время остановки индексации")
+                .register(registry);
+    }
+
+    /**
+     * Время загрузки страницы и код ответа. Для сетевых ошибок вместо кода указывается {@code error}.
+     */
+    public void recordFetch(String url, String status, long nanos) {
+        String host = hostOf(url);
+        fetchTimers.computeIfAbsent(host, h -> Timer.builder("crawler.fetch")
+                        .description("Время загрузки страницы")
+                        .tag("host", h)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        responseCounters.computeIfAbsent(host, h -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, code -> Counter.builder("crawler.http.responses")
+                        .description("Ответы сайтов по кодам состояния")
+                        .tag("host", host)
+                        .tag("status", code)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Учитывает сохраненную страницу; скорость обхода считается как rate() от этого счетчика.
+     */
+    public void pageSaved(String siteName) {
+        pageCounters.computeIfAbsent(siteName, name -> Counter.builder("crawler.pages")
+                        .description("Сохраненные страницы")
+                        .tag("site", name)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Учитывает страницу, признанную почти полной копией ранее сохраненной.
+     */
+    public void duplicatePage(String siteName) {
+        duplicateCounters.computeIfAbsent(siteName, name -> Counter.builder("crawler.pages.duplicate")
+                        .description("Страницы-дубликаты, пропущенные при индексации")
+                        .tag("site", name)
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordLemmatization(long nanos) {
+        lemmatization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Время от запроса остановки индексации до освобождения потоков обхода.
+     */
+    public void recordIndexingStop(long nanos) {
+        indexingStop.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Публикует попадания и промахи кэша лемм слов и его текущий размер.
+     * Доля попаданий - отношение счетчика {@code result=hit} к сумме обоих счетчиков.
+     */
+    public void registerLemmaCache(CountingLruCache<?, ?> cache) {
+        FunctionCounter.builder("lemma.cache.requests", cache, CountingLruCache::hitCount)
+                .description("Обращения к кэшу лемм слов")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("lemma.cache.requests", cache, CountingLruCache::missCount)
+                .description("Обращения к кэшу лемм слов")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("lemma.cache.size", cache, CountingLruCache::size)
+                .description("Количество слов в кэше лемм")
+                .register(registry);
+    }
+
+    /**
+     * Время записи в базу данных при обработке одной страницы.
+     * @param operation {@code page} - сохранение страницы, {@code lemmas} - запись лемм и индексов
+     */
+    public void recordDbWrite(String operation, long nanos) {
+        dbWriteTimers.computeIfAbsent(operation, op -> Timer.builder("indexing.db.write")
+                        .description("Время записи в базу данных на одну страницу")
+                        .tag("operation", op)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Возвращает счетчик ссылок сайта, ожидающих обработки. Счетчик публикуется как gauge.
+     */
+    public AtomicInteger frontierSize(String siteName) {
+        return frontierSizes.computeIfAbsent(siteName, name -> {
+            AtomicInteger size = new AtomicInteger();
+            Gauge.builder("crawler.frontier.size", size, AtomicInteger::get)
+                    .description("Количество ссылок в очереди обхода")
+                    .tag("site", name)
+                    .register(registry);
+            return size;
+        });
+    }
+
+    /**
+     * Публикует текущий адаптивный лимит и количество выполняющихся запросов к хосту.
+     */
+    public void registerHostConcurrency(String host, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("crawler.host.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Текущий лимит параллельных запросов к хосту")
+                .tag("host", host)
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.host.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Количество выполняющихся запросов к хосту")
+                .tag("host", host)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Учитывает запись содержимого страницы: исходный и сохраненный (сжатый) размер и время сжатия.
+     * Степень сжатия - отношение счетчиков {@code kind=original} и {@code kind=stored}.
+     */
+    public void recordContentWrite(int originalBytes, int storedBytes, long nanos) {
+        contentOriginalBytes.increment(originalBytes);
+        contentStoredBytes.increment(storedBytes);
+        contentCompress.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordContentRead(long nanos) {
+        contentDecompress.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSearch(long nanos) {
+        searchRequest.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSearchStage(String stage, long nanos) {
+        searchStageTimers.computeIfAbsent(stage, name -> Timer.builder("search.stage")
+                        .description("Время выполнения этапа поиска")
+                        .tag("stage", name)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T timeSearchStage(String stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            recordSearchStage(stage, System.nanoTime() - start);
+        }
+    }
+
+    public static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "unknown" : host;
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+}
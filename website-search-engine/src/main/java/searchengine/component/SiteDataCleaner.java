@@ -7,6 +7,7 @@ import org.springframework.transaction.annotation.Transactional;
 import searchengine.config.SitesListConfig;
 import searchengine.model.Site;
 import searchengine.repository.SiteRepository;
+import searchengine.services.LemmaDictionaryService;
 
 @Component
 @RequiredArgsConstructor
@@ -15,11 +16,17 @@ public class SiteDataCleaner {
 
     private final SiteRepository siteRepository;
     private final SitesListConfig sites;
+    private final LemmaDictionaryService lemmaDictionaryService;
+    private final IndexWriteBuffer indexWriteBuffer;
+    private final LemmaIdCache lemmaIdCache;
 
     @Transactional
     public void clearDataForSite(Site site) {
         log.info("Полное удаление данных для сайта: {}. Доверяем каскадному удалению в БД.", site.getName());
+        indexWriteBuffer.discard(site.getId());
         siteRepository.delete(site);
+        lemmaDictionaryService.evict(site.getId());
+        lemmaIdCache.evict(site.getId());
         log.info("Удаление сайта {} и всех связанных данных завершено.", site.getName());
     }
 }
@@ -0,0 +1,115 @@
+package searchengine.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.model.Site;
+import searchengine.utils.RobotsRules;
+import searchengine.utils.SitemapEntry;
+import searchengine.utils.SitemapParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Загружает адреса страниц сайта из sitemap.xml для начального заполнения очереди обхода.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SitemapLoader {
+
+    private final CrawlerConfig crawlerConfig;
+
+    /**
+     * Читает sitemap сайта: адреса из директив Sitemap в robots.txt или {@code /sitemap.xml}.
+     * Индексы sitemap обходятся рекурсивно до глубины {@code crawler.sitemap.max-depth}.
+     * @param site   сайт
+     * @param robots правила robots.txt сайта
+     * @return адреса страниц сайта, разрешенные robots.txt, от недавно измененных к старым
+     */
+    public List<SitemapEntry> load(Site site, RobotsRules robots) {
+        CrawlerConfig.Sitemap config = crawlerConfig.getSitemap();
+        if (!config.isEnabled()) {
+            return List.of();
+        }
+        String siteUrl = stripTrailingSlash(site.getUrl());
+
+        Deque<SitemapLocation> queue = new ArrayDeque<>();
+        robots.getSitemaps().stream()
+                .filter(url -> url.startsWith(siteUrl))
+                .forEach(url -> queue.add(new SitemapLocation(url, 0)));
+        if (queue.isEmpty()) {
+            queue.add(new SitemapLocation(siteUrl + "/sitemap.xml", 0));
+        }
+
+        Set<String> visitedSitemaps = new HashSet<>();
+        List<SitemapEntry> entries = new ArrayList<>();
+        while (!queue.isEmpty() && entries.size() < config.getMaxUrls()) {
+            SitemapLocation sitemap = queue.poll();
+            if (!visitedSitemaps.add(sitemap.getUrl())) {
+                continue;
+            }
+            readSitemap(sitemap.getUrl(), entry -> {
+                if (entries.size() < config.getMaxUrls()
+                        && entry.getLocation().startsWith(siteUrl)
+                        && robots.isUrlAllowed(entry.getLocation())) {
+                    entries.add(entry);
+                }
+            }, nested -> {
+                if (sitemap.getDepth() < config.getMaxDepth() && nested.startsWith(siteUrl)) {
+                    queue.add(new SitemapLocation(nested, sitemap.getDepth() + 1));
+                }
+            });
+        }
+
+        entries.sort(SitemapEntry.NEWEST_FIRST);
+        if (!entries.isEmpty()) {
+            log.info("Из sitemap сайта '{}' получено {} адресов.", site.getName(), entries.size());
+        }
+        return entries;
+    }
+
+    private void readSitemap(String url, Consumer<SitemapEntry> pageConsumer,
+                             Consumer<String> sitemapConsumer) {
+        try {
+            Connection.Response response = Jsoup.connect(url)
+                    .userAgent(crawlerConfig.getUserAgent())
+                    .timeout(crawlerConfig.getTimeout())
+                    .ignoreHttpErrors(true)
+                    .ignoreContentType(true)
+                    .maxBodySize(0)
+                    .execute();
+            if (response.statusCode() != 200) {
+                log.debug("Sitemap {} недоступен: код {}", url, response.statusCode());
+                return;
+            }
+            try (InputStream body = response.bodyStream()) {
+                SitemapParser.parse(body, pageConsumer, sitemapConsumer);
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать sitemap {}: {}", url, e.getMessage());
+        }
+    }
+
+    private String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Value
+    private static class SitemapLocation {
+        String url;
+        int depth;
+    }
+}
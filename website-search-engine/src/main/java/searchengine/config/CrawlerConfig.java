@@ -15,4 +15,82 @@ public class CrawlerConfig {
     private int minDelay;
     private int maxDelay;
     private int timeout;
-}
\ No newline at end of file
+    private int maxBodySize = 5 * 1024 * 1024;
+    private boolean respectRobots = true;
+    private Concurrency concurrency = new Concurrency();
+    private Scheduler scheduler = new Scheduler();
+    private Sitemap sitemap = new Sitemap();
+    private Duplicates duplicates = new Duplicates();
+    private Cluster cluster = new Cluster();
+
+    /**
+     * Настройки адаптивного ограничения параллельных запросов к одному хосту.
+     * Лимит растет, пока задержка ответов стабильна, и уменьшается при ответах 429/503, таймаутах и отказах в соединении.
+     */
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private int initialLimit = 2;
+        private int minLimit = 1;
+        private int maxLimit = 16;
+        private double backoffRatio = 0.5;
+        private double latencyTolerance = 3.0;
+    }
+
+    /**
+     * Настройки общего пула обхода всех сайтов.
+     */
+    @Getter
+    @Setter
+    public static class Scheduler {
+        /** Число потоков пула; 0 - по числу процессоров, но не меньше {@code concurrency.max-limit}. */
+        private int threads = 0;
+    }
+
+    /**
+     * Настройки чтения sitemap.xml для начального заполнения очереди обхода.
+     */
+    @Getter
+    @Setter
+    public static class Sitemap {
+        private boolean enabled = true;
+        private int maxUrls = 50000;
+        private int maxDepth = 2;
+    }
+
+    /**
+     * Настройки поиска почти одинаковых страниц по отпечатку SimHash. Дубликаты сохраняются
+     * со ссылкой на каноническую страницу и не лемматизируются.
+     */
+    @Getter
+    @Setter
+    public static class Duplicates {
+        private boolean enabled = true;
+        /** Страницы с меньшим количеством слов не проверяются: на коротких текстах отпечатки ненадежны. */
+        private int minWords = 50;
+        /** Максимальное расстояние Хэмминга между отпечатками дубликатов (0..7). */
+        private int maxDistance = 3;
+    }
+
+    /**
+     * Настройки распределенного обхода. Несколько экземпляров приложения с общей базой данных
+     * делят адресное пространство на разделы по хешу хоста: каждый узел арендует свою долю разделов
+     * и обходит только адреса из них. Очередь обхода хранится в таблице {@code crawl_frontier}.
+     */
+    @Getter
+    @Setter
+    public static class Cluster {
+        private boolean enabled = false;
+        /** Имя узла; по умолчанию имя хоста и PID процесса. */
+        private String nodeId = "";
+        /** Число разделов адресного пространства; одинаково на всех узлах. */
+        private int partitions = 64;
+        /** Срок аренды раздела и взятого в работу адреса; узел, не продливший аренду, считается выбывшим. */
+        private int leaseSeconds = 30;
+        private long pollMillis = 1000;
+        /** Сколько адресов узел берет из очереди за один раз. */
+        private int batchSize = 16;
+        /** Сколько раз адрес выдается повторно после истечения аренды, прежде чем помечается как FAILED. */
+        private int maxAttempts = 3;
+    }
+}
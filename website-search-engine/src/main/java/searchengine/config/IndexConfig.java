@@ -0,0 +1,44 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "index")
+public class IndexConfig {
+    /** Количество строк в одном многострочном INSERT при пакетной записи лемм и индекса. */
+    private int insertBatchSize = 1000;
+    private WriteBuffer writeBuffer = new WriteBuffer();
+    private Reindex reindex = new Reindex();
+
+    /**
+     * Настройки буфера записи индекса при обходе: леммы и строки индекса многих страниц
+     * накапливаются в памяти и записываются пачкой.
+     */
+    @Getter
+    @Setter
+    public static class WriteBuffer {
+        /** Количество страниц, при накоплении которого буфер сбрасывается. */
+        private int maxPages = 200;
+        /** Количество строк индекса, при накоплении которого буфер сбрасывается. */
+        private int maxRows = 50000;
+        /** Интервал сброса по таймеру, мс. */
+        private long flushMillis = 2000;
+    }
+
+    /**
+     * Настройки перестройки лемм и индекса из сохраненных страниц без повторного обхода.
+     */
+    @Getter
+    @Setter
+    public static class Reindex {
+        /** Количество потоков лемматизации; 0 - по числу процессоров. */
+        private int threads = 0;
+        /** Количество строк, читаемых за одно обращение к базе данных (для MySQL страницы читаются потоком). */
+        private int fetchSize = 500;
+    }
+}
@@ -0,0 +1,30 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "morphology")
+public class MorphologyConfig {
+    /**
+     * Максимальное количество слов в кэше "слово -> лемма". Значение 0 отключает кэш.
+     */
+    private int cacheSize = 100_000;
+    /**
+     * Загружать словари морфологии в фоне сразу после старта приложения.
+     * Если выключено, словари загружаются при первой лемматизации.
+     */
+    private boolean warmUp = true;
+    /**
+     * Подключенные анализаторы языков. Если алфавиты анализаторов пересекаются,
+     * символ относится к языку, указанному раньше.
+     */
+    private List<String> analyzers = new ArrayList<>(List.of("russian", "english"));
+}
@@ -0,0 +1,61 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "search")
+public class SearchConfig {
+    /**
+     * Максимальное количество ID в одном условии {@code IN} при загрузке рангов и данных страниц.
+     */
+    private int queryBatchSize = 1000;
+    private Fuzzy fuzzy = new Fuzzy();
+    private Planner planner = new Planner();
+    private Shards shards = new Shards();
+
+    /**
+     * Настройки нечеткого поиска: слова запроса, которых нет в словаре сайта,
+     * заменяются похожими леммами с пониженным весом.
+     */
+    @Getter
+    @Setter
+    public static class Fuzzy {
+        private boolean enabled = true;
+        private int minWordLength = 4;
+        private int twoEditsMinLength = 8;
+        private int maxExpansions = 3;
+        private float weight = 0.5f;
+    }
+
+    /**
+     * Настройки планировщика поиска.
+     */
+    @Getter
+    @Setter
+    public static class Planner {
+        /**
+         * Термин, который встречается на большей доле страниц сайта, пропускается, если в запросе
+         * есть более редкий термин. Самый редкий термин запроса не пропускается никогда.
+         */
+        private double skipSelectivity = 0.9;
+    }
+
+    /**
+     * Настройки шардирования поиска: сайты распределяются по шардам по ID сайта,
+     * запрос выполняется во всех шардах параллельно, выдача шардов объединяется.
+     */
+    @Getter
+    @Setter
+    public static class Shards {
+        /**
+         * Количество шардов; столько же потоков выполняют поиск в шардах.
+         */
+        private int count = 4;
+        private int timeoutSeconds = 30;
+    }
+}
@@ -9,15 +9,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import searchengine.component.ApiResponseFactory;
+import searchengine.dto.indexing.IndexingProgressDTO;
+import searchengine.dto.search.SearchExplainResponseDTO;
 import searchengine.dto.search.SearchResponseDTO;
+import searchengine.dto.search.SuggestResponseDTO;
 import searchengine.dto.statistics.StatisticsResponseDTO;
+import searchengine.services.IndexingProgressService;
 import searchengine.services.IndexingService;
 import searchengine.services.SearchService;
 import searchengine.services.StatisticsService;
@@ -33,6 +39,7 @@ public class ApiController {
 
     private final StatisticsService statisticsService;
     private final IndexingService indexingService;
+    private final IndexingProgressService indexingProgressService;
     private final SearchService searchService;
     private final ApiResponseFactory apiResponseFactory;
 
@@ -98,6 +105,50 @@ public class ApiController {
         }
     }
 
+    @GetMapping("/reindex")
+    @Operation(
+            summary = "Перестройка индекса из сохраненных страниц",
+            description = "Заново лемматизирует все сохраненные страницы без обхода сайтов и заменяет леммы и индекс новыми. До замены поиск работает по текущему индексу. Останавливается так же, как индексация."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Запрос обработан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(example = "{\"result\": true} или {\"result\": false, \"error\": \"Индексация уже запущена\"}")))
+    })
+    public ResponseEntity<Map<String, Object>> reindex() {
+        log.info("Получен запрос на перестройку индекса из сохраненных страниц");
+        if (indexingService.startReindexing()) {
+            return apiResponseFactory.createSuccessResponse();
+        } else {
+            return apiResponseFactory.createErrorResponse("Индексация уже запущена");
+        }
+    }
+
+    @GetMapping("/indexing/progress")
+    @Operation(
+            summary = "Ход индексации",
+            description = "Возвращает счетчики текущего обхода по каждому сайту: найдено, загружено, проиндексировано и с ошибкой страниц, скорость загрузки, размер очереди и оценку оставшегося времени. Данные берутся из памяти без запросов к базе данных."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Прогресс успешно получен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = IndexingProgressDTO.class)))
+    })
+    public ResponseEntity<IndexingProgressDTO> indexingProgress() {
+        log.debug("Получен запрос на прогресс индексации");
+        return ResponseEntity.ok(indexingProgressService.getProgress());
+    }
+
+    @GetMapping(value = "/indexing/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Поток хода индексации",
+            description = "Server-sent events: раз в секунду отправляет событие progress с тем же содержимым, что и /api/indexing/progress."
+    )
+    public SseEmitter indexingProgressStream() {
+        log.info("Получен запрос на подписку на прогресс индексации");
+        return indexingProgressService.subscribe();
+    }
+
     @PostMapping("/indexPage")
     @Operation(
             summary = "Индексация отдельной страницы",
@@ -145,4 +196,45 @@ public class ApiController {
         SearchResponseDTO response = searchService.search(query, site, offset, limit);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/search/explain")
+    @Operation(
+            summary = "План поиска",
+            description = "Не выполняя поиск, возвращает для каждого сайта оценки количества страниц для лемм запроса, пропущенные частые леммы, оценки стоимости стратегий и выбранную стратегию."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "План успешно составлен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SearchExplainResponseDTO.class)))
+    })
+    public ResponseEntity<SearchExplainResponseDTO> explainSearch(
+            @Parameter(description = "Поисковый запрос", required = true, example = "программирование на java")
+            @RequestParam(name = "query") String query,
+            @Parameter(description = "Сайт для поиска (если не указан, по всем сайтам)", example = "http://example.com")
+            @RequestParam(name = "site", required = false) String site) {
+        log.debug("Получен запрос плана поиска: query={}, site={}", query, site);
+        return ResponseEntity.ok(searchService.explain(query, site));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Подсказки для автодополнения",
+            description = "Возвращает проиндексированные леммы, начинающиеся с последнего слова запроса, в порядке убывания частоты."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Подсказки успешно получены",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SuggestResponseDTO.class)))
+    })
+    public ResponseEntity<SuggestResponseDTO> suggest(
+            @Parameter(description = "Начало поискового запроса", required = true, example = "леоп")
+            @RequestParam(name = "query") String query,
+            @Parameter(description = "Сайт для поиска (если не указан, по всем сайтам)", example = "http://example.com")
+            @RequestParam(name = "site", required = false) String site,
+            @Parameter(description = "Максимальное количество подсказок")
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.debug("Получен запрос подсказок: query={}, site={}, limit={}", query, site, limit);
+        SuggestResponseDTO response = searchService.suggest(query, site, limit);
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,12 @@
+package searchengine.dto.indexing;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class IndexingProgressDTO {
+    private boolean result;
+    private boolean indexing;
+    private List<SiteProgressDTO> sites;
+}
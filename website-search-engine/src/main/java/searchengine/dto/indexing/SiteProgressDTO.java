@@ -0,0 +1,20 @@
+package searchengine.dto.indexing;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SiteProgressDTO {
+    private String url;
+    private String name;
+    private boolean finished;
+    private long discovered;
+    private long fetched;
+    private long indexed;
+    private long failed;
+    private int queued;
+    private double fetchRate;
+    private Long etaSeconds;
+    private long elapsedSeconds;
+}
@@ -0,0 +1,27 @@
+package searchengine.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Set;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchExplainResponseDTO {
+    private boolean result;
+    private String error;
+    private Set<String> lemmas;
+    private List<SearchPlanDTO> plans;
+
+    public SearchExplainResponseDTO(boolean result, String error) {
+        this.result = result;
+        this.error = error;
+    }
+
+    public SearchExplainResponseDTO(boolean result, Set<String> lemmas, List<SearchPlanDTO> plans) {
+        this.result = result;
+        this.lemmas = lemmas;
+        this.plans = plans;
+    }
+}
@@ -0,0 +1,17 @@
+package searchengine.dto.search;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class SearchPlanDTO {
+    private String site;
+    private String siteName;
+    private String strategy;
+    private long totalPages;
+    private long estimatedResults;
+    private Map<String, Double> costs;
+    private List<TermEstimateDTO> terms;
+}
@@ -0,0 +1,24 @@
+package searchengine.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SuggestResponseDTO {
+    private boolean result;
+    private String error;
+    private List<String> data;
+
+    public SuggestResponseDTO(boolean result, String error) {
+        this.result = result;
+        this.error = error;
+    }
+
+    public SuggestResponseDTO(boolean result, List<String> data) {
+        this.result = result;
+        this.data = data;
+    }
+}
@@ -0,0 +1,16 @@
+package searchengine.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TermEstimateDTO {
+    private String queryLemma;
+    private List<String> lemmas;
+    private long frequency;
+    private double selectivity;
+    private boolean skipped;
+}
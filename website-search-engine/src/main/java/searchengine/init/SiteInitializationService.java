@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.component.LemmaIdCache;
 import searchengine.config.SiteConfig;
 import searchengine.config.SitesListConfig;
 import searchengine.model.Site;
@@ -13,6 +14,7 @@ import searchengine.model.Status;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
+import searchengine.services.LemmaDictionaryService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,6 +29,8 @@ public class SiteInitializationService {
     private final SiteRepository siteRepository;
     private final PageRepository pageRepository;
     private final LemmaRepository lemmaRepository;
+    private final LemmaDictionaryService lemmaDictionaryService;
+    private final LemmaIdCache lemmaIdCache;
 
     @PostConstruct
     @Transactional
@@ -42,6 +46,8 @@ public class SiteInitializationService {
                 lemmaRepository.deleteAllBySite(siteInDb);
                 pageRepository.deleteAllBySite(siteInDb);
                 siteRepository.delete(siteInDb);
+                lemmaDictionaryService.evict(siteInDb.getId());
+                lemmaIdCache.evict(siteInDb.getId());
             }
         }
 
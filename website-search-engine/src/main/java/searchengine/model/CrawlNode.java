@@ -0,0 +1,25 @@
+package searchengine.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Узел распределенного обхода. Узел, не отмечавшийся дольше срока аренды, считается выбывшим:
+ * его разделы и адреса забирают остальные узлы.
+ */
+@Entity
+@Table(name = "crawl_node")
+@Getter
+@Setter
+public class CrawlNode {
+
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,34 @@
+package searchengine.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Состояние распределенной индексации, общее для всех узлов. Таблица содержит одну строку
+ * с {@code id = 1}; запуск и остановка меняют ее условными UPDATE, поэтому индексацию
+ * одновременно может запустить только один узел.
+ */
+@Entity
+@Table(name = "crawl_run")
+@Getter
+@Setter
+public class CrawlRun {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private int id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CrawlRunStatus status;
+
+    @Column(name = "status_time", nullable = false)
+    private LocalDateTime statusTime;
+
+    @Column(name = "started_by", length = 64)
+    private String startedBy;
+}
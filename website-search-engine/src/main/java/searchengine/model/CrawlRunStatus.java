@@ -0,0 +1,8 @@
+package searchengine.model;
+
+public enum CrawlRunStatus {
+    STARTING,
+    RUNNING,
+    STOPPED,
+    FINISHED
+}
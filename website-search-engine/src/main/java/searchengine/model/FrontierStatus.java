@@ -0,0 +1,8 @@
+package searchengine.model;
+
+public enum FrontierStatus {
+    QUEUED,
+    CLAIMED,
+    DONE,
+    FAILED
+}
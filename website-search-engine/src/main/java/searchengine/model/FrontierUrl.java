@@ -0,0 +1,53 @@
+package searchengine.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Адрес в общей очереди распределенного обхода. Адрес выдается узлу, который арендует
+ * раздел {@code partition}, и принадлежит ему до {@code leaseUntil}; после этого он
+ * возвращается в очередь и может быть взят другим узлом.
+ */
+@Entity
+@Table(name = "crawl_frontier", uniqueConstraints = {@UniqueConstraint(columnNames = {"site_id", "url_hash"})})
+@Getter
+@Setter
+public class FrontierUrl {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "site_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Site site;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String url;
+
+    /** Хеш нормализованного адреса: уникален в пределах сайта и заменяет множество посещенных адресов. */
+    @Column(name = "url_hash", nullable = false)
+    private long urlHash;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partition;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FrontierStatus status;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    private int attempts;
+}
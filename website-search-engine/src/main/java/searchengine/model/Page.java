@@ -28,6 +28,15 @@ public class Page {
     @Column(nullable = false)
     private int code;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String content;
+    @Column(columnDefinition = "TEXT")
+    private String title;
+
+    /**
+     * ID страницы, почти полной копией которой является эта страница. У дубликатов
+     * не сохраняется содержимое и нет записей индекса. При повторной индексации канонической
+     * страницы дубликаты ссылаются на ее новую версию; если канонической страницы больше нет,
+     * ссылка обнуляется, а дубликат без содержимого сохраняется заново при следующем обходе.
+     */
+    @Column(name = "canonical_page_id")
+    private Integer canonicalPageId;
 }
@@ -0,0 +1,34 @@
+package searchengine.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Сжатое (deflate) HTML-содержимое страницы. Хранится в отдельной таблице, чтобы запросы
+ * к {@link Page} при поиске и подсчете статистики не читали содержимое страниц.
+ */
+@Entity
+@Table(name = "page_content")
+@Getter
+@Setter
+public class PageContent {
+
+    @Id
+    @Column(name = "page_id")
+    private Integer pageId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "page_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Page page;
+
+    @Column(name = "original_size", nullable = false)
+    private int originalSize;
+
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+}
@@ -0,0 +1,28 @@
+package searchengine.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Аренда раздела адресного пространства узлом кластера. Свободный раздел или раздел
+ * с истекшей арендой может занять любой узел.
+ */
+@Entity
+@Table(name = "crawl_partition_lease")
+@Getter
+@Setter
+public class PartitionLease {
+
+    @Id
+    @Column(name = "partition_no")
+    private int partition;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,84 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import searchengine.model.FrontierStatus;
+import searchengine.utils.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Пакетная запись лемм, индекса и очереди распределенного обхода многострочными INSERT через JDBC, минуя контекст персистентности.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkInsertRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Записывает строки многострочными INSERT по {@code batchSize} строк.
+     * @param table     таблица
+     * @param columns   список столбцов через запятую в порядке значений строки
+     * @param rows      значения строк
+     * @param batchSize максимальное количество строк в одном INSERT
+     */
+    public void insertRows(String table, String columns, List<Object[]> rows, int batchSize) {
+        insert("INSERT INTO " + table + " (" + columns + ") VALUES ", "", rows, batchSize);
+    }
+
+    /**
+     * Увеличивает частоту лемм сайта на переданные приращения, создавая отсутствующие леммы:
+     * одна строка на лемму вместо отдельного UPSERT на каждую страницу.
+     * Леммы записываются в порядке сортировки, чтобы параллельные записи блокировали строки
+     * в одной последовательности.
+     * @param siteId    ID сайта
+     * @param deltas    приращения частоты по леммам
+     * @param batchSize максимальное количество лемм в одном INSERT
+     */
+    public void addLemmaFrequencies(int siteId, ObjectIntHashMap<String> deltas, int batchSize) {
+        List<String> lemmas = deltas.keys();
+        Collections.sort(lemmas);
+        List<Object[]> rows = new ArrayList<>(lemmas.size());
+        for (String lemma : lemmas) {
+            rows.add(new Object[]{lemma, siteId, deltas.getInt(lemma, 0)});
+        }
+        insert("INSERT INTO lemma (lemma, site_id, frequency) VALUES ",
+                " ON DUPLICATE KEY UPDATE frequency = frequency + VALUES(frequency)", rows, batchSize);
+    }
+
+    /**
+     * Добавляет адреса в очередь распределенного обхода, пропуская адреса, которые уже есть в очереди:
+     * один многострочный INSERT на {@code batchSize} адресов вместо отдельного запроса на каждую ссылку.
+     * Адреса записываются в порядке хеша, чтобы параллельные записи узлов блокировали ключи
+     * в одной последовательности.
+     * @param rows      строки (site_id, url, url_hash, partition_no)
+     * @param batchSize максимальное количество адресов в одном INSERT
+     */
+    public void enqueueFrontierUrls(List<Object[]> rows, int batchSize) {
+        List<Object[]> queued = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            queued.add(new Object[]{row[0], row[1], row[2], row[3], FrontierStatus.QUEUED.name(), 0});
+        }
+        queued.sort(Comparator.comparingLong(row -> (Long) row[2]));
+        insert("INSERT INTO crawl_frontier (site_id, url, url_hash, partition_no, status, attempts) VALUES ",
+                " ON DUPLICATE KEY UPDATE url_hash = url_hash", queued, batchSize);
+    }
+
+    private void insert(String prefix, String suffix, List<Object[]> rows, int batchSize) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            int columnCount = batch.get(0).length;
+            String row = "(" + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+            Object[] args = new Object[batch.size() * columnCount];
+            for (int i = 0; i < batch.size(); i++) {
+                System.arraycopy(batch.get(i), 0, args, i * columnCount, columnCount);
+            }
+            jdbcTemplate.update(prefix + String.join(", ", Collections.nCopies(batch.size(), row)) + suffix, args);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package searchengine.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.CrawlNode;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CrawlNodeRepository extends JpaRepository<CrawlNode, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO crawl_node (node_id, last_seen) VALUES (:nodeId, :now) " +
+            "ON DUPLICATE KEY UPDATE last_seen = :now", nativeQuery = true)
+    void heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    long countByLastSeenGreaterThanEqual(LocalDateTime liveAfter);
+}
@@ -0,0 +1,42 @@
+package searchengine.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.CrawlRun;
+import searchengine.model.CrawlRunStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface CrawlRunRepository extends JpaRepository<CrawlRun, Integer> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO crawl_run (id, status, status_time) VALUES (1, 'FINISHED', :now) " +
+            "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    void ensureExists(@Param("now") LocalDateTime now);
+
+    /**
+     * Переводит индексацию в состояние STARTING, если она не запущена или если запустивший ее
+     * узел выбыл, не закончив подготовку сайтов.
+     * @return 1, если индексацию запускает этот узел
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE crawl_run SET status = 'STARTING', status_time = :now, started_by = :nodeId " +
+            "WHERE id = 1 AND (status IN ('STOPPED', 'FINISHED') OR (status = 'STARTING' AND started_by NOT IN " +
+            "(SELECT n.node_id FROM crawl_node n WHERE n.last_seen >= :liveAfter)))",
+            nativeQuery = true)
+    int start(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now, @Param("liveAfter") LocalDateTime liveAfter);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CrawlRun r SET r.status = :to, r.statusTime = :now WHERE r.id = 1 AND r.status IN :from")
+    int updateStatus(@Param("from") Collection<CrawlRunStatus> from, @Param("to") CrawlRunStatus to,
+                     @Param("now") LocalDateTime now);
+}
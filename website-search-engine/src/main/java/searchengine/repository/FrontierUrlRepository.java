@@ -0,0 +1,88 @@
+package searchengine.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.FrontierStatus;
+import searchengine.model.FrontierUrl;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FrontierUrlRepository extends JpaRepository<FrontierUrl, Long> {
+
+    @Query(value = "SELECT f.id FROM crawl_frontier f WHERE f.status = 'QUEUED' AND f.partition_no IN :partitions " +
+            "ORDER BY f.id LIMIT :limit", nativeQuery = true)
+    List<Long> findQueuedIds(@Param("partitions") Collection<Integer> partitions, @Param("limit") int limit);
+
+    /**
+     * Забирает адреса из очереди. Адреса, которые успел забрать другой узел, не меняются.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FrontierUrl f SET f.status = :claimed, f.leaseOwner = :owner, f.leaseUntil = :until, " +
+            "f.attempts = f.attempts + 1 WHERE f.id IN :ids AND f.status = :queued")
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("until") LocalDateTime until,
+              @Param("claimed") FrontierStatus claimed, @Param("queued") FrontierStatus queued);
+
+    @Query("SELECT f FROM FrontierUrl f JOIN FETCH f.site WHERE f.id IN :ids AND f.leaseOwner = :owner AND f.status = :status")
+    List<FrontierUrl> findByIdsAndOwner(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                                        @Param("status") FrontierStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE FrontierUrl f SET f.status = :status, f.leaseOwner = NULL, f.leaseUntil = NULL " +
+            "WHERE f.id IN :ids AND f.leaseOwner = :owner")
+    int complete(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("status") FrontierStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE FrontierUrl f SET f.leaseUntil = :until WHERE f.id IN :ids AND f.leaseOwner = :owner AND f.status = :claimed")
+    int renewClaims(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("until") LocalDateTime until,
+                    @Param("claimed") FrontierStatus claimed);
+
+    /**
+     * Возвращает в очередь адрес, обработка которого прервалась ошибкой, а исчерпавший число попыток помечает как FAILED.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FrontierUrl f SET f.status = CASE WHEN f.attempts >= :maxAttempts THEN :failed ELSE :queued END, " +
+            "f.leaseOwner = NULL, f.leaseUntil = NULL WHERE f.id = :id AND f.leaseOwner = :owner AND f.status = :claimed")
+    int releaseFailed(@Param("id") long id, @Param("owner") String owner, @Param("maxAttempts") int maxAttempts,
+                      @Param("claimed") FrontierStatus claimed, @Param("queued") FrontierStatus queued,
+                      @Param("failed") FrontierStatus failed);
+
+    /**
+     * Возвращает в очередь адреса с истекшей арендой, а исчерпавшие число попыток помечает как FAILED.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FrontierUrl f SET f.status = CASE WHEN f.attempts >= :maxAttempts THEN :failed ELSE :queued END, " +
+            "f.leaseOwner = NULL, f.leaseUntil = NULL WHERE f.status = :claimed AND f.leaseUntil < :now")
+    int requeueExpired(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+                       @Param("claimed") FrontierStatus claimed, @Param("queued") FrontierStatus queued,
+                       @Param("failed") FrontierStatus failed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE FrontierUrl f SET f.status = :queued, f.leaseOwner = NULL, f.leaseUntil = NULL " +
+            "WHERE f.leaseOwner = :owner AND f.status = :claimed")
+    int releaseClaims(@Param("owner") String owner, @Param("claimed") FrontierStatus claimed,
+                      @Param("queued") FrontierStatus queued);
+
+    boolean existsByStatusIn(Collection<FrontierStatus> statuses);
+
+    /**
+     * Сайты, обход которых завершен: у них есть адреса в очереди, но ни одного ожидающего или взятого в работу.
+     */
+    @Query(value = "SELECT s.id FROM site s WHERE s.status <> 'INDEXED' " +
+            "AND EXISTS (SELECT 1 FROM crawl_frontier f WHERE f.site_id = s.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM crawl_frontier f WHERE f.site_id = s.id AND f.status IN ('QUEUED', 'CLAIMED'))",
+            nativeQuery = true)
+    List<Integer> findCompletedSiteIds();
+}
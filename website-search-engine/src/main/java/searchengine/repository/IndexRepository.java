@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.Index;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
+import searchengine.repository.projection.IndexRank;
 
 import java.util.Collection;
 import java.util.List;
@@ -29,6 +30,14 @@ public interface IndexRepository extends JpaRepository<Index, Integer> {
     @Query(value = "SELECT i.page_id FROM `index` i WHERE i.lemma_id IN :lemmaIds GROUP BY i.page_id HAVING COUNT(DISTINCT i.lemma_id) = :lemmaCount", nativeQuery = true)
     List<Integer> findPageIdsByLemmaIds(@Param("lemmaIds") List<Integer> lemmaIds, @Param("lemmaCount") int lemmaCount);
 
+    /**
+     * Находит ID страниц, которые содержат ХОТЯ БЫ ОДНУ лемму из переданного списка.
+     * @param lemmaIds список ID лемм
+     * @return список ID страниц без повторов
+     */
+    @Query(value = "SELECT DISTINCT i.page_id FROM `index` i WHERE i.lemma_id IN :lemmaIds", nativeQuery = true)
+    List<Integer> findDistinctPageIdsByLemmaIds(@Param("lemmaIds") Collection<Integer> lemmaIds);
+
     /**
      * Находит все индексы для заданных страниц и лемм.
      * @param pages коллекция страниц
@@ -37,6 +46,24 @@ public interface IndexRepository extends JpaRepository<Index, Integer> {
      */
     List<Index> findByPageInAndLemmaIn(Collection<Page> pages, Collection<Lemma> lemmas);
 
+    /**
+     * Оставляет из переданных страниц те, которые содержат ХОТЯ БЫ ОДНУ лемму из списка.
+     * @param lemmaIds список ID лемм
+     * @param pageIds список ID страниц-кандидатов
+     * @return список ID страниц без повторов
+     */
+    @Query(value = "SELECT DISTINCT i.page_id FROM `index` i WHERE i.lemma_id IN :lemmaIds AND i.page_id IN :pageIds", nativeQuery = true)
+    List<Integer> findDistinctPageIdsByLemmaIdsAndPageIds(@Param("lemmaIds") Collection<Integer> lemmaIds, @Param("pageIds") Collection<Integer> pageIds);
+
+    /**
+     * Находит ранги заданных лемм на заданных страницах без загрузки сущностей {@link Index}, {@link Page} и {@link Lemma}.
+     * @param pageIds коллекция ID страниц
+     * @param lemmaIds коллекция ID лемм
+     * @return список записей (ID страницы, ID леммы, ранг)
+     */
+    @Query("SELECT new searchengine.repository.projection.IndexRank(i.page.id, i.lemma.id, i.rank) FROM Index i WHERE i.page.id IN :pageIds AND i.lemma.id IN :lemmaIds")
+    List<IndexRank> findRanksByPageIdsAndLemmaIds(@Param("pageIds") Collection<Integer> pageIds, @Param("lemmaIds") Collection<Integer> lemmaIds);
+
     /**
      * Удаляет все записи индекса, связанные с конкретной страницей.
      * Используется для переиндексации страницы.
@@ -3,10 +3,12 @@ package searchengine.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.Lemma;
 import searchengine.model.Site;
+import searchengine.repository.projection.LemmaView;
 
 import java.util.Collection;
 import java.util.List;
@@ -27,6 +29,23 @@ public interface LemmaRepository extends JpaRepository<Lemma, Integer> {
 
     List<Lemma> findByLemmaInAndSite(Collection<String> lemmas, Site site);
 
+    /**
+     * Загружает все леммы сайта в виде проекции (id, lemma, frequency) для построения словаря в памяти.
+     * @param siteId ID сайта
+     * @return список лемм сайта
+     */
+    @Query("SELECT l.id AS id, l.lemma AS lemma, l.frequency AS frequency FROM Lemma l WHERE l.site.id = :siteId")
+    List<LemmaView> findViewsBySiteId(@Param("siteId") int siteId);
+
+    /**
+     * Загружает леммы сайта из списка в виде проекции (id, lemma, frequency) без загрузки сайта.
+     * @param siteId ID сайта
+     * @param lemmas леммы
+     * @return найденные леммы
+     */
+    @Query("SELECT l.id AS id, l.lemma AS lemma, l.frequency AS frequency FROM Lemma l WHERE l.site.id = :siteId AND l.lemma IN :lemmas")
+    List<LemmaView> findViewsBySiteIdAndLemmaIn(@Param("siteId") int siteId, @Param("lemmas") Collection<String> lemmas);
+
     @Modifying
     @Transactional
     @Query(value = "INSERT INTO lemma (lemma, site_id, frequency) VALUES (:lemma, :siteId, 1) " +
@@ -0,0 +1,13 @@
+package searchengine.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import searchengine.model.PageContent;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PageContentRepository extends JpaRepository<PageContent, Integer> {
+    List<PageContent> findByPageIdIn(Collection<Integer> pageIds);
+}
@@ -1,11 +1,17 @@
 package searchengine.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.Page;
 import searchengine.model.Site;
+import searchengine.repository.projection.PageSummary;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +22,31 @@ public interface PageRepository extends JpaRepository<Page, Integer> {
     void deleteAllBySite(Site site);
 
     Optional<Page> findByPathAndSite(String path, Site site);
+
+    /**
+     * Находит ID дубликатов страницы.
+     * @param pageId ID канонической страницы
+     * @return ID страниц, ссылающихся на нее
+     */
+    @Query("SELECT p.id FROM Page p WHERE p.canonicalPageId = :pageId")
+    List<Integer> findIdsByCanonicalPageId(@Param("pageId") int pageId);
+
+    /**
+     * Переводит дубликаты на другую каноническую страницу.
+     * @param ids             ID дубликатов
+     * @param canonicalPageId ID новой канонической страницы
+     * @return количество измененных страниц
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Page p SET p.canonicalPageId = :canonicalPageId WHERE p.id IN :ids")
+    int updateCanonicalPageId(@Param("ids") Collection<Integer> ids, @Param("canonicalPageId") int canonicalPageId);
+
+    /**
+     * Находит адреса и заголовки страниц без загрузки сущностей {@link Page}.
+     * @param ids список ID страниц
+     * @return данные страниц для выдачи результатов поиска
+     */
+    @Query("SELECT new searchengine.repository.projection.PageSummary(p.id, p.path, p.title) FROM Page p WHERE p.id IN :ids")
+    List<PageSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
 }
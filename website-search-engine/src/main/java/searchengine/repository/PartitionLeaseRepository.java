@@ -0,0 +1,54 @@
+package searchengine.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.PartitionLease;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PartitionLeaseRepository extends JpaRepository<PartitionLease, Integer> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO crawl_partition_lease (partition_no) VALUES (:partition) " +
+            "ON DUPLICATE KEY UPDATE partition_no = partition_no", nativeQuery = true)
+    void ensureExists(@Param("partition") int partition);
+
+    @Query("SELECT l.partition FROM PartitionLease l WHERE l.leaseOwner = :owner AND l.leaseUntil >= :now ORDER BY l.partition")
+    List<Integer> findOwned(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Query("SELECT l.partition FROM PartitionLease l WHERE l.leaseOwner IS NULL OR l.leaseUntil < :now ORDER BY l.partition")
+    List<Integer> findAvailable(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PartitionLease l SET l.leaseUntil = :until WHERE l.leaseOwner = :owner AND l.leaseUntil >= :now")
+    int renew(@Param("owner") String owner, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Занимает раздел, если он свободен или его аренда истекла.
+     * @return 1, если раздел занят этим узлом
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PartitionLease l SET l.leaseOwner = :owner, l.leaseUntil = :until " +
+            "WHERE l.partition = :partition AND (l.leaseOwner IS NULL OR l.leaseUntil < :now)")
+    int claim(@Param("partition") int partition, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PartitionLease l SET l.leaseOwner = NULL, l.leaseUntil = NULL WHERE l.partition = :partition AND l.leaseOwner = :owner")
+    int release(@Param("partition") int partition, @Param("owner") String owner);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PartitionLease l SET l.leaseOwner = NULL, l.leaseUntil = NULL WHERE l.leaseOwner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
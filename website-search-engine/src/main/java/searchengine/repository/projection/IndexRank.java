@@ -0,0 +1,13 @@
+package searchengine.repository.projection;
+
+import lombok.Value;
+
+/**
+ * Запись индекса без загрузки связанных сущностей: ID страницы, ID леммы и ранг леммы на странице.
+ */
+@Value
+public class IndexRank {
+    int pageId;
+    int lemmaId;
+    float rank;
+}
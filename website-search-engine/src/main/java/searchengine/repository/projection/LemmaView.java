@@ -0,0 +1,12 @@
+package searchengine.repository.projection;
+
+/**
+ * Облегченное представление леммы без загрузки связанного сайта.
+ */
+public interface LemmaView {
+    int getId();
+
+    String getLemma();
+
+    int getFrequency();
+}
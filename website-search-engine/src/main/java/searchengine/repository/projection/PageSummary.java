@@ -0,0 +1,13 @@
+package searchengine.repository.projection;
+
+import lombok.Value;
+
+/**
+ * Данные страницы, нужные для выдачи результата поиска, без содержимого страницы.
+ */
+@Value
+public class PageSummary {
+    int id;
+    String path;
+    String title;
+}
@@ -0,0 +1,404 @@
+package searchengine.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.component.HostConcurrencyLimiter;
+import searchengine.component.IndexWriteBuffer;
+import searchengine.component.IndexingProgressTracker;
+import searchengine.component.PageFetcher;
+import searchengine.component.RobotsCache;
+import searchengine.component.SearchEngineMetrics;
+import searchengine.config.CrawlerConfig;
+import searchengine.model.CrawlRun;
+import searchengine.model.CrawlRunStatus;
+import searchengine.model.FrontierStatus;
+import searchengine.model.FrontierUrl;
+import searchengine.model.Site;
+import searchengine.model.Status;
+import searchengine.repository.BulkInsertRepository;
+import searchengine.repository.CrawlNodeRepository;
+import searchengine.repository.CrawlRunRepository;
+import searchengine.repository.FrontierUrlRepository;
+import searchengine.repository.PageRepository;
+import searchengine.repository.PartitionLeaseRepository;
+import searchengine.repository.SiteRepository;
+import searchengine.utils.CancellationToken;
+import searchengine.utils.SimHashIndex;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Распределенный обход сайтов несколькими экземплярами приложения с общей базой данных.
+ * <p>
+ * Узел, получивший запрос на запуск, подготавливает сайты и добавляет их начальные адреса
+ * в очередь {@code crawl_frontier}. Каждый узел периодически продлевает аренду своих разделов
+ * адресного пространства (раздел определяется хешем хоста, поэтому все запросы к одному сайту
+ * выполняет один узел и его адаптивный лимит запросов остается верным), забирает из очереди
+ * адреса своих разделов, обходит страницы и добавляет найденные ссылки обратно в очередь.
+ * Адреса выбывшего узла возвращаются в очередь по истечении аренды. Состояние индексации
+ * хранится в {@code crawl_run}, поэтому запуск, остановка и статус работают на всем кластере.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class ClusterCrawler {
+
+    private static final Set<FrontierStatus> PENDING = EnumSet.of(FrontierStatus.QUEUED, FrontierStatus.CLAIMED);
+    private static final Set<CrawlRunStatus> ACTIVE = EnumSet.of(CrawlRunStatus.STARTING, CrawlRunStatus.RUNNING);
+    /** Максимальное количество адресов в одном INSERT при добавлении ссылок в очередь. */
+    private static final int ENQUEUE_BATCH_SIZE = 500;
+
+    private final CrawlerConfig crawlerConfig;
+    private final FrontierUrlRepository frontierRepository;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final PartitionLeaseRepository leaseRepository;
+    private final CrawlNodeRepository nodeRepository;
+    private final CrawlRunRepository runRepository;
+    private final SiteRepository siteRepository;
+    private final PageRepository pageRepository;
+    private final PageContentService pageContentService;
+    private final IndexWriteBuffer indexWriteBuffer;
+    private final SearchEngineMetrics metrics;
+    private final IndexingProgressTracker progressTracker;
+    private final HostConcurrencyLimiter hostLimiter;
+    private final RobotsCache robotsCache;
+    private final PageFetcher pageFetcher;
+
+    private final Map<Integer, CrawlContext> contexts = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Адреса, взятые узлом и еще не помеченные выполненными или возвращенные в очередь; продлевается только их аренда. */
+    private final Set<Long> claimedIds = ConcurrentHashMap.newKeySet();
+    /** Обойденные адреса, которые помечаются выполненными только после записи их индекса. */
+    private final Queue<Long> crawled = new ConcurrentLinkedQueue<>();
+    private volatile boolean active;
+    /** Отмена обходов этого узла; заменяется новой, когда индексация снова становится активной. */
+    private volatile CancellationToken cancellation = new CancellationToken();
+    private String nodeId;
+    private PartitionLeaseManager leases;
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        CrawlerConfig.Cluster config = crawlerConfig.getCluster();
+        if (!config.isEnabled()) {
+            return;
+        }
+        nodeId = config.getNodeId().isBlank() ? defaultNodeId() : config.getNodeId();
+        leases = new PartitionLeaseManager(leaseRepository, nodeRepository, config, nodeId);
+        leases.initialize();
+        runRepository.ensureExists(LocalDateTime.now());
+
+        workers = Executors.newFixedThreadPool(crawlerConfig.getConcurrency().getMaxLimit(), runnable -> {
+            Thread thread = new Thread(runnable, "Cluster-Crawl-Worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Cluster-Crawl-Poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, config.getPollMillis(), TimeUnit.MILLISECONDS);
+        log.info("Узел распределенного обхода {} запущен: разделов {}, аренда {} с", nodeId, config.getPartitions(), config.getLeaseSeconds());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        workers.shutdownNow();
+        try {
+            completeCrawled();
+            int released = frontierRepository.releaseClaims(nodeId, FrontierStatus.CLAIMED, FrontierStatus.QUEUED);
+            claimedIds.clear();
+            leases.releaseAll();
+            log.info("Узел {} остановлен, возвращено в очередь адресов: {}", nodeId, released);
+        } catch (Exception e) {
+            log.warn("Не удалось освободить аренды узла {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Переводит индексацию кластера в состояние подготовки сайтов.
+     * @return {@code false}, если индексацию уже запустил другой узел
+     */
+    boolean tryStart() {
+        LocalDateTime now = LocalDateTime.now();
+        boolean started = runRepository.start(nodeId, now, now.minusSeconds(crawlerConfig.getCluster().getLeaseSeconds())) == 1;
+        if (started) {
+            activate();
+            log.info("Узел {} запустил распределенную индексацию", nodeId);
+        }
+        return started;
+    }
+
+    /**
+     * Завершает подготовку сайтов: с этого момента узлы могут признать индексацию законченной,
+     * когда очередь опустеет.
+     */
+    void finishSeeding() {
+        if (runRepository.updateStatus(Set.of(CrawlRunStatus.STARTING), CrawlRunStatus.RUNNING, LocalDateTime.now()) == 1) {
+            log.info("Подготовка сайтов завершена, распределенный обход продолжается на всех узлах");
+        } else {
+            log.warn("Распределенная индексация была остановлена во время подготовки сайтов");
+        }
+    }
+
+    /**
+     * Останавливает индексацию на всех узлах: узлы перестают брать адреса из очереди,
+     * а начатые обходы прерываются при следующей проверке.
+     * @return {@code false}, если индексация не запущена
+     */
+    boolean stopAll() {
+        deactivate();
+        return runRepository.updateStatus(ACTIVE, CrawlRunStatus.STOPPED, LocalDateTime.now()) == 1;
+    }
+
+    private void activate() {
+        if (cancellation.isCancelled()) {
+            cancellation = new CancellationToken();
+        }
+        active = true;
+    }
+
+    /**
+     * Отменяет начатые обходы узла: ожидание запросов и загрузка страниц прерываются сразу.
+     */
+    private void deactivate() {
+        active = false;
+        cancellation.cancel();
+    }
+
+    /**
+     * Проверяет по общей базе, идет ли индексация на каком-либо узле.
+     */
+    boolean isRunning() {
+        return runRepository.findById(CrawlRun.SINGLETON_ID)
+                .map(run -> ACTIVE.contains(run.getStatus()))
+                .orElse(false);
+    }
+
+    /**
+     * Добавляет начальные адреса сайта в общую очередь.
+     */
+    void seed(Site site, Collection<String> urls) {
+        enqueue(site, urls);
+        log.info("В очередь распределенного обхода добавлено {} начальных адресов сайта '{}'", urls.size(), site.getName());
+    }
+
+    static int partitionOf(String url, int partitions) {
+        return Math.floorMod(SearchEngineMetrics.hostOf(url).hashCode(), partitions);
+    }
+
+    static long urlHash(String url) {
+        return UUID.nameUUIDFromBytes(SiteCrawler.normalizeUrl(url).getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    private void enqueue(Site site, Collection<String> urls) {
+        int partitions = crawlerConfig.getCluster().getPartitions();
+        List<Object[]> rows = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            rows.add(new Object[]{site.getId(), url, urlHash(url), partitionOf(url, partitions)});
+        }
+        bulkInsertRepository.enqueueFrontierUrls(rows, ENQUEUE_BATCH_SIZE);
+    }
+
+    private void poll() {
+        try {
+            CrawlRunStatus status = runRepository.findById(CrawlRun.SINGLETON_ID).map(CrawlRun::getStatus).orElse(CrawlRunStatus.FINISHED);
+            if (ACTIVE.contains(status)) {
+                activate();
+            } else {
+                deactivate();
+            }
+            completeCrawled();
+            if (!active) {
+                leases.heartbeat();
+                onInactive(status);
+                return;
+            }
+
+            CrawlerConfig.Cluster config = crawlerConfig.getCluster();
+            List<Integer> partitions = leases.refresh();
+            LocalDateTime now = LocalDateTime.now();
+            if (!claimedIds.isEmpty()) {
+                frontierRepository.renewClaims(List.copyOf(claimedIds), nodeId, now.plusSeconds(config.getLeaseSeconds()),
+                        FrontierStatus.CLAIMED);
+            }
+            int requeued = frontierRepository.requeueExpired(now, config.getMaxAttempts(),
+                    FrontierStatus.CLAIMED, FrontierStatus.QUEUED, FrontierStatus.FAILED);
+            if (requeued > 0) {
+                log.info("Возвращено в очередь {} адресов с истекшей арендой", requeued);
+            }
+
+            int capacity = crawlerConfig.getConcurrency().getMaxLimit() - inFlight.get();
+            if (!partitions.isEmpty() && capacity > 0) {
+                claim(partitions, Math.min(capacity, config.getBatchSize()), now.plusSeconds(config.getLeaseSeconds()));
+            }
+            if (status == CrawlRunStatus.RUNNING) {
+                finishCompletedSites();
+            }
+        } catch (Exception e) {
+            log.error("Ошибка цикла распределенного обхода на узле {}: {}", nodeId, e.getMessage(), e);
+        }
+    }
+
+    private void claim(List<Integer> partitions, int limit, LocalDateTime until) {
+        List<Long> ids = frontierRepository.findQueuedIds(partitions, limit);
+        if (ids.isEmpty() || frontierRepository.claim(ids, nodeId, until, FrontierStatus.CLAIMED, FrontierStatus.QUEUED) == 0) {
+            return;
+        }
+        for (FrontierUrl frontierUrl : frontierRepository.findByIdsAndOwner(ids, nodeId, FrontierStatus.CLAIMED)) {
+            inFlight.incrementAndGet();
+            claimedIds.add(frontierUrl.getId());
+            workers.execute(() -> crawl(frontierUrl));
+        }
+    }
+
+    /**
+     * Обходит одну страницу из очереди. Адрес помечается выполненным при следующем цикле опроса,
+     * после записи буфера индекса. Если обработка прервалась ошибкой, адрес сразу возвращается
+     * в очередь, а после {@code crawler.cluster.max-attempts} попыток помечается как FAILED.
+     */
+    private void crawl(FrontierUrl frontierUrl) {
+        try {
+            CrawlContext context = contexts.compute(frontierUrl.getSite().getId(), (siteId, existing) ->
+                    existing == null || existing.getCancellation().isCancelled() ? createContext(siteId) : existing);
+            List<String> links = new SiteCrawler(context, frontierUrl.getUrl()).crawl();
+            enqueue(context.getSite(), links);
+            crawled.add(frontierUrl.getId());
+        } catch (Exception e) {
+            log.error("Ошибка при обходе {} на узле {}: {}", frontierUrl.getUrl(), nodeId, e.getMessage());
+            releaseFailed(frontierUrl);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void releaseFailed(FrontierUrl frontierUrl) {
+        try {
+            frontierRepository.releaseFailed(frontierUrl.getId(), nodeId, crawlerConfig.getCluster().getMaxAttempts(),
+                    FrontierStatus.CLAIMED, FrontierStatus.QUEUED, FrontierStatus.FAILED);
+        } catch (Exception e) {
+            log.warn("Не удалось вернуть в очередь адрес {}: {}. Он вернется по истечении аренды", frontierUrl.getUrl(), e.getMessage());
+        } finally {
+            claimedIds.remove(frontierUrl.getId());
+        }
+    }
+
+    private CrawlContext createContext(int siteId) {
+        Site site = siteRepository.findById(siteId)
+                .orElseThrow(() -> new IllegalStateException("Сайт " + siteId + " удален во время обхода"));
+        log.info("Узел {} начинает обход сайта '{}'", nodeId, site.getName());
+        return new CrawlContext(site, crawlerConfig, pageRepository, pageContentService, siteRepository,
+                indexWriteBuffer, cancellation, ConcurrentHashMap.newKeySet(), metrics, progressTracker.start(site), hostLimiter,
+                robotsCache.rulesFor(site.getUrl()), new SimHashIndex<>(crawlerConfig.getDuplicates().getMaxDistance()),
+                pageFetcher);
+    }
+
+    /**
+     * Записывает буфер индекса и помечает выполненными обойденные адреса. Если запись не удалась,
+     * аренда адресов больше не продлевается, и по ее истечении они вернутся в очередь.
+     */
+    private void completeCrawled() {
+        List<Long> ids = new ArrayList<>();
+        for (Long id = crawled.poll(); id != null; id = crawled.poll()) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            indexWriteBuffer.flush();
+            frontierRepository.complete(ids, nodeId, FrontierStatus.DONE);
+        } finally {
+            ids.forEach(claimedIds::remove);
+        }
+    }
+
+    /**
+     * Помечает проиндексированными сайты, у которых в очереди не осталось адресов,
+     * и завершает индексацию, когда очередь опустела полностью.
+     */
+    private void finishCompletedSites() {
+        for (int siteId : frontierRepository.findCompletedSiteIds()) {
+            Set<Integer> unindexedPages = indexWriteBuffer.takeUnindexedPages(siteId);
+            siteRepository.findById(siteId).ifPresent(site -> {
+                if (unindexedPages.isEmpty()) {
+                    site.setStatus(Status.INDEXED);
+                    log.info("Распределенный обход сайта '{}' завершен.", site.getName());
+                } else {
+                    site.setStatus(Status.FAILED);
+                    site.setLastError(IndexingServiceImpl.unindexedPagesError(unindexedPages));
+                    log.error("Распределенный обход сайта '{}' завершен с ошибкой: {}", site.getName(), site.getLastError());
+                }
+                site.setStatusTime(LocalDateTime.now());
+                siteRepository.save(site);
+            });
+            CrawlContext context = contexts.remove(siteId);
+            if (context != null) {
+                context.getProgress().finish();
+            }
+        }
+        if (!frontierRepository.existsByStatusIn(PENDING)
+                && runRepository.updateStatus(Set.of(CrawlRunStatus.RUNNING), CrawlRunStatus.FINISHED, LocalDateTime.now()) == 1) {
+            log.info("Распределенная индексация ВСЕХ сайтов завершена.");
+        }
+    }
+
+    /**
+     * После остановки или завершения индексации узел дожидается своих начатых обходов, освобождает
+     * разделы и помечает прерванные сайты, чтобы их статус не вернул в INDEXING поздний обход.
+     */
+    private void onInactive(CrawlRunStatus status) {
+        if (contexts.isEmpty() || inFlight.get() > 0) {
+            return;
+        }
+        contexts.values().forEach(context -> context.getProgress().finish());
+        contexts.clear();
+        leases.releaseAll();
+        if (status == CrawlRunStatus.STOPPED) {
+            siteRepository.findAllByStatus(Status.INDEXING).forEach(site -> {
+                site.setStatus(Status.FAILED);
+                site.setLastError("Индексация остановлена пользователем");
+                site.setStatusTime(LocalDateTime.now());
+                siteRepository.save(site);
+            });
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        String id = host + "-" + ProcessHandle.current().pid();
+        return id.length() > 64 ? id.substring(id.length() - 64) : id;
+    }
+}
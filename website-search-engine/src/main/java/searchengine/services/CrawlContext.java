@@ -0,0 +1,41 @@
+package searchengine.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.component.HostConcurrencyLimiter;
+import searchengine.component.IndexWriteBuffer;
+import searchengine.component.IndexingProgressTracker.SiteProgress;
+import searchengine.component.PageFetcher;
+import searchengine.component.SearchEngineMetrics;
+import searchengine.config.CrawlerConfig;
+import searchengine.model.Site;
+import searchengine.repository.PageRepository;
+import searchengine.repository.SiteRepository;
+import searchengine.utils.CancellationToken;
+import searchengine.utils.RobotsRules;
+import searchengine.utils.SimHashIndex;
+
+import java.util.Set;
+
+/**
+ * Общее состояние обхода одного сайта, которое разделяют все задачи {@link SiteCrawler}.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CrawlContext {
+
+    private final Site site;
+    private final CrawlerConfig crawlerConfig;
+    private final PageRepository pageRepository;
+    private final PageContentService pageContentService;
+    private final SiteRepository siteRepository;
+    private final IndexWriteBuffer indexWriteBuffer;
+    private final CancellationToken cancellation;
+    private final Set<String> visitedUrls;
+    private final SearchEngineMetrics metrics;
+    private final SiteProgress progress;
+    private final HostConcurrencyLimiter hostLimiter;
+    private final RobotsRules robots;
+    private final SimHashIndex<Integer> duplicates;
+    private final PageFetcher pageFetcher;
+}
@@ -0,0 +1,182 @@
+package searchengine.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.CancellationToken;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Общий пул обхода для всех сайтов. Задачи сайтов выполняются в одном {@link ForkJoinPool}:
+ * свободные потоки забирают задачи любого сайта, поэтому пул не простаивает, пока хотя бы у одного
+ * сайта есть работа.
+ * <p>
+ * Каждый сайт получает равную долю потоков: одновременно выполняется не больше
+ * {@code ceil(parallelism / число обходимых сайтов)} задач сайта, остальные ждут в очереди сайта.
+ * Когда обход сайта завершается, его доля сразу перераспределяется между оставшимися сайтами.
+ */
+@Component
+@Slf4j
+class CrawlScheduler {
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final Set<SiteRun<?>> activeRuns = ConcurrentHashMap.newKeySet();
+
+    CrawlScheduler(CrawlerConfig crawlerConfig) {
+        int threads = crawlerConfig.getScheduler().getThreads();
+        this.parallelism = threads > 0 ? threads
+                : Math.max(Runtime.getRuntime().availableProcessors(), crawlerConfig.getConcurrency().getMaxLimit());
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Crawl-Worker-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+        log.info("Пул обхода сайтов: {} потоков.", parallelism);
+    }
+
+    /**
+     * Выполняет обход одного сайта и ждет его завершения или отмены. При отмене задачи из очереди
+     * сайта отбрасываются, а выполняющиеся задачи не ожидаются: они завершаются сами и не добавляют новых.
+     * @param name         имя сайта для журнала
+     * @param seeds        начальные задачи
+     * @param task         обработка одной задачи; возвращает новые задачи того же сайта
+     * @param cancellation отмена обхода
+     * @throws InterruptedException если ожидание прервано; задачи сайта при этом отменяются
+     */
+    <T> void run(String name, Collection<T> seeds, Function<T, ? extends Collection<T>> task,
+                 CancellationToken cancellation) throws InterruptedException {
+        if (seeds.isEmpty() || cancellation.isCancelled()) {
+            return;
+        }
+        SiteRun<T> run = new SiteRun<>(name, task);
+        activeRuns.add(run);
+        // Пока начальные задачи добавляются, обход не может завершиться, даже если первые задачи уже выполнены.
+        run.pending.incrementAndGet();
+        seeds.forEach(run::enqueue);
+        run.release();
+        try (CancellationToken.Registration ignored = cancellation.onCancel(run::cancel)) {
+            run.done.await();
+        } catch (InterruptedException e) {
+            run.cancel();
+            throw e;
+        }
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Доля потоков одного сайта при текущем числе обходимых сайтов.
+     */
+    private int share() {
+        int sites = Math.max(1, activeRuns.size());
+        return (parallelism + sites - 1) / sites;
+    }
+
+    private void rebalance() {
+        activeRuns.forEach(SiteRun::dispatch);
+    }
+
+    private final class SiteRun<T> {
+        private final String name;
+        private final Function<T, ? extends Collection<T>> task;
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        /** Задачи в очереди и выполняющиеся задачи; обход завершен, когда счетчик стал равен нулю. */
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean cancelled;
+
+        SiteRun(String name, Function<T, ? extends Collection<T>> task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        void enqueue(T item) {
+            if (cancelled) {
+                return;
+            }
+            pending.incrementAndGet();
+            queue.add(item);
+            dispatch();
+        }
+
+        /**
+         * Передает в пул задачи из очереди, пока сайт не исчерпал свою долю потоков.
+         */
+        void dispatch() {
+            while (true) {
+                int current = running.get();
+                if (current >= share() || queue.isEmpty()) {
+                    return;
+                }
+                if (!running.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                T item = queue.poll();
+                if (item == null) {
+                    running.decrementAndGet();
+                    continue;
+                }
+                pool.execute(() -> execute(item));
+            }
+        }
+
+        private void execute(T item) {
+            try {
+                if (!cancelled) {
+                    task.apply(item).forEach(this::enqueue);
+                }
+            } catch (RuntimeException e) {
+                log.error("Ошибка в задаче обхода сайта {}: {}", name, e.getMessage(), e);
+            } finally {
+                running.decrementAndGet();
+                release();
+                dispatch();
+            }
+        }
+
+        void release() {
+            if (pending.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        /**
+         * Отменяет задачи из очереди и освобождает долю сайта, не дожидаясь выполняющихся задач.
+         */
+        void cancel() {
+            cancelled = true;
+            while (queue.poll() != null) {
+                release();
+            }
+            finish();
+        }
+
+        private void finish() {
+            if (activeRuns.remove(this)) {
+                log.debug("Обход сайта {} завершен, доля потоков передана остальным сайтам.", name);
+                done.countDown();
+                rebalance();
+            }
+        }
+    }
+}
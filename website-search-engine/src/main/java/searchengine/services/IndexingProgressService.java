@@ -0,0 +1,10 @@
+package searchengine.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import searchengine.dto.indexing.IndexingProgressDTO;
+
+public interface IndexingProgressService {
+    IndexingProgressDTO getProgress();
+
+    SseEmitter subscribe();
+}
@@ -0,0 +1,115 @@
+package searchengine.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import searchengine.component.IndexingProgressTracker;
+import searchengine.component.IndexingProgressTracker.SiteProgress;
+import searchengine.dto.indexing.IndexingProgressDTO;
+import searchengine.dto.indexing.SiteProgressDTO;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexingProgressServiceImpl implements IndexingProgressService {
+
+    private static final long PUSH_INTERVAL_MILLIS = 1000;
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final IndexingProgressTracker progressTracker;
+    private final IndexingService indexingService;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService pushExecutor;
+
+    @PostConstruct
+    void startPushing() {
+        pushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Indexing-Progress-Push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pushExecutor.scheduleWithFixedDelay(this::pushProgress, PUSH_INTERVAL_MILLIS, PUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopPushing() {
+        pushExecutor.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    @Override
+    public IndexingProgressDTO getProgress() {
+        List<SiteProgressDTO> sites = progressTracker.getAll().stream()
+                .map(this::toDto)
+                .sorted(Comparator.comparing(SiteProgressDTO::getName))
+                .collect(Collectors.toList());
+
+        IndexingProgressDTO progress = new IndexingProgressDTO();
+        progress.setResult(true);
+        progress.setIndexing(indexingService.isIndexing());
+        progress.setSites(sites);
+        return progress;
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        log.debug("Новый подписчик на прогресс индексации. Всего подписчиков: {}", emitters.size());
+        send(emitter, getProgress());
+        return emitter;
+    }
+
+    private void pushProgress() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        try {
+            IndexingProgressDTO progress = getProgress();
+            emitters.forEach(emitter -> send(emitter, progress));
+        } catch (Exception e) {
+            log.warn("Не удалось отправить прогресс индексации: {}", e.getMessage());
+        }
+    }
+
+    private void send(SseEmitter emitter, IndexingProgressDTO progress) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(progress));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик на прогресс индексации отключился: {}", e.getMessage());
+            emitters.remove(emitter);
+        }
+    }
+
+    private SiteProgressDTO toDto(SiteProgress progress) {
+        SiteProgressDTO dto = new SiteProgressDTO();
+        dto.setUrl(progress.getUrl());
+        dto.setName(progress.getName());
+        dto.setFinished(progress.isFinished());
+        dto.setDiscovered(progress.getDiscovered().get());
+        dto.setFetched(progress.getFetched().get());
+        dto.setIndexed(progress.getIndexed().get());
+        dto.setFailed(progress.getFailed().get());
+        dto.setQueued(Math.max(0, progress.getQueued().get()));
+        dto.setFetchRate(Math.round(progress.getFetchRate() * 100) / 100.0);
+        dto.setEtaSeconds(progress.getEtaSeconds());
+        dto.setElapsedSeconds(progress.getElapsedMillis() / 1000);
+        return dto;
+    }
+}
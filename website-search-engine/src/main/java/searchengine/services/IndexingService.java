@@ -5,4 +5,12 @@ public interface IndexingService {
     boolean stopIndexing();
     boolean indexPage(String url);
     boolean isIndexing();
+
+    /**
+     * Запускает в фоне перестройку лемм и индекса всех сайтов из сохраненных страниц без повторного обхода.
+     * Пока перестройка идет, индексация считается запущенной; ее можно прервать {@link #stopIndexing()},
+     * который ждет ее завершения. После загрузки страниц перестройка не прерывается и завершает подмену таблиц.
+     * @return false, если индексация уже запущена или включен распределенный режим
+     */
+    boolean startReindexing();
 }
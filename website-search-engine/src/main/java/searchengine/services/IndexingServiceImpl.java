@@ -6,7 +6,15 @@ import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.component.HostConcurrencyLimiter;
+import searchengine.component.IndexWriteBuffer;
+import searchengine.component.IndexingProgressTracker;
+import searchengine.component.IndexingProgressTracker.SiteProgress;
+import searchengine.component.PageFetcher;
+import searchengine.component.RobotsCache;
+import searchengine.component.SearchEngineMetrics;
 import searchengine.component.SiteDataCleaner;
+import searchengine.component.SitemapLoader;
 import searchengine.config.CrawlerConfig;
 import searchengine.config.SiteConfig;
 import searchengine.config.SitesListConfig;
@@ -15,16 +23,24 @@ import searchengine.model.Site;
 import searchengine.model.Status;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
+import searchengine.utils.CancellationToken;
+import searchengine.utils.HtmlContent;
+import searchengine.utils.HtmlStreamExtractor;
+import searchengine.utils.RobotsRules;
+import searchengine.utils.SimHashIndex;
+import searchengine.utils.SitemapEntry;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
@@ -34,28 +50,62 @@ import java.util.stream.Collectors;
 @Slf4j
 public class IndexingServiceImpl implements IndexingService {
 
+    /**
+     * Сколько stopIndexing ждет завершения обходов сайтов после отмены. Загрузки страниц прерываются
+     * отменой сразу, поэтому потоки сайтов обычно успевают сбросить буфер индекса; оставшиеся прерываются.
+     */
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
     private final AtomicBoolean isIndexing = new AtomicBoolean(false);
     private ExecutorService siteExecutor;
+    /**
+     * Поток перестройки индекса. Пока он работает, флаг индексации не снимается: новые обходы, индексация
+     * страницы и перестройка не должны писать в {@code lemma} и {@code index} во время их подмены.
+     */
+    private volatile Thread reindexThread;
+    /**
+     * Отмена текущего обхода: прерывает ожидание запросов и загрузку страниц, отбрасывает задачи из очереди.
+     */
+    private volatile CancellationToken cancellation = new CancellationToken();
 
     private final SiteRepository siteRepository;
     private final PageRepository pageRepository;
+    private final PageContentService pageContentService;
     private final LemmaService lemmaService;
+    private final IndexWriteBuffer indexWriteBuffer;
     private final SitesListConfig sites;
     private final CrawlerConfig crawlerConfig;
     private final SiteDataCleaner siteDataCleaner;
+    private final SearchEngineMetrics metrics;
+    private final IndexingProgressTracker progressTracker;
+    private final HostConcurrencyLimiter hostLimiter;
+    private final RobotsCache robotsCache;
+    private final SitemapLoader sitemapLoader;
+    private final ClusterCrawler clusterCrawler;
+    private final StoredPageReindexer reindexer;
+    private final CrawlScheduler crawlScheduler;
+    private final PageFetcher pageFetcher;
 
     @Override
     public boolean startIndexing() {
+        if (isClusterMode() && !clusterCrawler.tryStart()) {
+            log.warn("Попытка запуска индексации, когда она уже запущена на одном из узлов кластера");
+            return false;
+        }
         if (isIndexing.compareAndSet(false, true)) {
             log.info("Запуск процесса индексации");
 
-            siteExecutor = Executors.newFixedThreadPool(Math.min(sites.getSites().size(), 4));
+            robotsCache.clear();
+            cancellation = new CancellationToken();
+            // Потоки сайтов только готовят обход и ждут его завершения: страницы всех сайтов
+            // обходятся в общем пуле CrawlScheduler, поэтому сайты не ждут друг друга.
+            siteExecutor = Executors.newFixedThreadPool(Math.max(1, sites.getSites().size()));
 
             new Thread(() -> {
                 try {
                     List<CompletableFuture<Void>> futures = sites.getSites().stream()
                             .map(siteConfig -> CompletableFuture.runAsync(() -> {
-                                if (!isIndexing.get()) {
+                                if (!isIndexing()) {
                                     log.info("Глобальная остановка индексации. Пропускаем сайт {}", siteConfig.getName());
                                     return;
                                 }
@@ -90,7 +140,11 @@ public class IndexingServiceImpl implements IndexingService {
                                     return;
                                 }
 
-                                indexSite(site, siteConfig);
+                                if (isClusterMode()) {
+                                    seedSite(site);
+                                } else {
+                                    indexSite(site, siteConfig);
+                                }
                             }, siteExecutor))
                             .collect(Collectors.toList());
 
@@ -112,7 +166,10 @@ public class IndexingServiceImpl implements IndexingService {
                             siteExecutor.shutdownNow();
                         }
                     }
-                    if (isIndexing.get()) {
+                    if (isClusterMode()) {
+                        isIndexing.set(false);
+                        clusterCrawler.finishSeeding();
+                    } else if (isIndexing.get()) {
                         isIndexing.set(false);
                         log.info("Процесс индексации ВСЕХ сайтов завершен естественным путем.");
                     } else {
@@ -141,12 +198,35 @@ public class IndexingServiceImpl implements IndexingService {
 
         log.info("Запуск обхода для сайта: {}", site.getName());
 
-        ForkJoinPool pageCrawlerPool = new ForkJoinPool();
         Set<String> siteVisitedUrls = ConcurrentHashMap.newKeySet();
+        SiteProgress progress = progressTracker.start(site);
+        boolean interrupted = false;
 
         try {
-            SiteCrawler task = new SiteCrawler(site, site.getUrl(), crawlerConfig, pageRepository, siteRepository, lemmaService, this::isIndexing, siteVisitedUrls);
-            pageCrawlerPool.invoke(task);
+            RobotsRules robots = robotsCache.rulesFor(site.getUrl());
+            if (robots.getUnavailableReason() != null) {
+                site.setStatus(Status.FAILED);
+                site.setLastError(robots.getUnavailableReason());
+                site.setStatusTime(LocalDateTime.now());
+                siteRepository.save(site);
+                log.warn("Обход сайта '{}' не выполнен: {}", site.getName(), robots.getUnavailableReason());
+                return;
+            }
+            CrawlContext context = new CrawlContext(site, crawlerConfig, pageRepository, pageContentService, siteRepository,
+                    indexWriteBuffer, cancellation, siteVisitedUrls, metrics, progress, hostLimiter, robots,
+                    new SimHashIndex<>(crawlerConfig.getDuplicates().getMaxDistance()), pageFetcher);
+            List<String> urls = initialUrls(site, robots);
+            urls.forEach(url -> progress.linkDiscovered());
+            // Число одновременных запросов к сайту ограничивают доля сайта в общем пуле
+            // и HostConcurrencyLimiter по задержкам и ошибкам сайта.
+            try {
+                crawlScheduler.run(site.getName(), urls, url -> new SiteCrawler(context, url).crawl(),
+                        context.getCancellation());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                log.info("Ожидание обхода сайта '{}' прервано.", site.getName());
+            }
+            indexWriteBuffer.flush(site.getId());
 
             Site updatedSite = siteRepository.findById(site.getId()).orElse(null);
 
@@ -155,7 +235,12 @@ public class IndexingServiceImpl implements IndexingService {
                 return;
             }
 
-            if (isIndexing.get()) {
+            Set<Integer> unindexedPages = indexWriteBuffer.takeUnindexedPages(site.getId());
+            if (!unindexedPages.isEmpty()) {
+                updatedSite.setStatus(Status.FAILED);
+                updatedSite.setLastError(unindexedPagesError(unindexedPages));
+                log.error("Обход сайта '{}' завершен с ошибкой: {}", updatedSite.getName(), updatedSite.getLastError());
+            } else if (isIndexing.get()) {
                 updatedSite.setStatus(Status.INDEXED);
                 log.info("Обход сайта '{}' успешно завершен.", updatedSite.getName());
             } else {
@@ -168,50 +253,114 @@ public class IndexingServiceImpl implements IndexingService {
         } catch (Exception e) {
             log.error("Ошибка при обходе сайта {}: {}", site.getName(), e.getMessage());
             Site updatedSite = siteRepository.findById(site.getId()).orElse(null);
+            Set<Integer> unindexedPages = indexWriteBuffer.takeUnindexedPages(site.getId());
             if (updatedSite != null) {
                 updatedSite.setStatus(Status.FAILED);
-                updatedSite.setLastError("Обход прерван: " + e.getMessage());
+                updatedSite.setLastError(unindexedPages.isEmpty() ? "Обход прерван: " + e.getMessage()
+                        : "Обход прерван: " + e.getMessage() + ". " + unindexedPagesError(unindexedPages));
                 updatedSite.setStatusTime(LocalDateTime.now());
                 siteRepository.save(updatedSite);
             }
         } finally {
-            if (pageCrawlerPool != null && !pageCrawlerPool.isShutdown()) {
-                if (!isIndexing.get()) {
-                    pageCrawlerPool.shutdownNow();
-                } else {
-                    pageCrawlerPool.shutdown();
-                }
+            progress.finish();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Текст ошибки сайта, индекс части страниц которого не записан. Индекс таких страниц
+     * восстанавливается перестройкой из сохраненных страниц или повторной индексацией.
+     */
+    static String unindexedPagesError(Set<Integer> pageIds) {
+        String ids = pageIds.stream().sorted().limit(20).map(String::valueOf).collect(Collectors.joining(", "));
+        return "Не удалось записать индекс " + pageIds.size() + " страниц, требуется перестройка индекса. ID страниц: "
+                + ids + (pageIds.size() > 20 ? ", ..." : "");
+    }
+
+    /**
+     * Адреса, с которых начинается обход сайта: главная страница и адреса из sitemap.xml,
+     * от недавно измененных к старым. Адреса, запрещенные robots.txt, не добавляются.
+     */
+    private List<String> initialUrls(Site site, RobotsRules robots) {
+        List<String> urls = new ArrayList<>();
+        if (robots.isUrlAllowed(site.getUrl())) {
+            urls.add(site.getUrl());
+        } else {
+            log.warn("Главная страница сайта '{}' запрещена в robots.txt.", site.getName());
+        }
+        for (SitemapEntry entry : sitemapLoader.load(site, robots)) {
+            urls.add(entry.getLocation());
+        }
+        return urls;
+    }
+
+    /**
+     * В распределенном режиме сайт не обходится на этом узле: его начальные адреса добавляются
+     * в общую очередь, и страницы обходит узел, арендующий раздел хоста.
+     */
+    private void seedSite(Site site) {
+        try {
+            RobotsRules robots = robotsCache.rulesFor(site.getUrl());
+            if (robots.getUnavailableReason() != null) {
+                throw new IllegalStateException(robots.getUnavailableReason());
             }
+            clusterCrawler.seed(site, initialUrls(site, robots));
+        } catch (Exception e) {
+            log.error("Ошибка при подготовке сайта {} к распределенному обходу: {}", site.getName(), e.getMessage());
+            site.setStatus(Status.FAILED);
+            site.setLastError("Обход прерван: " + e.getMessage());
+            site.setStatusTime(LocalDateTime.now());
+            siteRepository.save(site);
         }
     }
 
     @Override
-    public boolean stopIndexing() {
-        if (!isIndexing.get()) {
+    public synchronized boolean stopIndexing() {
+        boolean running = isClusterMode() ? clusterCrawler.stopAll() : isIndexing.get();
+        if (!running) {
             log.warn("Попытка остановить индексацию, когда она не запущена");
             return false;
         }
         log.info("Остановка процесса индексации...");
-        isIndexing.set(false);
+        long start = System.nanoTime();
+        Thread reindex = reindexThread;
+        if (reindex == null) {
+            isIndexing.set(false);
+        }
+        // Отмена сразу освобождает ожидающие обходы сайтов: они сохраняют накопленные данные
+        // и завершаются сами, прерывание потоков нужно только если они не успели за отведенное время.
+        cancellation.cancel();
+        if (reindex != null) {
+            // Флаг индексации снимает сама перестройка, когда освободит таблицы.
+            awaitReindex(reindex);
+        }
 
         if (siteExecutor != null && !siteExecutor.isShutdown()) {
-            siteExecutor.shutdownNow();
+            siteExecutor.shutdown();
             try {
-                if (!siteExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    log.warn("Не все задачи индексации завершились после принудительной остановки.");
+                if (!siteExecutor.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Не все задачи индексации завершились после отмены, потоки будут прерваны.");
+                    siteExecutor.shutdownNow();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.error("Ожидание завершения задач индексации было прервано.", e);
+                siteExecutor.shutdownNow();
             }
         }
-        
+
+
         siteRepository.findAllByStatus(Status.INDEXING).forEach(site -> {
             site.setStatus(Status.FAILED);
             site.setLastError("Индексация остановлена пользователем");
             site.setStatusTime(LocalDateTime.now());
             siteRepository.save(site);
         });
+        long elapsed = System.nanoTime() - start;
+        metrics.recordIndexingStop(elapsed);
+        log.info("Индексация остановлена за {} мс.", TimeUnit.NANOSECONDS.toMillis(elapsed));
         return true;
     }
 
@@ -220,7 +369,7 @@ public class IndexingServiceImpl implements IndexingService {
     public boolean indexPage(String url) {
         log.info("Запрос на индексацию отдельной страницы: {}", url);
 
-        if (isIndexing.get()) {
+        if (isIndexing()) {
             log.error("Индексация уже запущена. Невозможно проиндексировать отдельную страницу.");
             return false;
         }
@@ -252,12 +401,15 @@ public class IndexingServiceImpl implements IndexingService {
                 path = "/";
             }
 
-            final String finalPath = path;
-            pageRepository.findByPathAndSite(finalPath, site).ifPresent(pageToDelete -> {
-                log.warn("Обнаружена существующая страница {}. Запускается упрощенная процедура удаления.", finalPath);
-                lemmaService.deleteDataForPage(pageToDelete);
-                pageRepository.delete(pageToDelete);
-            });
+            // Дубликаты старой версии страницы переводятся на новую: при удалении старой ссылка на нее обнуляется.
+            List<Integer> duplicateIds = List.of();
+            Optional<Page> pageToDelete = pageRepository.findByPathAndSite(path, site);
+            if (pageToDelete.isPresent()) {
+                log.warn("Обнаружена существующая страница {}. Запускается упрощенная процедура удаления.", path);
+                duplicateIds = pageRepository.findIdsByCanonicalPageId(pageToDelete.get().getId());
+                lemmaService.deleteDataForPage(pageToDelete.get());
+                pageRepository.delete(pageToDelete.get());
+            }
 
             log.info("Начинаю индексацию страницы: {}", url);
             org.jsoup.Connection.Response response = org.jsoup.Jsoup.connect(url)
@@ -266,15 +418,22 @@ public class IndexingServiceImpl implements IndexingService {
                     .timeout(crawlerConfig.getTimeout())
                     .execute();
 
+            String content = response.body();
+            HtmlContent html = HtmlStreamExtractor.extract(new StringReader(content), url);
+
             Page newPage = new Page();
             newPage.setSite(site);
             newPage.setPath(path);
             newPage.setCode(response.statusCode());
-            newPage.setContent(response.body());
+            newPage.setTitle(html.getTitle());
             pageRepository.save(newPage);
+            pageContentService.save(newPage, content);
 
             if (response.statusCode() < 400) {
-                lemmaService.lemmatizePage(newPage);
+                lemmaService.lemmatizePage(newPage, html.getTextForLemmas());
+                if (!duplicateIds.isEmpty()) {
+                    pageRepository.updateCanonicalPageId(duplicateIds, newPage.getId());
+                }
             }
 
             site.setStatus(Status.INDEXED);
@@ -290,9 +449,54 @@ public class IndexingServiceImpl implements IndexingService {
         }
     }
 
+    @Override
+    public synchronized boolean startReindexing() {
+        if (isClusterMode()) {
+            log.warn("Перестройка индекса из сохраненных страниц недоступна в распределенном режиме");
+            return false;
+        }
+        if (!isIndexing.compareAndSet(false, true)) {
+            log.warn("Попытка запуска перестройки индекса, когда индексация уже запущена");
+            return false;
+        }
+        log.info("Запуск перестройки индекса из сохраненных страниц");
+        CancellationToken token = new CancellationToken();
+        cancellation = token;
+        Thread thread = new Thread(() -> {
+            try {
+                reindexer.reindex(() -> !token.isCancelled());
+            } catch (Exception e) {
+                log.error("Ошибка при перестройке индекса: {}", e.getMessage(), e);
+            } finally {
+                reindexThread = null;
+                isIndexing.set(false);
+            }
+        }, "Reindex-Manager-Thread");
+        reindexThread = thread;
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Ждет завершения перестройки индекса после отмены. До конца загрузки страниц перестройка
+     * прерывается быстро; после нее она не прерывается и дожидается подмены таблиц.
+     */
+    private void awaitReindex(Thread reindex) {
+        try {
+            reindex.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Ожидание завершения перестройки индекса было прервано.", e);
+        }
+    }
+
     @Override
     public boolean isIndexing() {
-        return isIndexing.get();
+        return isClusterMode() ? clusterCrawler.isRunning() : isIndexing.get();
+    }
+
+    private boolean isClusterMode() {
+        return crawlerConfig.getCluster().isEnabled();
     }
 
     private String checkSiteAvailability(String siteUrl) {
@@ -0,0 +1,61 @@
+package searchengine.services;
+
+import searchengine.model.Lemma;
+import searchengine.utils.FuzzyMatch;
+import searchengine.utils.LemmaEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LemmaDictionaryService {
+    /**
+     * Находит в словаре сайта записи для переданных лемм. Отсутствующие леммы пропускаются.
+     * @param siteId ID сайта
+     * @param lemmas леммы для поиска
+     * @return найденные записи словаря
+     */
+    List<LemmaEntry> findLemmas(int siteId, Collection<String> lemmas);
+
+    /**
+     * Возвращает самые частые леммы сайта, начинающиеся с префикса.
+     * @param siteId ID сайта
+     * @param prefix префикс
+     * @param limit  максимальное количество результатов
+     * @return записи словаря, отсортированные по убыванию частоты
+     */
+    List<LemmaEntry> findByPrefix(int siteId, String prefix, int limit);
+
+    /**
+     * Находит в словаре сайта леммы, похожие на слово (расстояние редактирования от 1 до {@code maxDistance}).
+     * @param siteId      ID сайта
+     * @param word        слово, которого нет в словаре
+     * @param maxDistance максимальное расстояние редактирования (не больше 2)
+     * @param limit       максимальное количество результатов
+     * @return похожие леммы, отсортированные по расстоянию и убыванию частоты
+     */
+    List<FuzzyMatch> findSimilar(int siteId, String word, int maxDistance, int limit);
+
+    /**
+     * Применяет к словарю сайта изменения лемм после записи в базу данных. Внутри транзакции
+     * изменения применяются после ее фиксации, при откате словарь не меняется.
+     * Леммы с нулевой частотой удаляются из словаря.
+     * @param siteId ID сайта
+     * @param lemmas измененные леммы с актуальными id и частотой
+     */
+    void applyUpdates(int siteId, Collection<Lemma> lemmas);
+
+    /**
+     * Обновляет в словаре сайта частоты лемм после их записи в базу данных. Вызывается в транзакции записи:
+     * частоты перечитываются в ней и применяются после ее фиксации. Если словарь сайта не загружен,
+     * база данных не читается.
+     * @param siteId ID сайта
+     * @param lemmas записанные леммы
+     */
+    void refreshFrequencies(int siteId, Collection<String> lemmas);
+
+    /**
+     * Удаляет словарь сайта из памяти. При следующем обращении он будет построен заново из базы данных.
+     * @param siteId ID сайта
+     */
+    void evict(int siteId);
+}
@@ -0,0 +1,339 @@
+package searchengine.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import searchengine.config.IndexConfig;
+import searchengine.model.Lemma;
+import searchengine.repository.LemmaRepository;
+import searchengine.repository.projection.LemmaView;
+import searchengine.utils.EditDistance;
+import searchengine.utils.FuzzyLemmaIndex;
+import searchengine.utils.FuzzyMatch;
+import searchengine.utils.LemmaDictionary;
+import searchengine.utils.LemmaEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LemmaDictionaryServiceImpl implements LemmaDictionaryService {
+
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final int MAX_FUZZY_DISTANCE = 2;
+
+    private final LemmaRepository lemmaRepository;
+    private final IndexConfig indexConfig;
+    private final Map<Integer, SiteDictionary> dictionaries = new ConcurrentHashMap<>();
+    /** Изменения, зафиксированные во время загрузки словаря сайта; применяются к загруженному словарю. */
+    private final Map<Integer, List<Consumer<SiteDictionary>>> loading = new ConcurrentHashMap<>();
+    private final Map<Integer, Object> loadLocks = new ConcurrentHashMap<>();
+
+    @Override
+    public List<LemmaEntry> findLemmas(int siteId, Collection<String> lemmas) {
+        SiteDictionary dictionary = getOrLoad(siteId);
+        List<LemmaEntry> result = new ArrayList<>();
+        for (String lemma : lemmas) {
+            LemmaEntry entry = dictionary.find(lemma);
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<LemmaEntry> findByPrefix(int siteId, String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        SiteDictionary dictionary = getOrLoad(siteId);
+        Comparator<LemmaEntry> byFrequency = Comparator.comparingInt(LemmaEntry::getFrequency)
+                .thenComparing(LemmaEntry::getLemma, Comparator.reverseOrder());
+        PriorityQueue<LemmaEntry> top = new PriorityQueue<>(byFrequency);
+
+        dictionary.forEachWithPrefix(prefix, entry -> {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<LemmaEntry> result = new ArrayList<>(top);
+        result.sort(byFrequency.reversed());
+        return result;
+    }
+
+    @Override
+    public List<FuzzyMatch> findSimilar(int siteId, String word, int maxDistance, int limit) {
+        if (word.isEmpty() || maxDistance <= 0 || limit <= 0) {
+            return List.of();
+        }
+        return getOrLoad(siteId).findSimilar(word, Math.min(maxDistance, MAX_FUZZY_DISTANCE), limit);
+    }
+
+    @Override
+    public void applyUpdates(int siteId, Collection<Lemma> lemmas) {
+        if (lemmas.isEmpty()) {
+            return;
+        }
+        // Значения копируются сразу: после фиксации транзакции сущности уже могут быть изменены.
+        List<LemmaEntry> entries = lemmas.stream()
+                .map(lemma -> new LemmaEntry(lemma.getLemma(), lemma.getId(), Math.max(lemma.getFrequency(), 0)))
+                .toList();
+        afterCommit(siteId, dictionary -> entries.forEach(entry -> dictionary.delta.put(entry.getLemma(), entry)));
+    }
+
+    @Override
+    public void refreshFrequencies(int siteId, Collection<String> lemmas) {
+        if (lemmas.isEmpty()) {
+            return;
+        }
+        if (!dictionaries.containsKey(siteId) && !loading.containsKey(siteId)) {
+            // Словаря нет: он прочитает записанные частоты из базы данных. Если его загрузка начнется
+            // до фиксации транзакции, снимок может их не содержать, и такой словарь удаляется.
+            afterCommit(() -> {
+                if (dictionaries.containsKey(siteId) || loading.containsKey(siteId)) {
+                    log.debug("Словарь лемм сайта {} загружен во время записи лемм и будет построен заново.", siteId);
+                    evict(siteId);
+                }
+            });
+            return;
+        }
+        // Частоты перечитываются в транзакции записи: строки лемм заблокированы ею, поэтому значения
+        // совпадают с зафиксированными. В отличие от приращений, повторное применение к снимку
+        // загружаемого словаря, уже содержащему эти частоты, их не искажает.
+        List<String> list = List.copyOf(lemmas);
+        List<LemmaEntry> entries = new ArrayList<>(list.size());
+        int batchSize = indexConfig.getInsertBatchSize();
+        for (int from = 0; from < list.size(); from += batchSize) {
+            List<String> batch = list.subList(from, Math.min(list.size(), from + batchSize));
+            for (LemmaView view : lemmaRepository.findViewsBySiteIdAndLemmaIn(siteId, batch)) {
+                entries.add(new LemmaEntry(view.getLemma(), view.getId(), Math.max(view.getFrequency(), 0)));
+            }
+        }
+        afterCommit(siteId, dictionary -> entries.forEach(entry -> dictionary.delta.put(entry.getLemma(), entry)));
+    }
+
+    @Override
+    public void evict(int siteId) {
+        loading.remove(siteId);
+        if (dictionaries.remove(siteId) != null) {
+            log.debug("Словарь лемм сайта {} удален из памяти.", siteId);
+        }
+    }
+
+    private void compactIfNeeded(int siteId, SiteDictionary dictionary) {
+        int threshold = Math.max(MIN_COMPACTION_THRESHOLD, dictionary.base.size() / 8);
+        if (dictionary.delta.size() > threshold) {
+            dictionary.compact();
+            log.debug("Словарь лемм сайта {} уплотнен: {} лемм.", siteId, dictionary.base.size());
+        }
+    }
+
+    /**
+     * Применяет изменение к словарю сайта после фиксации текущей транзакции, чтобы словарь не расходился
+     * с базой данных при откате. Вне транзакции изменение применяется сразу.
+     */
+    private void afterCommit(int siteId, Consumer<SiteDictionary> change) {
+        afterCommit(() -> apply(siteId, change));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void apply(int siteId, Consumer<SiteDictionary> change) {
+        SiteDictionary dictionary = dictionaries.get(siteId);
+        if (dictionary == null) {
+            List<Consumer<SiteDictionary>> queued = loading.get(siteId);
+            if (queued != null) {
+                synchronized (queued) {
+                    if (loading.get(siteId) == queued) {
+                        queued.add(change);
+                        return;
+                    }
+                }
+            }
+            dictionary = dictionaries.get(siteId);
+            if (dictionary == null) {
+                // Словарь еще не загружен: он будет построен из базы данных при первом обращении.
+                return;
+            }
+        }
+        synchronized (dictionary) {
+            change.accept(dictionary);
+            compactIfNeeded(siteId, dictionary);
+        }
+    }
+
+    /**
+     * Возвращает словарь сайта, загружая его при первом обращении. Изменения, зафиксированные во время
+     * загрузки, не теряются: они накапливаются и применяются к словарю до его публикации.
+     */
+    private SiteDictionary getOrLoad(int siteId) {
+        SiteDictionary dictionary = dictionaries.get(siteId);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        synchronized (loadLocks.computeIfAbsent(siteId, id -> new Object())) {
+            dictionary = dictionaries.get(siteId);
+            if (dictionary != null) {
+                return dictionary;
+            }
+            List<Consumer<SiteDictionary>> queued = new ArrayList<>();
+            loading.put(siteId, queued);
+            try {
+                dictionary = load(siteId);
+            } catch (RuntimeException e) {
+                loading.remove(siteId, queued);
+                throw e;
+            }
+            synchronized (queued) {
+                synchronized (dictionary) {
+                    for (Consumer<SiteDictionary> change : queued) {
+                        change.accept(dictionary);
+                    }
+                    compactIfNeeded(siteId, dictionary);
+                }
+                // Если словарь удален во время загрузки, загруженные данные могли устареть и не кэшируются.
+                if (loading.remove(siteId, queued)) {
+                    dictionaries.put(siteId, dictionary);
+                }
+            }
+            return dictionary;
+        }
+    }
+
+    private SiteDictionary load(int siteId) {
+        long start = System.currentTimeMillis();
+        List<LemmaView> views = lemmaRepository.findViewsBySiteId(siteId);
+        String[] lemmas = new String[views.size()];
+        int[] ids = new int[views.size()];
+        int[] frequencies = new int[views.size()];
+        for (int i = 0; i < views.size(); i++) {
+            LemmaView view = views.get(i);
+            lemmas[i] = view.getLemma();
+            ids[i] = view.getId();
+            frequencies[i] = view.getFrequency();
+        }
+        SiteDictionary dictionary = new SiteDictionary(LemmaDictionary.build(lemmas, ids, frequencies));
+        log.info("Словарь лемм для сайта {} построен: {} лемм за {} мс.", siteId, lemmas.length, System.currentTimeMillis() - start);
+        return dictionary;
+    }
+
+    /**
+     * Словарь сайта: неизменяемая основная часть и журнал изменений, накопленных после ее построения.
+     * Запись с нулевой частотой в журнале означает удаленную лемму.
+     */
+    private static class SiteDictionary {
+        private volatile LemmaDictionary base;
+        private volatile FuzzyLemmaIndex fuzzyIndex;
+        private final ConcurrentSkipListMap<String, LemmaEntry> delta = new ConcurrentSkipListMap<>();
+
+        SiteDictionary(LemmaDictionary base) {
+            this.base = base;
+        }
+
+        LemmaEntry find(String lemma) {
+            LemmaEntry changed = delta.get(lemma);
+            if (changed != null) {
+                return changed.getFrequency() > 0 ? changed : null;
+            }
+            LemmaDictionary current = base;
+            int ordinal = current.find(lemma);
+            return ordinal < 0 ? null : current.entryAt(ordinal);
+        }
+
+        void forEachWithPrefix(String prefix, Consumer<LemmaEntry> consumer) {
+            base.forEachWithPrefix(prefix, entry -> {
+                if (!delta.containsKey(entry.getLemma())) {
+                    consumer.accept(entry);
+                }
+            });
+            delta.subMap(prefix, prefix + Character.MAX_VALUE).values().stream()
+                    .filter(entry -> entry.getFrequency() > 0)
+                    .forEach(consumer);
+        }
+
+        /**
+         * Ищет похожие леммы в индексе удалений основной части и перебором в журнале изменений.
+         * Индекс удалений строится при первом нечетком запросе; размер журнала ограничен порогом уплотнения.
+         */
+        List<FuzzyMatch> findSimilar(String word, int maxDistance, int limit) {
+            List<FuzzyMatch> matches = new ArrayList<>();
+            // Записи основной части, измененные в журнале, отбрасываются: запрашивается с запасом на каждую из них.
+            for (FuzzyMatch match : fuzzyIndex().lookup(word, maxDistance, limit + delta.size())) {
+                if (!delta.containsKey(match.getEntry().getLemma())) {
+                    matches.add(match);
+                }
+            }
+            for (LemmaEntry entry : delta.values()) {
+                if (entry.getFrequency() <= 0 || entry.getLemma().equals(word)) {
+                    continue;
+                }
+                int distance = EditDistance.damerauLevenshtein(word, entry.getLemma(), maxDistance);
+                if (distance <= maxDistance) {
+                    matches.add(new FuzzyMatch(entry, distance));
+                }
+            }
+            matches.sort(FuzzyMatch.BEST_FIRST);
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        }
+
+        private synchronized FuzzyLemmaIndex fuzzyIndex() {
+            FuzzyLemmaIndex index = fuzzyIndex;
+            LemmaDictionary current = base;
+            if (index == null || index.getDictionary() != current) {
+                index = FuzzyLemmaIndex.build(current, MAX_FUZZY_DISTANCE);
+                fuzzyIndex = index;
+            }
+            return index;
+        }
+
+        /**
+         * Сливает журнал изменений с основной частью. Вызывается под блокировкой словаря.
+         */
+        void compact() {
+            List<LemmaEntry> entries = new ArrayList<>(base.size() + delta.size());
+            base.forEach(entry -> {
+                if (!delta.containsKey(entry.getLemma())) {
+                    entries.add(entry);
+                }
+            });
+            delta.values().stream().filter(entry -> entry.getFrequency() > 0).forEach(entries::add);
+
+            String[] lemmas = new String[entries.size()];
+            int[] ids = new int[entries.size()];
+            int[] frequencies = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                LemmaEntry entry = entries.get(i);
+                lemmas[i] = entry.getLemma();
+                ids[i] = entry.getId();
+                frequencies[i] = entry.getFrequency();
+            }
+            base = LemmaDictionary.build(lemmas, ids, frequencies);
+            delta.clear();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package searchengine.services;
 
 import searchengine.model.Page;
+import searchengine.utils.ObjectIntHashMap;
 
 import java.util.Set;
 
@@ -13,10 +14,19 @@ public interface LemmaService {
     Set<String> getLemmaSet(String text);
 
     /**
-     * Выполняет лемматизацию контента страницы и сохраняет леммы и индексы в базу данных.
-     * @param page страница, которую нужно лемматизировать
+     * Собирает леммы текста и количество их вхождений без записи в базу данных.
+     * @param text исходный текст
+     * @return количество вхождений каждой леммы
+     */
+    ObjectIntHashMap<String> collectLemmas(String text);
+
+    /**
+     * Выполняет лемматизацию уже извлеченного текста страницы (заголовок и видимый текст)
+     * без повторного разбора HTML и сохраняет леммы и индексы в базу данных.
+     * @param page          страница, к которой относятся леммы
+     * @param textForLemmas текст страницы
      */
-    void lemmatizePage(Page page);
+    void lemmatizePage(Page page, String textForLemmas);
 
     /**
      * Удаляет все данные (индексы, леммы) связанные с конкретной страницей.
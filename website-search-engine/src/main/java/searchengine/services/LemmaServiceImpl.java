@@ -2,17 +2,22 @@ package searchengine.services;
 
 import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.lucene.morphology.LuceneMorphology;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.analysis.LanguageAnalyzer;
+import searchengine.analysis.LanguageAnalyzers;
+import searchengine.component.LemmaIdCache;
+import searchengine.component.SearchEngineMetrics;
+import searchengine.config.IndexConfig;
+import searchengine.config.MorphologyConfig;
 import searchengine.model.Index;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
+import searchengine.repository.BulkInsertRepository;
 import searchengine.repository.IndexRepository;
 import searchengine.repository.LemmaRepository;
+import searchengine.utils.CountingLruCache;
+import searchengine.utils.ObjectIntHashMap;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -21,35 +26,55 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LemmaServiceImpl implements LemmaService {
 
+    /**
+     * Значение кэша для слов, у которых нет леммы: служебные части речи и слова без нормальной формы.
+     */
+    private static final String NO_LEMMA = "";
+
     private final LemmaRepository lemmaRepository;
     private final IndexRepository indexRepository;
-    private final LuceneMorphology russianLuceneMorphology;
-    private final LuceneMorphology englishLuceneMorphology;
+    private final LanguageAnalyzers languageAnalyzers;
     private final EntityManager entityManager;
+    private final LemmaDictionaryService lemmaDictionaryService;
+    private final SearchEngineMetrics metrics;
+    private final LemmaIdCache lemmaIdCache;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final IndexConfig indexConfig;
+    private final CountingLruCache<String, String> wordLemmas;
 
     public LemmaServiceImpl(LemmaRepository lemmaRepository,
                             IndexRepository indexRepository,
-                            @Qualifier("russianLuceneMorphology") LuceneMorphology russianLuceneMorphology,
-                            @Qualifier("englishLuceneMorphology") LuceneMorphology englishLuceneMorphology,
-                            EntityManager entityManager) {
+                            LanguageAnalyzers languageAnalyzers,
+                            EntityManager entityManager,
+                            LemmaDictionaryService lemmaDictionaryService,
+                            SearchEngineMetrics metrics,
+                            LemmaIdCache lemmaIdCache,
+                            BulkInsertRepository bulkInsertRepository,
+                            IndexConfig indexConfig,
+                            MorphologyConfig morphologyConfig) {
         this.lemmaRepository = lemmaRepository;
         this.indexRepository = indexRepository;
-        this.russianLuceneMorphology = russianLuceneMorphology;
-        this.englishLuceneMorphology = englishLuceneMorphology;
+        this.languageAnalyzers = languageAnalyzers;
         this.entityManager = entityManager;
+        this.lemmaDictionaryService = lemmaDictionaryService;
+        this.metrics = metrics;
+        this.lemmaIdCache = lemmaIdCache;
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.indexConfig = indexConfig;
+        this.wordLemmas = new CountingLruCache<>(morphologyConfig.getCacheSize(), this::lemmatizeWord);
+        metrics.registerLemmaCache(wordLemmas);
     }
 
     @Override
     @Transactional
-    public synchronized void lemmatizePage(Page page) {
+    public synchronized void lemmatizePage(Page page, String textForLemmas) {
         // 1. Удаляем старые данные для этой страницы, чтобы обеспечить корректный подсчет частоты.
         deleteDataForPage(page);
 
-        // 2. Парсим и собираем новые леммы.
-        Document doc = Jsoup.parse(page.getContent());
-        String textForLemmas = doc.title() + " " + doc.body().text();
-
-        Map<String, Integer> lemmasFromPage = collectLemmas(textForLemmas);
+        // 2. Собираем новые леммы.
+        long lemmatizeStart = System.nanoTime();
+        ObjectIntHashMap<String> lemmasFromPage = collectLemmas(textForLemmas);
+        metrics.recordLemmatization(System.nanoTime() - lemmatizeStart);
 
         if (lemmasFromPage.isEmpty()) {
             log.warn("Для страницы {} не найдено подходящих лемм.", page.getPath());
@@ -57,40 +82,40 @@ public class LemmaServiceImpl implements LemmaService {
         }
 
         // 3. Выполняем upsert для всех лемм, чтобы обновить их частоту или создать новые.
-
-        for (String lemmaString : lemmasFromPage.keySet()) {
+        long writeStart = System.nanoTime();
+        List<String> lemmaStrings = lemmasFromPage.keys();
+        for (String lemmaString : lemmaStrings) {
             lemmaRepository.upsertLemmaFrequency(lemmaString, page.getSite().getId());
         }
 
-        // 4. Получаем актуальные объекты Lemma из базы данных для создания Index.
-        List<Lemma> updatedLemmas = lemmaRepository.findByLemmaInAndSite(lemmasFromPage.keySet(), page.getSite());
-        Map<String, Lemma> lemmaMap = updatedLemmas.stream()
-                .collect(Collectors.toMap(Lemma::getLemma, lemma -> lemma));
+        // 4. Получаем ID лемм из кэша; в базу данных обращаемся только за новыми леммами.
+        int siteId = page.getSite().getId();
+        ObjectIntHashMap<String> lemmaIds = lemmaIdCache.resolve(siteId, lemmaStrings);
 
-        List<Index> indicesToSave = new ArrayList<>();
+        List<Object[]> indexRows = new ArrayList<>(lemmasFromPage.size());
 
-        // 5. Создаем объекты Index, используя актуальные Lemma.
-        for (Map.Entry<String, Integer> lemmaEntry : lemmasFromPage.entrySet()) {
-            String lemmaString = lemmaEntry.getKey();
-            Integer rankOnPage = lemmaEntry.getValue();
+        // 5. Создаем строки индекса по ID лемм.
+        lemmasFromPage.forEach((lemmaString, rankOnPage) -> {
+            int lemmaId = lemmaIds.getInt(lemmaString, -1);
 
-            Lemma lemma = lemmaMap.get(lemmaString);
-
-            if (lemma == null) {
+            if (lemmaId < 0) {
                 log.error("Лемма '{}' не найдена после upsert для сайта {}. Пропускаю создание индекса.",
                         lemmaString, page.getSite().getName());
-                continue;
+                return;
             }
 
-            Index newIndex = new Index();
-            newIndex.setPage(page);
-            newIndex.setLemma(lemma);
-            newIndex.setRank(rankOnPage.floatValue());
-            indicesToSave.add(newIndex);
-        }
+            indexRows.add(new Object[]{page.getId(), lemmaId, (float) rankOnPage});
+        });
 
-        // 6. Сохраняем все новые индексы.
-        indexRepository.saveAll(indicesToSave);
+        // 6. Сохраняем все новые строки индекса. При ошибке транзакция откатывается, и ID новых лемм в кэше недействительны.
+        try {
+            bulkInsertRepository.insertRows("`index`", "page_id, lemma_id, `rank`", indexRows, indexConfig.getInsertBatchSize());
+        } catch (RuntimeException e) {
+            lemmaIdCache.evict(siteId);
+            throw e;
+        }
+        lemmaDictionaryService.refreshFrequencies(siteId, lemmaStrings);
+        metrics.recordDbWrite("lemmas", System.nanoTime() - writeStart);
     }
 
     @Override
@@ -132,7 +157,9 @@ public class LemmaServiceImpl implements LemmaService {
         }
         if (!lemmasToDelete.isEmpty()) {
             lemmaRepository.deleteAll(lemmasToDelete);
+            lemmaIdCache.remove(page.getSite().getId(), lemmasToDelete.stream().map(Lemma::getLemma).toList());
         }
+        lemmaDictionaryService.applyUpdates(page.getSite().getId(), uniqueLemmas);
 
         // 5. Очищаем контекст персистентности для предотвращения неожиданного поведения.
         indexRepository.flush();
@@ -144,73 +171,37 @@ public class LemmaServiceImpl implements LemmaService {
 
     @Override
     public Set<String> getLemmaSet(String text) {
-        return collectLemmas(text).keySet();
+        return new HashSet<>(collectLemmas(text).keys());
     }
 
-    public Map<String, Integer> collectLemmas(String text) {
-        Map<String, Integer> lemmas = new HashMap<>();
+    @Override
+    public ObjectIntHashMap<String> collectLemmas(String text) {
+        ObjectIntHashMap<String> lemmas = new ObjectIntHashMap<>();
         if (text == null || text.isBlank()) {
             return lemmas;
         }
 
-        String[] words = splitTextIntoWords(text);
-
-        for (String word : words) {
-            if (word.isBlank()) {
-                continue;
-            }
-            // Проверка на минимальную длину слова
-            if (word.length() < 2) { // Отфильтровываем слова длиной менее 2 символов
-                continue;
-            }
-
-            List<String> normalForms;
-            LuceneMorphology luceneMorphology;
-
-            if (isRussian(word)) {
-                luceneMorphology = this.russianLuceneMorphology;
-            } else if (isEnglish(word)) {
-                luceneMorphology = this.englishLuceneMorphology;
-            } else {
-                continue;
-            }
-
-            List<String> morphInfo = luceneMorphology.getMorphInfo(word);
-            if (isServicePart(morphInfo)) {
-                continue;
+        // Стоп-слова отбрасываются до кэша; лемма остальных слов берется из кэша,
+        // анализатор языка вызывается только для новых слов.
+        languageAnalyzers.tokenize(text, (word, analyzer) -> {
+            if (analyzer.isStopWord(word)) {
+                return;
             }
-
-            normalForms = luceneMorphology.getNormalForms(word);
-            if (normalForms.isEmpty()) {
-                continue;
+            String normalWord = wordLemmas.get(word);
+            if (!normalWord.isEmpty()) {
+                lemmas.addTo(normalWord, 1);
             }
-            String normalWord = normalForms.get(0);
-            lemmas.put(normalWord, lemmas.getOrDefault(normalWord, 0) + 1);
-        }
+        });
         return lemmas;
     }
 
-    private String[] splitTextIntoWords(String text) {
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("[^а-яa-z\\s]", " ")
-                .trim()
-                .split("\\s+");
-    }
-
-    private boolean isServicePart(List<String> morphInfo) {
-        if (morphInfo.isEmpty()) {
-            return false;
-        }
-        String info = morphInfo.get(0);
-        return info.contains("ПРЕДЛ") || info.contains("СОЮЗ") || info.contains("МЕЖД") || info.contains("ЧАСТ") || info.contains("МЕСТОИМ") // Русский
-                || info.contains("PREP") || info.contains("CONJ") || info.contains("PART") || info.contains("PN"); // Английский
-    }
-
-    private boolean isRussian(String word) {
-        return word.matches("[а-я]+");
-    }
-
-    private boolean isEnglish(String word) {
-        return word.matches("[a-z]+");
+    /**
+     * Лемма слова анализатором его языка.
+     * @return нормальная форма слова или {@link #NO_LEMMA}, если слово не индексируется
+     */
+    private String lemmatizeWord(String word) {
+        LanguageAnalyzer analyzer = languageAnalyzers.forWord(word);
+        String lemma = analyzer == null ? null : analyzer.lemma(word);
+        return lemma == null ? NO_LEMMA : lemma;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package searchengine.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import searchengine.model.Site;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Шард, который ищет по своим сайтам в этом же процессе. Сайты шарда обходятся последовательно,
+ * из найденных страниц в памяти остаются только {@code topK} лучших.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class LocalSearchShard implements SearchShard {
+
+    /**
+     * Поиск по одному сайту: страницы, содержащие все леммы запроса, с абсолютной релевантностью.
+     */
+    @FunctionalInterface
+    interface SiteSearch {
+        List<ScoredPage> search(Site site, Set<String> queryLemmas, Set<String> lemmasToHighlight);
+    }
+
+    @Getter
+    private final String name;
+    private final List<Site> sites;
+    private final SiteSearch siteSearch;
+
+    @Override
+    public ShardResult search(Set<String> queryLemmas, int topK) {
+        // В вершине очереди - худшая из отобранных страниц, она вытесняется следующей более релевантной.
+        PriorityQueue<ScoredPage> top = new PriorityQueue<>(ScoredPage.RANKING.reversed());
+        Set<String> matchedLemmas = new HashSet<>();
+        int found = 0;
+        float maxRelevance = 0;
+        for (Site site : sites) {
+            log.info("--- Поиск по сайту: {} (шард {}) ---", site.getName(), name);
+            for (ScoredPage page : siteSearch.search(site, queryLemmas, matchedLemmas)) {
+                found++;
+                maxRelevance = Math.max(maxRelevance, page.getRelevance());
+                if (topK > 0) {
+                    top.add(page);
+                    if (top.size() > topK) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        List<ScoredPage> topPages = new ArrayList<>(top);
+        topPages.sort(ScoredPage.RANKING);
+        log.debug("Шард {}: найдено страниц {}, передано координатору {}", name, found, topPages.size());
+        return new ShardResult(topPages, found, maxRelevance, matchedLemmas);
+    }
+}
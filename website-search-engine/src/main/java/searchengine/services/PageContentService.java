@@ -0,0 +1,38 @@
+package searchengine.services;
+
+import searchengine.model.Page;
+import searchengine.utils.DeflatingWriter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface PageContentService {
+    /**
+     * Сжимает и сохраняет HTML-содержимое страницы. Страница должна быть уже сохранена.
+     * @param page    страница
+     * @param content исходная разметка
+     */
+    void save(Page page, String content);
+
+    /**
+     * Сохраняет HTML-содержимое страницы, сжатое во время ее чтения. Страница должна быть уже сохранена.
+     * @param page    страница
+     * @param content закрытый поток сжатой разметки
+     */
+    void save(Page page, DeflatingWriter content);
+
+    /**
+     * Загружает и распаковывает содержимое одной страницы.
+     * @param pageId идентификатор страницы
+     * @return разметка страницы или пустой Optional, если содержимое не сохранено
+     */
+    Optional<String> load(int pageId);
+
+    /**
+     * Загружает содержимое нескольких страниц одним запросом.
+     * @param pageIds идентификаторы страниц
+     * @return разметка страниц по идентификаторам
+     */
+    Map<Integer, String> loadAll(Collection<Integer> pageIds);
+}
@@ -0,0 +1,82 @@
+package searchengine.services;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.component.SearchEngineMetrics;
+import searchengine.model.Page;
+import searchengine.model.PageContent;
+import searchengine.repository.PageContentRepository;
+import searchengine.utils.DeflateCodec;
+import searchengine.utils.DeflatingWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PageContentServiceImpl implements PageContentService {
+
+    private final PageContentRepository pageContentRepository;
+    private final EntityManager entityManager;
+    private final SearchEngineMetrics metrics;
+
+    @Override
+    @Transactional
+    public void save(Page page, String content) {
+        long start = System.nanoTime();
+        byte[] original = content.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = DeflateCodec.compress(original, Deflater.DEFAULT_COMPRESSION);
+        store(page, original.length, compressed, System.nanoTime() - start);
+    }
+
+    @Override
+    @Transactional
+    public void save(Page page, DeflatingWriter content) {
+        store(page, content.getOriginalSize(), content.toByteArray(), content.getCompressNanos());
+    }
+
+    private void store(Page page, int originalSize, byte[] compressed, long compressNanos) {
+        PageContent pageContent = new PageContent();
+        // Страница сохранена в другой транзакции, поэтому связь задается ссылкой из текущего контекста.
+        pageContent.setPage(entityManager.getReference(Page.class, page.getId()));
+        pageContent.setOriginalSize(originalSize);
+        pageContent.setData(compressed);
+        pageContentRepository.save(pageContent);
+
+        metrics.recordContentWrite(originalSize, compressed.length, compressNanos);
+        log.debug("Содержимое страницы {} сжато: {} -> {} байт", page.getPath(), originalSize, compressed.length);
+    }
+
+    @Override
+    public Optional<String> load(int pageId) {
+        return pageContentRepository.findById(pageId).map(this::decode);
+    }
+
+    @Override
+    public Map<Integer, String> loadAll(Collection<Integer> pageIds) {
+        Map<Integer, String> contents = new HashMap<>();
+        if (pageIds.isEmpty()) {
+            return contents;
+        }
+        for (PageContent pageContent : pageContentRepository.findByPageIdIn(pageIds)) {
+            contents.put(pageContent.getPageId(), decode(pageContent));
+        }
+        return contents;
+    }
+
+    private String decode(PageContent pageContent) {
+        long start = System.nanoTime();
+        byte[] original = DeflateCodec.decompress(pageContent.getData(), pageContent.getOriginalSize());
+        String content = new String(original, StandardCharsets.UTF_8);
+        metrics.recordContentRead(System.nanoTime() - start);
+        return content;
+    }
+}
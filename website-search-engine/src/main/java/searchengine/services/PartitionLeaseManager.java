@@ -0,0 +1,91 @@
+package searchengine.services;
+
+import lombok.extern.slf4j.Slf4j;
+import searchengine.config.CrawlerConfig;
+import searchengine.repository.CrawlNodeRepository;
+import searchengine.repository.PartitionLeaseRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Аренда разделов адресного пространства одним узлом кластера.
+ * <p>
+ * При каждом обновлении узел продлевает свои аренды и приводит их число к справедливой доле
+ * {@code ceil(partitions / liveNodes)}: занимает свободные разделы и разделы выбывших узлов,
+ * а если узлов стало больше - освобождает лишние, чтобы их забрали новые узлы.
+ */
+@Slf4j
+class PartitionLeaseManager {
+
+    private final PartitionLeaseRepository leaseRepository;
+    private final CrawlNodeRepository nodeRepository;
+    private final CrawlerConfig.Cluster config;
+    private final String nodeId;
+
+    PartitionLeaseManager(PartitionLeaseRepository leaseRepository, CrawlNodeRepository nodeRepository,
+                          CrawlerConfig.Cluster config, String nodeId) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.config = config;
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Создает строки разделов, которых еще нет в таблице аренды.
+     */
+    void initialize() {
+        IntStream.range(0, config.getPartitions()).forEach(leaseRepository::ensureExists);
+    }
+
+    /**
+     * Отмечает узел живым, не меняя аренды. Вызывается, пока индексация не идет.
+     */
+    void heartbeat() {
+        nodeRepository.heartbeat(nodeId, LocalDateTime.now());
+    }
+
+    /**
+     * Отмечает узел живым, продлевает аренды и перераспределяет разделы.
+     * @return разделы, которые узел арендует после обновления
+     */
+    List<Integer> refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusSeconds(config.getLeaseSeconds());
+        nodeRepository.heartbeat(nodeId, now);
+        leaseRepository.renew(nodeId, now, until);
+
+        long liveNodes = Math.max(1, nodeRepository.countByLastSeenGreaterThanEqual(now.minusSeconds(config.getLeaseSeconds())));
+        int fairShare = (int) ((config.getPartitions() + liveNodes - 1) / liveNodes);
+        List<Integer> owned = leaseRepository.findOwned(nodeId, now);
+
+        if (owned.size() > fairShare) {
+            for (int partition : owned.subList(fairShare, owned.size())) {
+                leaseRepository.release(partition, nodeId);
+            }
+            log.info("Узел {} освободил {} разделов: живых узлов {}, доля узла {}", nodeId, owned.size() - fairShare, liveNodes, fairShare);
+        } else if (owned.size() < fairShare) {
+            int claimed = 0;
+            for (int partition : leaseRepository.findAvailable(now)) {
+                if (owned.size() + claimed >= fairShare) {
+                    break;
+                }
+                claimed += leaseRepository.claim(partition, nodeId, now, until);
+            }
+            if (claimed > 0) {
+                log.info("Узел {} занял {} разделов: живых узлов {}, доля узла {}", nodeId, claimed, liveNodes, fairShare);
+            }
+        } else {
+            return owned;
+        }
+        return leaseRepository.findOwned(nodeId, now);
+    }
+
+    /**
+     * Освобождает все разделы узла, например при остановке приложения или по окончании индексации.
+     */
+    void releaseAll() {
+        leaseRepository.releaseAll(nodeId);
+    }
+}
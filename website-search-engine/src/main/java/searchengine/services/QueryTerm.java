@@ -0,0 +1,42 @@
+package searchengine.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.utils.LemmaEntry;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Термин запроса: лемма запроса и соответствующие ей леммы словаря с весами.
+ * Для точного совпадения это одна лемма с весом 1, для опечатки - несколько похожих лемм.
+ */
+@Getter
+@RequiredArgsConstructor
+class QueryTerm {
+    private final String queryLemma;
+    private final List<LemmaEntry> lemmas;
+    private final List<Float> weights;
+
+    /**
+     * Количество страниц сайта с леммами термина (для похожих лемм - оценка сверху).
+     */
+    long getFrequency() {
+        return lemmas.stream().mapToLong(LemmaEntry::getFrequency).sum();
+    }
+
+    boolean isExact() {
+        return lemmas.size() == 1;
+    }
+
+    List<Integer> getLemmaIds() {
+        return lemmas.stream().map(LemmaEntry::getId).collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return lemmas.size() == 1 && lemmas.get(0).getLemma().equals(queryLemma)
+                ? queryLemma
+                : queryLemma + "~" + lemmas.stream().map(LemmaEntry::getLemma).collect(Collectors.toList());
+    }
+}
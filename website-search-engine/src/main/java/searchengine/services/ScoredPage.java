@@ -0,0 +1,26 @@
+package searchengine.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.model.Site;
+
+import java.util.Comparator;
+
+/**
+ * Страница-кандидат выдачи: сайт, ID страницы и релевантность.
+ */
+@Getter
+@RequiredArgsConstructor
+class ScoredPage {
+
+    /**
+     * Порядок выдачи: по убыванию релевантности, при равной релевантности - по ID страницы.
+     * ID страниц уникальны для всех сайтов, поэтому порядок не зависит от того, как сайты разбиты на шарды.
+     */
+    static final Comparator<ScoredPage> RANKING = Comparator.comparing(ScoredPage::getRelevance).reversed()
+            .thenComparing(ScoredPage::getPageId);
+
+    private final Site site;
+    private final int pageId;
+    private final float relevance;
+}
@@ -0,0 +1,49 @@
+package searchengine.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * План поиска страниц, содержащих все термины запроса, на одном сайте.
+ */
+@Getter
+@RequiredArgsConstructor
+class SearchPlan {
+
+    /**
+     * Способ пересечения списков страниц терминов.
+     */
+    enum Strategy {
+        /** Один SQL-запрос с GROUP BY/HAVING по всем леммам; только для точных лемм. */
+        SQL_INTERSECTION,
+        /** Страницы самого редкого термина, затем проверка только этих страниц по остальным терминам. */
+        RARE_TERM_DRIVEN,
+        /** Полные списки страниц всех терминов пересекаются в памяти. */
+        IN_MEMORY_INTERSECTION
+    }
+
+    private final Strategy strategy;
+    /** Термины, участвующие в поиске, от самого редкого к частому. */
+    private final List<QueryTerm> terms;
+    /** Термины, пропущенные как слишком частые. */
+    private final List<QueryTerm> skippedTerms;
+    private final long totalPages;
+    private final long estimatedResults;
+    /** Оценки стоимости стратегий в условных единицах (чтение одной строки индекса). */
+    private final Map<Strategy, Double> costs;
+
+    boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return strategy + " " + terms.stream().map(term -> term + "(" + term.getFrequency() + ")").collect(Collectors.toList())
+                + (skippedTerms.isEmpty() ? "" : ", пропущены " + skippedTerms)
+                + ", страниц " + totalPages + ", ожидается результатов " + estimatedResults + ", стоимость " + costs;
+    }
+}
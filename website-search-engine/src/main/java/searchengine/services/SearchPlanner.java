@@ -0,0 +1,110 @@
+package searchengine.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выбирает способ поиска страниц по оценкам количества страниц для терминов запроса.
+ * <p>
+ * Частоты лемм берутся из словаря лемм (количество страниц сайта с леммой), поэтому оценка
+ * не требует запросов к базе данных. Количество результатов оценивается в предположении
+ * независимости терминов, стоимость стратегии - количеством прочитанных строк индекса
+ * и обращений к базе данных.
+ */
+@Component
+@RequiredArgsConstructor
+class SearchPlanner {
+
+    /** Стоимость одного запроса к базе данных в единицах чтения строки. */
+    private static final double ROUND_TRIP_COST = 20.0;
+    /** Стоимость передачи одной строки результата в приложение. */
+    private static final double ROW_TRANSFER_COST = 1.0;
+    /** Стоимость чтения строки индекса внутри базы данных при группировке. */
+    private static final double SQL_ROW_COST = 0.2;
+    /** Стоимость проверки одной страницы-кандидата по индексу (page_id, lemma_id). */
+    private static final double PROBE_ROW_COST = 0.5;
+
+    private final SearchConfig searchConfig;
+
+    /**
+     * Составляет план поиска.
+     * @param terms      термины запроса, найденные в словаре сайта
+     * @param totalPages количество страниц сайта
+     */
+    SearchPlan plan(List<QueryTerm> terms, long totalPages) {
+        List<QueryTerm> sorted = new ArrayList<>(terms);
+        sorted.sort(Comparator.comparingLong(QueryTerm::getFrequency));
+        if (sorted.isEmpty() || totalPages == 0) {
+            return new SearchPlan(SearchPlan.Strategy.IN_MEMORY_INTERSECTION, List.of(), sorted, totalPages, 0, Map.of());
+        }
+
+        // Термин, который есть почти на всех страницах, почти не сужает выдачу, но требует чтения
+        // большого списка страниц. Такие термины пропускаются, если остается хотя бы один более редкий.
+        List<QueryTerm> kept = new ArrayList<>();
+        List<QueryTerm> skipped = new ArrayList<>();
+        for (QueryTerm term : sorted) {
+            if (!kept.isEmpty() && selectivity(term, totalPages) > searchConfig.getPlanner().getSkipSelectivity()) {
+                skipped.add(term);
+            } else {
+                kept.add(term);
+            }
+        }
+
+        double estimated = totalPages;
+        for (QueryTerm term : kept) {
+            estimated *= selectivity(term, totalPages);
+        }
+
+        Map<SearchPlan.Strategy, Double> costs = new EnumMap<>(SearchPlan.Strategy.class);
+        if (kept.stream().allMatch(QueryTerm::isExact)) {
+            costs.put(SearchPlan.Strategy.SQL_INTERSECTION, sqlIntersectionCost(kept, estimated));
+        }
+        costs.put(SearchPlan.Strategy.IN_MEMORY_INTERSECTION, inMemoryCost(kept));
+        if (kept.size() > 1) {
+            costs.put(SearchPlan.Strategy.RARE_TERM_DRIVEN, rareTermDrivenCost(kept, totalPages));
+        }
+
+        SearchPlan.Strategy strategy = costs.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(SearchPlan.Strategy.IN_MEMORY_INTERSECTION);
+        return new SearchPlan(strategy, kept, skipped, totalPages, Math.round(estimated), costs);
+    }
+
+    private double sqlIntersectionCost(List<QueryTerm> terms, double estimated) {
+        long rows = terms.stream().mapToLong(QueryTerm::getFrequency).sum();
+        return ROUND_TRIP_COST + rows * SQL_ROW_COST + estimated * ROW_TRANSFER_COST;
+    }
+
+    private double inMemoryCost(List<QueryTerm> terms) {
+        long rows = terms.stream().mapToLong(QueryTerm::getFrequency).sum();
+        return terms.size() * ROUND_TRIP_COST + rows * ROW_TRANSFER_COST;
+    }
+
+    /**
+     * Страницы самого редкого термина читаются целиком, а каждый следующий термин проверяется
+     * только для оставшихся кандидатов частями по {@code search.query-batch-size}.
+     */
+    private double rareTermDrivenCost(List<QueryTerm> terms, long totalPages) {
+        double candidates = terms.get(0).getFrequency();
+        double cost = ROUND_TRIP_COST + candidates * ROW_TRANSFER_COST;
+        for (int i = 1; i < terms.size() && candidates >= 1; i++) {
+            double batches = Math.ceil(candidates / searchConfig.getQueryBatchSize());
+            double probed = candidates;
+            candidates *= selectivity(terms.get(i), totalPages);
+            cost += batches * ROUND_TRIP_COST + probed * PROBE_ROW_COST + candidates * ROW_TRANSFER_COST;
+        }
+        return cost;
+    }
+
+    private static double selectivity(QueryTerm term, long totalPages) {
+        return Math.min(1.0, (double) term.getFrequency() / totalPages);
+    }
+}
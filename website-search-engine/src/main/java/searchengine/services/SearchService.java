@@ -1,7 +1,27 @@
 package searchengine.services;
 
+import searchengine.dto.search.SearchExplainResponseDTO;
 import searchengine.dto.search.SearchResponseDTO;
+import searchengine.dto.search.SuggestResponseDTO;
 
 public interface SearchService {
     SearchResponseDTO search(String query, String site, int offset, int limit);
+
+    /**
+     * Подбирает проиндексированные леммы, начинающиеся с последнего слова запроса.
+     * @param query введенный пользователем текст
+     * @param site  сайт для поиска (если null, по всем сайтам)
+     * @param limit максимальное количество подсказок
+     * @return ответ со списком лемм, отсортированных по убыванию частоты
+     */
+    SuggestResponseDTO suggest(String query, String site, int limit);
+
+    /**
+     * Составляет план поиска по каждому сайту без выполнения поиска: оценки количества страниц
+     * для терминов, пропущенные частые термины, стоимость стратегий и выбранная стратегия.
+     * @param query поисковый запрос
+     * @param site  сайт для поиска (если null, по всем сайтам)
+     * @return ответ с планами поиска по сайтам
+     */
+    SearchExplainResponseDTO explain(String query, String site);
 }
@@ -1,27 +1,48 @@
 package searchengine.services;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import searchengine.component.SearchEngineMetrics;
+import searchengine.config.SearchConfig;
+import searchengine.dto.search.SearchExplainResponseDTO;
+import searchengine.dto.search.SearchPlanDTO;
 import searchengine.dto.search.SearchResponseDTO;
 import searchengine.dto.search.SearchDataDTO;
-import searchengine.model.Index;
-import searchengine.model.Lemma;
-import searchengine.model.Page;
+import searchengine.dto.search.SuggestResponseDTO;
+import searchengine.dto.search.TermEstimateDTO;
 import searchengine.model.Site;
 import searchengine.repository.IndexRepository;
-import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
-
+import searchengine.repository.projection.IndexRank;
+import searchengine.repository.projection.PageSummary;
+import searchengine.utils.FuzzyMatch;
+import searchengine.utils.HtmlStreamExtractor;
+import searchengine.utils.IntArrays;
+import searchengine.utils.IntFloatHashMap;
+import searchengine.utils.LemmaEntry;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static searchengine.component.SearchEngineMetrics.*;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -29,12 +50,30 @@ public class SearchServiceImpl implements SearchService {
 
     private final LemmaService lemmaService;
     private final SiteRepository siteRepository;
-    private final LemmaRepository lemmaRepository;
+    private final LemmaDictionaryService lemmaDictionaryService;
     private final PageRepository pageRepository;
     private final IndexRepository indexRepository;
+    private final PageContentService pageContentService;
+    private final SearchConfig searchConfig;
+    private final SearchEngineMetrics metrics;
+    private final SearchPlanner planner;
+
+    private ExecutorService shardExecutor;
+
+    @PostConstruct
+    void startShardExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        shardExecutor = Executors.newFixedThreadPool(searchConfig.getShards().getCount(), runnable -> {
+            Thread thread = new Thread(runnable, "Search-Shard-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-    @Value("${search.lemma-frequency-threshold:0.9}")
-    private double frequencyThresholdPercent;
+    @PreDestroy
+    void stopShardExecutor() {
+        shardExecutor.shutdownNow();
+    }
 
     @Override
     public SearchResponseDTO search(String query, String siteUrl, int offset, int limit) {
@@ -43,6 +82,7 @@ public class SearchServiceImpl implements SearchService {
         }
         log.info("Начало поиска по запросу: '{}', сайт: '{}'", query, siteUrl);
 
+        long start = System.nanoTime();
         try {
             List<Site> sitesToSearch = getSitesToSearch(siteUrl);
             if (sitesToSearch.isEmpty()) {
@@ -51,31 +91,113 @@ public class SearchServiceImpl implements SearchService {
             }
             log.info("Поиск будет выполнен по {} сайтам.", sitesToSearch.size());
 
-            Set<String> queryLemmas = lemmaService.getLemmaSet(query);
+            Set<String> queryLemmas = metrics.timeSearchStage(STAGE_LEMMAS, () -> lemmaService.getLemmaSet(query));
             log.info("Леммы из запроса: {}", queryLemmas);
 
-            List<SearchDataDTO> allResults = new ArrayList<>();
-            for (Site site : sitesToSearch) {
-                log.info("--- Поиск по сайту: {} ---", site.getName());
-                allResults.addAll(searchSite(site, query, queryLemmas));
-            }
+            // Каждому шарду достаточно вернуть offset + limit лучших страниц: остальные не попадут в выдачу.
+            int topK = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+            List<ShardResult> shardResults = scatter(createShards(sitesToSearch), queryLemmas, topK);
+            int found = shardResults.stream().mapToInt(ShardResult::getFound).sum();
 
-            if (allResults.isEmpty()) {
+            if (found == 0) {
                 log.info("Поиск не дал результатов.");
                 return new SearchResponseDTO(true, 0, Collections.emptyList());
             }
 
-            List<SearchDataDTO> finalResults = postProcessResults(allResults, offset, limit);
-            log.info("Поиск завершен. Найдено всего: {}. Возвращено после пагинации: {}", allResults.size(), finalResults.size());
+            Set<String> lemmasToHighlight = new HashSet<>(queryLemmas);
+            shardResults.forEach(result -> lemmasToHighlight.addAll(result.getMatchedLemmas()));
 
-            return new SearchResponseDTO(true, allResults.size(), finalResults);
+            // Заголовки и сниппеты нужны только для страниц текущей выдачи, поэтому они загружаются после пагинации.
+            List<ScoredPage> window = metrics.timeSearchStage(STAGE_SCORING, () -> mergeResults(shardResults, offset, limit));
+            Map<Integer, PageSummary> summaries = metrics.timeSearchStage(STAGE_HYDRATION, () -> loadSummaries(window));
+            List<SearchDataDTO> finalResults = metrics.timeSearchStage(STAGE_SNIPPET, () -> createSearchDataDTOs(window, summaries, lemmasToHighlight));
+            log.info("Поиск завершен. Найдено всего: {}. Возвращено после пагинации: {}", found, finalResults.size());
+
+            return new SearchResponseDTO(true, found, finalResults);
 
         } catch (Exception e) {
             log.error("Ошибка во время поиска: {}", e.getMessage(), e);
             return new SearchResponseDTO(false, "Во время поиска произошла ошибка: " + e.getMessage());
+        } finally {
+            metrics.recordSearch(System.nanoTime() - start);
         }
     }
 
+    @Override
+    public SuggestResponseDTO suggest(String query, String siteUrl, int limit) {
+        String prefix = lastWord(query);
+        if (prefix.isEmpty()) {
+            return new SuggestResponseDTO(false, "Задан пустой запрос для подсказок");
+        }
+
+        List<Site> sitesToSearch = getSitesToSearch(siteUrl);
+        if (sitesToSearch.isEmpty()) {
+            return new SuggestResponseDTO(false, "Сайты для поиска не найдены или не проиндексированы");
+        }
+
+        Map<String, Integer> frequencyByLemma = new HashMap<>();
+        for (Site site : sitesToSearch) {
+            for (LemmaEntry entry : lemmaDictionaryService.findByPrefix(site.getId(), prefix, limit)) {
+                frequencyByLemma.merge(entry.getLemma(), entry.getFrequency(), Integer::sum);
+            }
+        }
+
+        List<String> suggestions = frequencyByLemma.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        log.debug("Подсказки для префикса '{}': {}", prefix, suggestions);
+        return new SuggestResponseDTO(true, suggestions);
+    }
+
+    @Override
+    public SearchExplainResponseDTO explain(String query, String siteUrl) {
+        if (query.isBlank()) {
+            return new SearchExplainResponseDTO(false, "Задан пустой поисковый запрос");
+        }
+        List<Site> sitesToSearch = getSitesToSearch(siteUrl);
+        if (sitesToSearch.isEmpty()) {
+            return new SearchExplainResponseDTO(false, "Сайты для поиска не найдены или не проиндексированы");
+        }
+
+        Set<String> queryLemmas = lemmaService.getLemmaSet(query);
+        List<SearchPlanDTO> plans = new ArrayList<>();
+        for (Site site : sitesToSearch) {
+            SearchPlan plan = planner.plan(resolveQueryTerms(site, queryLemmas), pageRepository.countBySiteId(site.getId()));
+            plans.add(toPlanDTO(site, plan));
+        }
+        return new SearchExplainResponseDTO(true, queryLemmas, plans);
+    }
+
+    private SearchPlanDTO toPlanDTO(Site site, SearchPlan plan) {
+        SearchPlanDTO dto = new SearchPlanDTO();
+        dto.setSite(site.getUrl());
+        dto.setSiteName(site.getName());
+        dto.setStrategy(plan.isEmpty() ? null : plan.getStrategy().name());
+        dto.setTotalPages(plan.getTotalPages());
+        dto.setEstimatedResults(plan.getEstimatedResults());
+        Map<String, Double> costs = new LinkedHashMap<>();
+        plan.getCosts().forEach((strategy, cost) -> costs.put(strategy.name(), cost));
+        dto.setCosts(costs);
+        List<TermEstimateDTO> terms = new ArrayList<>();
+        plan.getTerms().forEach(term -> terms.add(toTermDTO(term, plan.getTotalPages(), false)));
+        plan.getSkippedTerms().forEach(term -> terms.add(toTermDTO(term, plan.getTotalPages(), true)));
+        dto.setTerms(terms);
+        return dto;
+    }
+
+    private TermEstimateDTO toTermDTO(QueryTerm term, long totalPages, boolean skipped) {
+        List<String> lemmas = term.getLemmas().stream().map(LemmaEntry::getLemma).collect(Collectors.toList());
+        double selectivity = totalPages == 0 ? 0 : Math.min(1.0, (double) term.getFrequency() / totalPages);
+        return new TermEstimateDTO(term.getQueryLemma(), lemmas, term.getFrequency(), selectivity, skipped);
+    }
+
+    private String lastWord(String query) {
+        String[] words = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        return words[words.length - 1];
+    }
+
     private List<Site> getSitesToSearch(String siteUrl) {
         if (siteUrl != null) {
             return siteRepository.findByUrl(siteUrl).map(List::of).orElse(Collections.emptyList());
@@ -84,92 +206,237 @@ public class SearchServiceImpl implements SearchService {
         }
     }
 
-    private List<SearchDataDTO> searchSite(Site site, String query, Set<String> queryLemmas) {
+    /**
+     * Распределяет сайты по шардам по ID сайта. Шарды без сайтов не создаются.
+     */
+    private List<SearchShard> createShards(List<Site> sites) {
+        int shardCount = searchConfig.getShards().getCount();
+        Map<Integer, List<Site>> sitesByShard = new TreeMap<>();
+        for (Site site : sites) {
+            sitesByShard.computeIfAbsent(Math.floorMod(site.getId(), shardCount), shard -> new ArrayList<>()).add(site);
+        }
+        List<SearchShard> shards = new ArrayList<>(sitesByShard.size());
+        sitesByShard.forEach((shard, shardSites) -> shards.add(new LocalSearchShard("shard-" + shard, shardSites, this::searchSite)));
+        return shards;
+    }
 
-        List<Lemma> foundLemmas = lemmaRepository.findByLemmaInAndSite(queryLemmas, site);
-        log.info("Найдено {} лемм в базе для сайта {}: {}", foundLemmas.size(), site.getName(), foundLemmas.stream().map(Lemma::getLemma).collect(Collectors.toList()));
+    /**
+     * Рассылает запрос шардам и собирает их ответы. Шарды работают параллельно в пуле
+     * {@code search.shards.count} потоков; единственный шард выполняется в потоке запроса.
+     * Если шард не ответил за {@code search.shards.timeout-seconds} или завершился с ошибкой, поиск завершается ошибкой.
+     */
+    private List<ShardResult> scatter(List<SearchShard> shards, Set<String> queryLemmas, int topK) {
+        if (shards.size() == 1) {
+            return List.of(shards.get(0).search(queryLemmas, topK));
+        }
+        log.info("Запрос разослан {} шардам.", shards.size());
+        List<Future<ShardResult>> futures = new ArrayList<>(shards.size());
+        for (SearchShard shard : shards) {
+            futures.add(shardExecutor.submit(() -> shard.search(queryLemmas, topK)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(searchConfig.getShards().getTimeoutSeconds());
+        List<ShardResult> results = new ArrayList<>(shards.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("шард " + shards.get(i).getName() + " завершился с ошибкой: " + e.getCause().getMessage(), e.getCause());
+                } catch (TimeoutException e) {
+                    throw new IllegalStateException("шард " + shards.get(i).getName() + " не ответил за отведенное время", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("поиск прерван", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
 
-        List<Lemma> filteredAndSortedLemmas = filterAndSortLemmas(foundLemmas, site);
-        if (filteredAndSortedLemmas.isEmpty()) {
-            log.warn("Все леммы были отфильтрованы (слишком частые или не найдены).");
+    /**
+     * Находит страницы сайта, содержащие все леммы запроса, и рассчитывает их абсолютную релевантность.
+     * Сущности страниц и индекса при этом не загружаются.
+     * @param lemmasToHighlight сюда добавляются леммы словаря, найденные для запроса (включая похожие)
+     */
+    private List<ScoredPage> searchSite(Site site, Set<String> queryLemmas, Set<String> lemmasToHighlight) {
+
+        List<QueryTerm> terms = metrics.timeSearchStage(STAGE_LOOKUP, () -> resolveQueryTerms(site, queryLemmas));
+        log.info("Найдено {} лемм запроса в словаре сайта {}: {}", terms.size(), site.getName(), terms);
+
+        SearchPlan plan = planner.plan(terms, pageRepository.countBySiteId(site.getId()));
+        log.info("План поиска по сайту {}: {}", site.getName(), plan);
+        if (plan.isEmpty()) {
+            log.warn("Леммы запроса не найдены в словаре сайта.");
             return Collections.emptyList();
         }
-        log.info("Отфильтрованные и отсортированные леммы (от редкой к частой): {}", filteredAndSortedLemmas.stream().map(Lemma::getLemma).collect(Collectors.toList()));
 
-        List<Integer> lemmaIds = filteredAndSortedLemmas.stream().map(Lemma::getId).collect(Collectors.toList());
-        List<Integer> pageIds = indexRepository.findPageIdsByLemmaIds(lemmaIds, lemmaIds.size());
-        log.info("Найдено {} страниц, содержащих все леммы.", pageIds.size());
+        int[] pageIds = metrics.timeSearchStage(STAGE_INTERSECTION, () -> findPagesContainingAllTerms(plan));
+        log.info("Найдено {} страниц, содержащих все леммы.", pageIds.length);
 
-        if (pageIds.isEmpty()) {
+        if (pageIds.length == 0) {
             return Collections.emptyList();
         }
 
-        List<Page> foundPages = pageRepository.findAllById(pageIds);
-        List<Index> indexes = indexRepository.findByPageInAndLemmaIn(foundPages, foundLemmas);
-        Map<Integer, Float> absoluteRelevanceByPageId = calculateAbsoluteRelevance(indexes);
+        IntFloatHashMap weightByLemmaId = new IntFloatHashMap();
+        for (QueryTerm term : terms) {
+            for (int i = 0; i < term.getLemmas().size(); i++) {
+                weightByLemmaId.putMax(term.getLemmas().get(i).getId(), term.getWeights().get(i));
+                lemmasToHighlight.add(term.getLemmas().get(i).getLemma());
+            }
+        }
+        List<Integer> lemmaIds = IntArrays.asList(weightByLemmaId.keys());
+
+        IntFloatHashMap absoluteRelevanceByPageId = metrics.timeSearchStage(STAGE_SCORING, () -> calculateAbsoluteRelevance(
+                inBatches(pageIds, batch -> indexRepository.findRanksByPageIdsAndLemmaIds(batch, lemmaIds)),
+                weightByLemmaId));
         log.info("Рассчитана абсолютная релевантность для {} страниц.", absoluteRelevanceByPageId.size());
 
-        return createSearchDataDTOs(foundPages, absoluteRelevanceByPageId, query, site);
+        List<ScoredPage> scoredPages = new ArrayList<>(absoluteRelevanceByPageId.size());
+        absoluteRelevanceByPageId.forEach((pageId, relevance) -> scoredPages.add(new ScoredPage(site, pageId, relevance)));
+        return scoredPages;
     }
 
-    private List<Lemma> filterAndSortLemmas(List<Lemma> lemmas, Site site) {
-        long totalPagesOnSite = pageRepository.countBySiteId(site.getId());
-        log.info("Всего страниц на сайте {}: {}", site.getName(), totalPagesOnSite);
-        if (totalPagesOnSite == 0) {
-            return Collections.emptyList();
+    /**
+     * Сопоставляет леммы запроса с леммами словаря сайта. Если леммы нет в словаре,
+     * она заменяется похожими леммами (опечатки) с весом {@code weight^distance}.
+     * Леммы, для которых ничего не найдено, не участвуют в поиске.
+     */
+    private List<QueryTerm> resolveQueryTerms(Site site, Set<String> queryLemmas) {
+        Map<String, LemmaEntry> exactMatches = lemmaDictionaryService.findLemmas(site.getId(), queryLemmas).stream()
+                .collect(Collectors.toMap(LemmaEntry::getLemma, entry -> entry));
+        SearchConfig.Fuzzy fuzzy = searchConfig.getFuzzy();
+
+        List<QueryTerm> terms = new ArrayList<>();
+        for (String queryLemma : queryLemmas) {
+            LemmaEntry exact = exactMatches.get(queryLemma);
+            if (exact != null) {
+                terms.add(new QueryTerm(queryLemma, List.of(exact), List.of(1.0f)));
+                continue;
+            }
+            if (!fuzzy.isEnabled() || queryLemma.length() < fuzzy.getMinWordLength()) {
+                continue;
+            }
+            int maxDistance = queryLemma.length() >= fuzzy.getTwoEditsMinLength() ? 2 : 1;
+            List<FuzzyMatch> matches = lemmaDictionaryService.findSimilar(site.getId(), queryLemma, maxDistance, fuzzy.getMaxExpansions());
+            if (matches.isEmpty()) {
+                continue;
+            }
+            List<LemmaEntry> lemmas = new ArrayList<>();
+            List<Float> weights = new ArrayList<>();
+            for (FuzzyMatch match : matches) {
+                lemmas.add(match.getEntry());
+                weights.add((float) Math.pow(fuzzy.getWeight(), match.getDistance()));
+            }
+            log.info("Лемма '{}' не найдена, используются похожие: {}", queryLemma, lemmas.stream().map(LemmaEntry::getLemma).collect(Collectors.toList()));
+            terms.add(new QueryTerm(queryLemma, lemmas, weights));
+        }
+        return terms;
+    }
+
+    /**
+     * Находит страницы, содержащие все термины плана, выбранным планировщиком способом.
+     * Страница должна содержать хотя бы одну лемму каждого термина.
+     * @return отсортированные ID страниц
+     */
+    private int[] findPagesContainingAllTerms(SearchPlan plan) {
+        List<QueryTerm> terms = plan.getTerms();
+        switch (plan.getStrategy()) {
+            case SQL_INTERSECTION -> {
+                List<Integer> lemmaIds = terms.stream().map(term -> term.getLemmas().get(0).getId()).collect(Collectors.toList());
+                return IntArrays.toSortedSet(indexRepository.findPageIdsByLemmaIds(lemmaIds, lemmaIds.size()));
+            }
+            case RARE_TERM_DRIVEN -> {
+                int[] pageIds = IntArrays.toSortedSet(indexRepository.findDistinctPageIdsByLemmaIds(terms.get(0).getLemmaIds()));
+                for (int i = 1; i < terms.size() && pageIds.length > 0; i++) {
+                    List<Integer> lemmaIds = terms.get(i).getLemmaIds();
+                    pageIds = IntArrays.toSortedSet(inBatches(pageIds, batch -> indexRepository.findDistinctPageIdsByLemmaIdsAndPageIds(lemmaIds, batch)));
+                }
+                return pageIds;
+            }
+            default -> {
+                int[] pageIds = null;
+                for (QueryTerm term : terms) {
+                    int[] termPageIds = IntArrays.toSortedSet(indexRepository.findDistinctPageIdsByLemmaIds(term.getLemmaIds()));
+                    pageIds = pageIds == null ? termPageIds : IntArrays.intersectSorted(pageIds, termPageIds);
+                    if (pageIds.length == 0) {
+                        break;
+                    }
+                }
+                return pageIds == null ? new int[0] : pageIds;
+            }
         }
-        long frequencyThreshold = (long) (totalPagesOnSite * frequencyThresholdPercent);
-        log.info("Порог частоты для фильтрации лемм: {}", frequencyThreshold);
-
-        // Получаем количество страниц для каждой леммы
-        Map<Lemma, Long> lemmaPageCounts = new HashMap<>();
-        for (Lemma lemma : lemmas) {
-            long pagesCount = indexRepository.countPagesForLemmaId(lemma.getId());
-            lemmaPageCounts.put(lemma, pagesCount);
+    }
+
+    private IntFloatHashMap calculateAbsoluteRelevance(List<IndexRank> ranks, IntFloatHashMap weightByLemmaId) {
+        IntFloatHashMap relevanceByPageId = new IntFloatHashMap();
+        for (IndexRank rank : ranks) {
+            relevanceByPageId.addTo(rank.getPageId(), rank.getRank() * weightByLemmaId.get(rank.getLemmaId(), 1.0f));
         }
+        return relevanceByPageId;
+    }
 
-        return lemmas.stream()
-                .filter(lemma -> lemmaPageCounts.getOrDefault(lemma, 0L) <= frequencyThreshold)
-                .sorted(Comparator.comparingLong(lemma -> lemmaPageCounts.getOrDefault(lemma, 0L)))
-                .collect(Collectors.toList());
+    /**
+     * Выполняет запрос с условием {@code IN} частями по {@code search.query-batch-size} ID,
+     * чтобы размер запроса не зависел от количества найденных страниц.
+     */
+    private <T> List<T> inBatches(int[] ids, Function<List<Integer>, List<T>> query) {
+        int batchSize = searchConfig.getQueryBatchSize();
+        if (ids.length <= batchSize) {
+            return query.apply(IntArrays.asList(ids));
+        }
+        List<T> result = new ArrayList<>();
+        for (int from = 0; from < ids.length; from += batchSize) {
+            result.addAll(query.apply(IntArrays.asList(ids, from, Math.min(ids.length, from + batchSize))));
+        }
+        return result;
     }
 
-    private Map<Integer, Float> calculateAbsoluteRelevance(List<Index> indexes) {
-        return indexes.stream()
-                .collect(Collectors.groupingBy(
-                        index -> index.getPage().getId(),
-                        Collectors.summingDouble(Index::getRank)
-                ))
-                .entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().floatValue()));
+    private Map<Integer, PageSummary> loadSummaries(List<ScoredPage> window) {
+        int[] pageIds = window.stream().mapToInt(ScoredPage::getPageId).toArray();
+        return inBatches(pageIds, pageRepository::findSummariesByIdIn).stream()
+                .collect(Collectors.toMap(PageSummary::getId, summary -> summary));
     }
 
-    private List<SearchDataDTO> createSearchDataDTOs(List<Page> pages, Map<Integer, Float> relevanceMap, String query, Site site) {
-        List<SearchDataDTO> results = new ArrayList<>();
-        for (Page page : pages) {
-            Document doc = Jsoup.parse(page.getContent());
-            String title = doc.title();
-            float relevance = relevanceMap.getOrDefault(page.getId(), 0.0f);
-            String snippet = generateSnippet(doc.text(), query);
+    private List<SearchDataDTO> createSearchDataDTOs(List<ScoredPage> window, Map<Integer, PageSummary> summaries, Set<String> lemmasToHighlight) {
+        List<SearchDataDTO> results = new ArrayList<>(window.size());
+        Map<Integer, String> contents = pageContentService.loadAll(summaries.keySet());
+        for (ScoredPage scoredPage : window) {
+            PageSummary page = summaries.get(scoredPage.getPageId());
+            if (page == null) {
+                log.warn("Страница {} удалена во время поиска и пропущена в выдаче.", scoredPage.getPageId());
+                continue;
+            }
+            Site site = scoredPage.getSite();
+            String text = extractText(contents.getOrDefault(page.getId(), ""), site.getUrl() + page.getPath());
+            String snippet = generateSnippet(text, lemmasToHighlight);
             results.add(new SearchDataDTO(
                     site.getUrl(),
                     site.getName(),
                     page.getPath(),
-                    title,
+                    page.getTitle(),
                     snippet,
-                    relevance
+                    scoredPage.getRelevance()
             ));
         }
         return results;
     }
 
-    private String generateSnippet(String text, String query) {
+    private String extractText(String content, String pageUrl) {
+        try {
+            return HtmlStreamExtractor.extract(new StringReader(content), pageUrl).getText();
+        } catch (IOException e) {
+            // Чтение из строки не приводит к ошибкам ввода-вывода.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String generateSnippet(String text, Set<String> queryLemmas) {
         log.debug("generateSnippet: Входной текст: '{}'", text.substring(0, Math.min(text.length(), 100)) + "...");
-        log.debug("generateSnippet: Входной запрос: '{}'", query);
+        log.debug("generateSnippet: Леммы для подсветки: {}", queryLemmas);
 
         try {
-            Set<String> queryLemmas = lemmaService.getLemmaSet(query);
-            log.debug("generateSnippet: Леммы из запроса: {}", queryLemmas);
 
             if (queryLemmas.isEmpty()) {
                 log.debug("generateSnippet: Леммы запроса пусты, возвращаем начало текста.");
@@ -265,17 +532,23 @@ public class SearchServiceImpl implements SearchService {
         }
     }
 
-    private List<SearchDataDTO> postProcessResults(List<SearchDataDTO> results, int offset, int limit) {
+    /**
+     * Объединяет лучшие страницы шардов: нормирует релевантность на максимальную среди всех шардов,
+     * сортирует страницы по убыванию релевантности и возвращает запрошенную страницу выдачи.
+     */
+    private List<ScoredPage> mergeResults(List<ShardResult> results, int offset, int limit) {
         float maxRelevance = results.stream()
-                .max(Comparator.comparing(SearchDataDTO::getRelevance))
-                .map(SearchDataDTO::getRelevance)
+                .filter(result -> result.getFound() > 0)
+                .map(ShardResult::getMaxRelevance)
+                .max(Comparator.naturalOrder())
                 .orElse(1.0f);
 
         return results.stream()
-                .peek(r -> r.setRelevance(r.getRelevance() / maxRelevance))
-                .sorted(Comparator.comparing(SearchDataDTO::getRelevance).reversed())
+                .flatMap(result -> result.getTopPages().stream())
+                .sorted(ScoredPage.RANKING)
                 .skip(offset)
                 .limit(limit)
+                .map(page -> new ScoredPage(page.getSite(), page.getPageId(), page.getRelevance() / maxRelevance))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package searchengine.services;
+
+import java.util.Set;
+
+/**
+ * Шард поискового индекса: группа сайтов, поиск по которой выполняется независимо от остальных шардов.
+ * <p>
+ * Координатор ({@link SearchServiceImpl}) рассылает запрос всем шардам, собирает их лучшие страницы
+ * и объединяет выдачу. Шард может искать в этом же процессе ({@link LocalSearchShard})
+ * или обращаться к поисковому узлу со своей базой данных.
+ */
+interface SearchShard {
+
+    String getName();
+
+    /**
+     * Ищет страницы шарда, содержащие все леммы запроса.
+     * @param queryLemmas леммы запроса
+     * @param topK        сколько лучших страниц вернуть (для выдачи со смещением {@code offset} и размером
+     *                    {@code limit} достаточно {@code offset + limit})
+     * @return лучшие страницы шарда и статистика по всем найденным страницам
+     */
+    ShardResult search(Set<String> queryLemmas, int topK);
+}
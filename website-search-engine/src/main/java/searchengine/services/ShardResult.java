@@ -0,0 +1,27 @@
+package searchengine.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ответ шарда: лучшие страницы и статистика, нужная для объединения выдачи шардов.
+ * <p>
+ * Релевантность страницы зависит только от рангов ее лемм, поэтому для согласованной выдачи
+ * координатору достаточно общего количества найденных страниц и максимальной абсолютной
+ * релевантности каждого шарда: по ним выдача нормируется так же, как при поиске без шардов.
+ */
+@Getter
+@RequiredArgsConstructor
+class ShardResult {
+    /** Лучшие страницы шарда в порядке {@link ScoredPage#RANKING}. */
+    private final List<ScoredPage> topPages;
+    /** Количество всех найденных в шарде страниц. */
+    private final int found;
+    /** Максимальная абсолютная релевантность среди всех найденных в шарде страниц. */
+    private final float maxRelevance;
+    /** Леммы словаря, найденные для запроса в шарде (включая похожие), - для подсветки в сниппетах. */
+    private final Set<String> matchedLemmas;
+}
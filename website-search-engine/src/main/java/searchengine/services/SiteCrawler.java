@@ -1,51 +1,75 @@
 package searchengine.services;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import org.jsoup.HttpStatusException;
+import searchengine.component.PageFetcher;
+import searchengine.component.SearchEngineMetrics;
 import searchengine.config.CrawlerConfig;
 import searchengine.model.Page;
 import searchengine.model.Site;
 import searchengine.model.Status;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
+import searchengine.utils.AdaptiveConcurrencyLimit;
+import searchengine.utils.CancellationToken;
+import searchengine.utils.DeflatingWriter;
+import searchengine.utils.HtmlContent;
+import searchengine.utils.HtmlStreamExtractor;
+import searchengine.utils.SimHash;
 
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.net.http.HttpTimeoutException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.Supplier;
+import java.util.zip.Deflater;
 
+/**
+ * Обработка одной страницы сайта. Найденные ссылки возвращаются в {@link CrawlScheduler},
+ * который распределяет их по общему пулу обхода.
+ */
 @RequiredArgsConstructor
 @Slf4j
-public class SiteCrawler extends RecursiveAction {
+public class SiteCrawler {
 
-    private final Site site;
+    private final CrawlContext context;
     private final String url;
-    private final CrawlerConfig crawlerConfig;
-    private final PageRepository pageRepository;
-    private final SiteRepository siteRepository;
-    private final LemmaService lemmaService;
-    private final Supplier<Boolean> isIndexing;
-    private final Set<String> visitedUrls;
-
-    @Override
-    protected void compute() {
+
+    /**
+     * Загружает, сохраняет и лемматизирует страницу {@code url}.
+     * @return валидные ссылки со страницы, которые еще не посещались; пустой список, если страница
+     * уже обработана, обход остановлен или страница не загрузилась
+     */
+    List<String> crawl() {
+        context.getProgress().linkProcessed();
+        Site site = context.getSite();
+        CrawlerConfig crawlerConfig = context.getCrawlerConfig();
+        PageRepository pageRepository = context.getPageRepository();
+        SiteRepository siteRepository = context.getSiteRepository();
+        CancellationToken cancellation = context.getCancellation();
+        SearchEngineMetrics metrics = context.getMetrics();
+
         String normalizedUrl = normalizeUrl(url);
-        log.info("Начинаю обработку: {}", normalizedUrl);
+        log.debug("Начинаю обработку: {}", normalizedUrl);
 
-        if (!isIndexing.get()) {
-            log.warn("Индексация остановлена. Прерываю задачу для {}.", normalizedUrl);
-            return;
+        if (cancellation.isCancelled()) {
+            log.debug("Индексация остановлена. Пропускаю задачу для {}.", normalizedUrl);
+            return List.of();
         }
-        if (!this.visitedUrls.add(normalizedUrl)) {
-            log.warn("Уже посещено: {}. Пропускаю.", normalizedUrl);
-            return;
+        if (!context.getVisitedUrls().add(normalizedUrl)) {
+            log.debug("Уже посещено: {}. Пропускаю.", normalizedUrl);
+            return List.of();
         }
 
         try {
@@ -55,65 +79,211 @@ public class SiteCrawler extends RecursiveAction {
             long randomDelay = (minDelay >= maxDelay) ? minDelay : ThreadLocalRandom.current().nextLong(minDelay, maxDelay + 1);
 
             log.debug("Задержка перед запросом: {} мс", randomDelay);
-            Thread.sleep(randomDelay);
+            if (!cancellation.sleep(randomDelay)) {
+                return List.of();
+            }
 
             String path = new URL(url).getPath();
 
             if (pageRepository.findByPathAndSite(path, site).isPresent()) {
                 log.debug("Страница {} уже существует в базе. Пропускаем.", path);
-                return;
+                return List.of();
+            }
+            // Crawl-delay ограничивает частоту запросов ко всему хосту, а не задержку каждой задачи.
+            if (!context.getHostLimiter().awaitTurn(url, context.getRobots().getCrawlDelayMillis(), cancellation)) {
+                return List.of();
             }
 
-            Connection.Response response = Jsoup.connect(url)
-                    .userAgent(crawlerConfig.getUserAgent())
-                    .referrer(crawlerConfig.getReferrer())
-                    .timeout(crawlerConfig.getTimeout())
-                    .execute();
+            FetchedPage fetched = fetch(crawlerConfig, metrics);
+            context.getProgress().pageFetched();
+            // Ответ, полученный после остановки, не сохраняется.
+            cancellation.throwIfCancelled();
 
-            int statusCode = response.statusCode();
-            Document document = response.parse();
-            String content = document.outerHtml();
+            int statusCode = fetched.getStatusCode();
+            HtmlContent html = fetched.getHtml();
 
+            long writeStart = System.nanoTime();
             Page page = new Page();
             page.setSite(site);
             page.setPath(path.isEmpty() ? "/" : path);
             page.setCode(statusCode);
-            page.setContent(content);
+            page.setTitle(html.getTitle());
             pageRepository.save(page);
-            log.info("Сохранена страница: {} (Код: {})", normalizedUrl, statusCode);
+
+            boolean isSuccess = statusCode >= 200 && statusCode < 300;
+            SimHash simHash = isSuccess ? duplicateFingerprint(html) : null;
+            Integer canonicalPageId = simHash != null ? context.getDuplicates().find(simHash.getFingerprint()).orElse(null) : null;
+            if (canonicalPageId != null) {
+                page.setCanonicalPageId(canonicalPageId);
+                pageRepository.save(page);
+            } else {
+                context.getPageContentService().save(page, fetched.getContent());
+            }
 
             site.setStatusTime(LocalDateTime.now());
             siteRepository.save(site);
+            metrics.recordDbWrite("page", System.nanoTime() - writeStart);
+            metrics.pageSaved(site.getName());
+            log.debug("Сохранена страница: {} (Код: {})", normalizedUrl, statusCode);
 
-            if (statusCode >= 200 && statusCode < 300) {
-                lemmaService.lemmatizePage(page);
+            if (isSuccess) {
+                if (canonicalPageId == null) {
+                    // Страница становится канонической только после сохранения содержимого и передачи лемм
+                    // в буфер индекса: дубликаты не должны ссылаться на страницу без содержимого и индекса.
+                    if (context.getIndexWriteBuffer().add(page, html.getTextForLemmas()) && simHash != null) {
+                        context.getDuplicates().add(simHash.getFingerprint(), page.getId());
+                    }
+                    context.getProgress().pageIndexed();
+                } else {
+                    metrics.duplicatePage(site.getName());
+                    log.debug("Страница {} почти полностью совпадает со страницей {} и не индексируется.", normalizedUrl, canonicalPageId);
+                }
 
-                List<SiteCrawler> tasks = new ArrayList<>();
+                List<String> links = new ArrayList<>();
                 log.debug("Ищу ссылки на странице {}", normalizedUrl);
-                document.select("a[href]").stream()
-                        .map(link -> link.absUrl("href"))
+                html.getLinks()
                         .forEach(link -> {
                             if (isLinkValid(link)) {
-                                log.info("Найдена валидная ссылка: {} -> {}. Создаю подзадачу.", normalizedUrl, link);
-                                SiteCrawler task = new SiteCrawler(site, link, crawlerConfig, pageRepository, siteRepository, lemmaService, isIndexing, this.visitedUrls);
-                                tasks.add(task);
-                                task.fork();
+                                log.debug("Найдена валидная ссылка: {} -> {}.", normalizedUrl, link);
+                                links.add(link);
+                                context.getProgress().linkDiscovered();
                             }
                         });
-
-                for (SiteCrawler task : tasks) {
-                    task.join();
-                }
+                return links;
             } else {
+                context.getProgress().pageFailed();
                 log.warn("Страница {} получила код состояния {}, поэтому не будет проиндексирована и просканирована на наличие ссылок.", normalizedUrl, statusCode);
             }
 
+        } catch (CancellationException e) {
+            log.debug("Обработка {} прервана остановкой индексации.", normalizedUrl);
         } catch (Exception e) {
+            context.getProgress().pageFailed();
             log.error("Ошибка при обработке URL: {}. Ошибка: {}", url, e.getMessage());
             site.setStatus(Status.FAILED);
             site.setLastError("Ошибка при обработке URL: " + url + ". " + e.getMessage());
             siteRepository.save(site);
         }
+        return List.of();
+    }
+
+    /**
+     * Отпечаток основного текста страницы для поиска почти полных копий уже сохраненных страниц сайта
+     * (версия для печати, зеркало, другой адрес того же материала). Навигация, шапка и подвал
+     * одинаковы на всех страницах сайта и в отпечаток не входят, иначе разные короткие материалы
+     * с общим шаблоном считались бы копиями.
+     * @return отпечаток или {@code null}, если проверка выключена или основной текст слишком короткий
+     */
+    private SimHash duplicateFingerprint(HtmlContent html) {
+        CrawlerConfig.Duplicates config = context.getCrawlerConfig().getDuplicates();
+        if (!config.isEnabled()) {
+            return null;
+        }
+        SimHash simHash = SimHash.of(html.getMainText());
+        return simHash.getWordCount() < config.getMinWords() ? null : simHash;
+    }
+
+    /**
+     * Загружает страницу в пределах адаптивного лимита запросов к хосту и записывает в метрики
+     * время ответа и код состояния. Таймауты, отказы в соединении и ответы 429/503 уменьшают лимит хоста.
+     * При остановке индексации {@link PageFetcher} прерывает запрос на любом этапе, в том числе
+     * во время соединения и ожидания заголовков ответа.
+     * <p>
+     * Разметка читается из потока ответа один раз, без загрузки всего тела в память: текст и ссылки
+     * извлекаются без построения DOM, а разметка для хранения сжимается по мере чтения.
+     */
+    private FetchedPage fetch(CrawlerConfig crawlerConfig, SearchEngineMetrics metrics) throws IOException, InterruptedException {
+        CancellationToken cancellation = context.getCancellation();
+        AdaptiveConcurrencyLimit hostLimit = context.getHostLimiter().acquire(url, cancellation);
+        long start = System.nanoTime();
+        FetchedPage page = null;
+        String status = "error";
+        boolean overloaded = false;
+        try {
+            DeflatingWriter content = new DeflatingWriter(Deflater.DEFAULT_COMPRESSION);
+            try (PageFetcher.Response response = context.getPageFetcher().open(url, cancellation);
+                 content) {
+                status = String.valueOf(response.getStatusCode());
+                Reader reader = HtmlStreamExtractor.reader(response.getBody(), response.getCharset());
+                HtmlContent html = HtmlStreamExtractor.extract(new TeeReader(reader, content), response.getUrl());
+                page = new FetchedPage(response.getStatusCode(), response.getUrl(), html, content);
+            }
+            return page;
+        } catch (IOException e) {
+            if (cancellation.isCancelled()) {
+                throw new CancellationException("Загрузка " + url + " прервана остановкой индексации");
+            }
+            if (e instanceof HttpStatusException statusException) {
+                status = String.valueOf(statusException.getStatusCode());
+            }
+            overloaded = isOverload(e);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (page != null) {
+                hostLimit.onSuccess(start, elapsed);
+            } else if (overloaded) {
+                hostLimit.onOverload(start);
+            } else {
+                hostLimit.onIgnore();
+            }
+            metrics.recordFetch(url, status, elapsed);
+        }
+    }
+
+    /**
+     * Признак перегрузки хоста: таймаут, отказ в соединении или ответ 429/503. Остальные ошибки
+     * (404, неподдерживаемый тип содержимого, неверный адрес) относятся к странице, а не к хосту,
+     * и лимит хоста не уменьшают.
+     */
+    static boolean isOverload(IOException e) {
+        if (e instanceof HttpStatusException statusException) {
+            int statusCode = statusException.getStatusCode();
+            return statusCode == 429 || statusCode == 503;
+        }
+        return e instanceof SocketTimeoutException || e instanceof HttpTimeoutException || e instanceof ConnectException;
+    }
+
+    /**
+     * Ответ сайта: код состояния, итоговый адрес после перенаправлений, извлеченное содержимое
+     * и сжатая разметка тела, не больше {@code crawler.max-body-size}.
+     */
+    @Value
+    private static class FetchedPage {
+        int statusCode;
+        String url;
+        HtmlContent html;
+        DeflatingWriter content;
+    }
+
+    /**
+     * Передает прочитанные символы дальше и одновременно копирует их в {@code copy}.
+     */
+    private static final class TeeReader extends FilterReader {
+        private final Writer copy;
+
+        TeeReader(Reader in, Writer copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                copy.write(c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                copy.write(buffer, offset, count);
+            }
+            return count;
+        }
     }
 
     private boolean isLinkValid(String link) {
@@ -130,16 +300,21 @@ public class SiteCrawler extends RecursiveAction {
             return false;
         }
 
+        if (!context.getRobots().isUrlAllowed(link)) {
+            log.debug("Ссылка {} отброшена: запрещена в robots.txt.", link);
+            return false;
+        }
+
         // Использование полностью нормализованной ссылки для остальных проверок
         String normalizedLink = normalizeUrl(link);
 
-        String normalizedSiteUrl = normalizeUrl(site.getUrl());
+        String normalizedSiteUrl = normalizeUrl(context.getSite().getUrl());
         if (!normalizedLink.startsWith(normalizedSiteUrl)) {
             log.debug("Ссылка {} (нормализованная: {}) отброшена: не принадлежит текущему сайту (нормализованный: {}).", link, normalizedLink, normalizedSiteUrl);
             return false;
         }
 
-        if (this.visitedUrls.contains(normalizedLink)) {
+        if (context.getVisitedUrls().contains(normalizedLink)) {
             log.debug("Ссылка {} (нормализованная: {}) отброшена: уже посещена.", link, normalizedLink);
             return false;
         }
@@ -147,7 +322,7 @@ public class SiteCrawler extends RecursiveAction {
         return true;
     }
 
-    private String normalizeUrl(String urlToNormalize) {
+    static String normalizeUrl(String urlToNormalize) {
         if (urlToNormalize == null || urlToNormalize.isEmpty()) {
             return urlToNormalize;
         }
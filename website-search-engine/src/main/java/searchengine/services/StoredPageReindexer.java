@@ -0,0 +1,355 @@
+package searchengine.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import searchengine.component.LemmaIdCache;
+import searchengine.config.IndexConfig;
+import searchengine.repository.BulkInsertRepository;
+import searchengine.repository.SiteRepository;
+import searchengine.utils.DeflateCodec;
+import searchengine.utils.HtmlStreamExtractor;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Перестраивает таблицы {@code lemma} и {@code index} из сохраненных страниц без повторного обхода сайтов,
+ * например после изменения правил лемматизации.
+ * <p>
+ * Страницы читаются одним потоком через курсор на стороне сервера (в MySQL - потоковым чтением)
+ * и лемматизируются параллельно. Леммы и строки индекса записываются многострочными INSERT в новые
+ * таблицы без ограничений; ограничения добавляются после загрузки, после чего новые таблицы подменяют
+ * старые переименованием. До подмены поиск работает по старым таблицам.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class StoredPageReindexer {
+
+    private static final String LEMMA_STAGING = "lemma_staging";
+    private static final String INDEX_STAGING = "index_staging";
+    private static final String LEMMA_OLD = "lemma_old";
+    private static final String INDEX_OLD = "index_old";
+    private static final long QUEUE_POLL_MILLIS = 100;
+    private static final long WORKERS_STOP_SECONDS = 60;
+
+    /** Признак конца очереди страниц для потоков лемматизации. */
+    private static final StoredPage END_OF_PAGES = new StoredPage(0, 0, "", 0, new byte[0]);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LemmaService lemmaService;
+    private final LemmaDictionaryService lemmaDictionaryService;
+    private final LemmaIdCache lemmaIdCache;
+    private final SiteRepository siteRepository;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final IndexConfig indexConfig;
+
+    /**
+     * Перестраивает леммы и индекс всех сайтов.
+     * @param isActive возвращает false, если перестройку нужно прервать
+     * @return true, если новые таблицы подменили старые; false, если перестройка прервана
+     */
+    boolean reindex(BooleanSupplier isActive) {
+        long start = System.nanoTime();
+        boolean mysql = isMySql();
+        dropTables(INDEX_STAGING, LEMMA_STAGING, INDEX_OLD, LEMMA_OLD);
+        createStagingTables();
+
+        LemmaTable lemmas = new LemmaTable();
+        AtomicLong pages = new AtomicLong();
+        AtomicLong indexRows = new AtomicLong();
+        try {
+            loadIndex(lemmas, pages, indexRows, isActive, mysql);
+            if (!isActive.getAsBoolean()) {
+                log.warn("Перестройка индекса прервана, старые леммы и индекс сохранены.");
+                dropTables(INDEX_STAGING, LEMMA_STAGING);
+                return false;
+            }
+            int lemmaCount = writeLemmas(lemmas);
+            addConstraints();
+            swapTables(mysql);
+            dropTables(INDEX_OLD, LEMMA_OLD);
+            siteRepository.findAll().forEach(site -> lemmaDictionaryService.evict(site.getId()));
+            lemmaIdCache.clear();
+            lemmas.bySite.forEach((siteId, counters) -> {
+                Map<String, Integer> ids = new HashMap<>(counters.size() * 2);
+                counters.forEach((lemma, counter) -> ids.put(lemma, counter.id));
+                lemmaIdCache.putAll(siteId, ids);
+            });
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            log.info("Индекс перестроен из сохраненных страниц: страниц {}, лемм {}, строк индекса {} за {} с ({} страниц/с).",
+                    pages.get(), lemmaCount, indexRows.get(), String.format("%.1f", seconds), Math.round(pages.get() / seconds));
+            return true;
+        } catch (RuntimeException e) {
+            dropTables(INDEX_STAGING, LEMMA_STAGING);
+            throw e;
+        }
+    }
+
+    /**
+     * Читает страницы и передает их потокам лемматизации, которые пишут строки индекса в {@code index_staging}.
+     * Если перестройка остановлена, возвращается после остановки потоков лемматизации.
+     */
+    private void loadIndex(LemmaTable lemmas, AtomicLong pages, AtomicLong indexRows, BooleanSupplier isActive, boolean mysql) {
+        IndexConfig.Reindex config = indexConfig.getReindex();
+        int threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<StoredPage> queue = new ArrayBlockingQueue<>(threads * 16);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Reindex-Worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            futures.add(workers.submit(() -> {
+                lemmatizePages(queue, lemmas, pages, indexRows);
+                return null;
+            }));
+        }
+
+        try {
+            readPages(queue, futures, isActive, mysql);
+            for (int i = 0; i < threads; i++) {
+                enqueue(queue, END_OF_PAGES, futures, () -> true);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (CancellationException e) {
+            log.debug("Чтение страниц для перестройки индекса остановлено.");
+            for (Future<?> future : futures) {
+                rethrowFailure(future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Перестройка индекса прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка лемматизации страницы: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            workers.shutdownNow();
+            awaitTermination(workers);
+        }
+    }
+
+    /**
+     * Ждет остановки потоков лемматизации, чтобы после возврата из перестройки они не писали
+     * в промежуточные таблицы: их удаляет эта перестройка при отмене или следующая при запуске.
+     */
+    private void awaitTermination(ExecutorService workers) {
+        try {
+            if (!workers.awaitTermination(WORKERS_STOP_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Потоки лемматизации не остановились за {} с.", WORKERS_STOP_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Читает успешно загруженные страницы, кроме дубликатов, которые при обходе не лемматизируются.
+     */
+    private void readPages(BlockingQueue<StoredPage> queue, List<Future<?>> workers, BooleanSupplier isActive, boolean mysql) {
+        JdbcTemplate reader = new JdbcTemplate(jdbcTemplate.getDataSource());
+        // MySQL Connector/J читает результат потоком только с размером выборки Integer.MIN_VALUE.
+        reader.setFetchSize(mysql ? Integer.MIN_VALUE : indexConfig.getReindex().getFetchSize());
+        reader.query("SELECT p.id, p.site_id, s.url, p.path, c.original_size, c.data FROM page p " +
+                        "JOIN site s ON s.id = p.site_id JOIN page_content c ON c.page_id = p.id " +
+                        "WHERE p.code < 400 AND p.canonical_page_id IS NULL",
+                resultSet -> {
+                    StoredPage page = new StoredPage(resultSet.getInt(1), resultSet.getInt(2),
+                            resultSet.getString(3) + resultSet.getString(4), resultSet.getInt(5), resultSet.getBytes(6));
+                    enqueue(queue, page, workers, isActive);
+                });
+    }
+
+    /**
+     * Кладет страницу в очередь, пока потоки лемматизации работают и перестройка не остановлена.
+     * @throws CancellationException если перестройка остановлена или поток лемматизации завершился с ошибкой
+     */
+    private void enqueue(BlockingQueue<StoredPage> queue, StoredPage page, List<Future<?>> workers, BooleanSupplier isActive) {
+        try {
+            while (!queue.offer(page, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!isActive.getAsBoolean() || workers.stream().anyMatch(Future::isDone)) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        if (!isActive.getAsBoolean()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Если поток лемматизации завершился с ошибкой, перестройка завершается этой ошибкой.
+     */
+    private void rethrowFailure(Future<?> future) {
+        if (!future.isDone()) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка лемматизации страницы: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException | CancellationException e) {
+            // Поток остановлен вместе с перестройкой.
+        }
+    }
+
+    private void lemmatizePages(BlockingQueue<StoredPage> queue, LemmaTable lemmas, AtomicLong pages, AtomicLong indexRows)
+            throws InterruptedException, IOException {
+        int batchSize = indexConfig.getInsertBatchSize();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (StoredPage page = queue.take(); page != END_OF_PAGES; page = queue.take()) {
+            String content = new String(DeflateCodec.decompress(page.data, page.originalSize), StandardCharsets.UTF_8);
+            String text = HtmlStreamExtractor.extract(new StringReader(content), page.url).getTextForLemmas();
+            int pageId = page.id;
+            int siteId = page.siteId;
+            lemmaService.collectLemmas(text).forEach((lemma, count) -> {
+                rows.add(new Object[]{pageId, lemmas.register(siteId, lemma), (float) count});
+                if (rows.size() == batchSize) {
+                    bulkInsertRepository.insertRows(INDEX_STAGING, "page_id, lemma_id, `rank`", rows, batchSize);
+                    indexRows.addAndGet(rows.size());
+                    rows.clear();
+                }
+            });
+            pages.incrementAndGet();
+        }
+        bulkInsertRepository.insertRows(INDEX_STAGING, "page_id, lemma_id, `rank`", rows, batchSize);
+        indexRows.addAndGet(rows.size());
+    }
+
+    private int writeLemmas(LemmaTable lemmas) {
+        int batchSize = indexConfig.getInsertBatchSize();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        int count = 0;
+        for (Map.Entry<Integer, Map<String, LemmaCounter>> site : lemmas.bySite.entrySet()) {
+            for (Map.Entry<String, LemmaCounter> lemma : site.getValue().entrySet()) {
+                rows.add(new Object[]{lemma.getValue().id, site.getKey(), lemma.getKey(), lemma.getValue().frequency.get()});
+                if (rows.size() == batchSize) {
+                    bulkInsertRepository.insertRows(LEMMA_STAGING, "id, site_id, lemma, frequency", rows, batchSize);
+                    count += rows.size();
+                    rows.clear();
+                }
+            }
+        }
+        bulkInsertRepository.insertRows(LEMMA_STAGING, "id, site_id, lemma, frequency", rows, batchSize);
+        return count + rows.size();
+    }
+
+    private void createStagingTables() {
+        jdbcTemplate.execute("CREATE TABLE " + LEMMA_STAGING + " (" +
+                "id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "site_id INT NOT NULL, " +
+                "lemma VARCHAR(255) NOT NULL, " +
+                "frequency INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE " + INDEX_STAGING + " (" +
+                "id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "page_id INT NOT NULL, " +
+                "lemma_id INT NOT NULL, " +
+                "`rank` FLOAT NOT NULL)");
+    }
+
+    /**
+     * Добавляет ключи и уникальность после загрузки: так каждая строка не проверяется при вставке.
+     * Имена ограничений не задаются, чтобы они не совпали с ограничениями текущих таблиц.
+     */
+    private void addConstraints() {
+        jdbcTemplate.execute("ALTER TABLE " + LEMMA_STAGING + " ADD UNIQUE (site_id, lemma)");
+        jdbcTemplate.execute("ALTER TABLE " + LEMMA_STAGING + " ADD FOREIGN KEY (site_id) REFERENCES site (id) ON DELETE CASCADE");
+        jdbcTemplate.execute("ALTER TABLE " + INDEX_STAGING + " ADD FOREIGN KEY (page_id) REFERENCES page (id) ON DELETE CASCADE");
+        jdbcTemplate.execute("ALTER TABLE " + INDEX_STAGING + " ADD FOREIGN KEY (lemma_id) REFERENCES " + LEMMA_STAGING + " (id) ON DELETE CASCADE");
+    }
+
+    /**
+     * Подменяет таблицы. В MySQL все переименования выполняются одним атомарным RENAME TABLE;
+     * в других базах данных (H2 в тестах) - последовательно.
+     */
+    private void swapTables(boolean mysql) {
+        if (mysql) {
+            jdbcTemplate.execute("RENAME TABLE lemma TO " + LEMMA_OLD + ", " + LEMMA_STAGING + " TO lemma, " +
+                    "`index` TO " + INDEX_OLD + ", " + INDEX_STAGING + " TO `index`");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE lemma RENAME TO " + LEMMA_OLD);
+            jdbcTemplate.execute("ALTER TABLE " + LEMMA_STAGING + " RENAME TO lemma");
+            jdbcTemplate.execute("ALTER TABLE `index` RENAME TO " + INDEX_OLD);
+            jdbcTemplate.execute("ALTER TABLE " + INDEX_STAGING + " RENAME TO `index`");
+        }
+    }
+
+    private void dropTables(String... tables) {
+        for (String table : tables) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+
+    /**
+     * Сохраненная страница: ID, сайт, адрес (для разбора ссылок) и сжатое содержимое.
+     */
+    @RequiredArgsConstructor
+    private static class StoredPage {
+        private final int id;
+        private final int siteId;
+        private final String url;
+        private final int originalSize;
+        private final byte[] data;
+    }
+
+    /**
+     * Новые леммы всех сайтов. ID лемм назначаются при первом появлении леммы, поэтому строки индекса
+     * записываются сразу, без чтения ID из базы данных.
+     */
+    private static class LemmaTable {
+        private final Map<Integer, Map<String, LemmaCounter>> bySite = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        /**
+         * Учитывает лемму страницы и возвращает ее ID.
+         */
+        int register(int siteId, String lemma) {
+            LemmaCounter counter = bySite.computeIfAbsent(siteId, id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(lemma, key -> new LemmaCounter(nextId.incrementAndGet()));
+            counter.frequency.incrementAndGet();
+            return counter.id;
+        }
+    }
+
+    /**
+     * ID леммы и количество страниц, на которых она встречается.
+     */
+    @RequiredArgsConstructor
+    private static class LemmaCounter {
+        private final int id;
+        private final AtomicInteger frequency = new AtomicInteger();
+    }
+}
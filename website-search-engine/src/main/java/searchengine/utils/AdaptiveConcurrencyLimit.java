@@ -0,0 +1,143 @@
+package searchengine.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Адаптивный лимит параллельных запросов к одному хосту по схеме AIMD
+ * (additive increase, multiplicative decrease).
+ * <p>
+ * Пока задержка ответа держится около базовой, лимит растет примерно на единицу за каждые
+ * {@code limit} успешных запросов, выполненных при полной загрузке. При перегрузке хоста
+ * (ответы 429/503, таймауты и отказы в соединении, рост задержки больше чем в {@code latencyTolerance} раз от базовой)
+ * лимит умножается на {@code backoffRatio}. Уменьшение выполняется не чаще одного раза на
+ * "поколение" запросов: ошибки запросов, начатых до последнего уменьшения, его не повторяют.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double BASELINE_WEIGHT = 0.1;
+    private static final double SLOW_BASELINE_WEIGHT = 0.02;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private int inFlight;
+    private double baselineLatencyNanos;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Некорректные границы лимита: " + minLimit + ".." + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Коэффициент уменьшения лимита должен быть в интервале (0, 1): " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Занимает слот, если текущий лимит это позволяет.
+     * @return {@code true}, если слот занят
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight < getLimit()) {
+            inFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ожидает освобождения слота и занимает его.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Ожидает освобождения слота не дольше заданного времени.
+     * @return {@code true}, если слот занят
+     */
+    public synchronized boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight >= getLimit()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Освобождает слот после успешного ответа и корректирует лимит по задержке.
+     * @param startNanos   момент начала запроса ({@link System#nanoTime()})
+     * @param latencyNanos время ответа
+     */
+    public synchronized void onSuccess(long startNanos, long latencyNanos) {
+        boolean saturated = inFlight >= getLimit();
+        release();
+        if (baselineLatencyNanos == 0) {
+            baselineLatencyNanos = latencyNanos;
+            return;
+        }
+        if (latencyNanos > baselineLatencyNanos * latencyTolerance) {
+            baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * SLOW_BASELINE_WEIGHT;
+            decrease(startNanos);
+            return;
+        }
+        baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * BASELINE_WEIGHT;
+        if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Освобождает слот после признака перегрузки хоста и уменьшает лимит.
+     * @param startNanos момент начала запроса ({@link System#nanoTime()})
+     */
+    public synchronized void onOverload(long startNanos) {
+        release();
+        decrease(startNanos);
+    }
+
+    /**
+     * Освобождает слот без изменения лимита (например, ответ 404 ничего не говорит о нагрузке).
+     */
+    public synchronized void onIgnore() {
+        release();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void decrease(long startNanos) {
+        if (startNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = System.nanoTime();
+    }
+
+    private void release() {
+        inFlight--;
+        notifyAll();
+    }
+}
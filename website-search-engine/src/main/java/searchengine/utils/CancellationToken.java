@@ -0,0 +1,73 @@
+package searchengine.utils;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Признак отмены длительной операции, общий для всех ее задач. Задачи проверяют признак между шагами,
+ * ожидают через {@link #sleep}, которое прерывается отменой, а блокирующие операции (чтение ответа сайта)
+ * регистрируют обработчик {@link #onCancel}, который прерывает их при отмене.
+ */
+public final class CancellationToken {
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final Queue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Отменяет операцию и вызывает зарегистрированные обработчики. Повторный вызов ничего не делает.
+     */
+    public void cancel() {
+        if (isCancelled()) {
+            return;
+        }
+        cancelled.countDown();
+        for (Runnable callback = callbacks.poll(); callback != null; callback = callbacks.poll()) {
+            callback.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    /**
+     * @throws CancellationException если операция отменена
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Операция отменена");
+        }
+    }
+
+    /**
+     * Ожидает заданное время или до отмены операции.
+     * @return {@code true}, если время истекло без отмены
+     */
+    public boolean sleep(long millis) throws InterruptedException {
+        if (millis <= 0) {
+            return !isCancelled();
+        }
+        return !cancelled.await(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Регистрирует обработчик отмены. Если операция уже отменена, обработчик вызывается сразу.
+     * @return регистрация, которую нужно закрыть, когда обработчик больше не нужен
+     */
+    public Registration onCancel(Runnable callback) {
+        callbacks.add(callback);
+        if (isCancelled() && callbacks.remove(callback)) {
+            callback.run();
+        }
+        return () -> callbacks.remove(callback);
+    }
+
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,57 @@
+package searchengine.utils;
+
+import org.springframework.util.ConcurrentLruCache;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Ограниченный потокобезопасный LRU-кэш со счетчиками попаданий и промахов.
+ * Значение отсутствующего ключа вычисляется функцией, переданной в конструктор;
+ * при одновременных промахах по одному ключу функция может быть вызвана несколько раз.
+ * Емкость 0 отключает кэширование: значение вычисляется при каждом обращении.
+ * @param <K> тип ключа
+ * @param <V> тип значения; {@code null} не поддерживается
+ */
+public final class CountingLruCache<K, V> {
+
+    private final ConcurrentLruCache<K, V> cache;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CountingLruCache(int capacity, Function<K, V> generator) {
+        this.cache = new ConcurrentLruCache<>(capacity, key -> {
+            misses.increment();
+            return generator.apply(key);
+        });
+    }
+
+    public V get(K key) {
+        V value = cache.get(key);
+        requests.increment();
+        return value;
+    }
+
+    /**
+     * @return количество обращений, для которых значение найдено в кэше
+     */
+    public long hitCount() {
+        return Math.max(0, requests.sum() - misses.sum());
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public int capacity() {
+        return cache.capacity();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,63 @@
+package searchengine.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Сжатие содержимого страниц алгоритмом deflate. HTML обычно сжимается в 4-8 раз.
+ */
+public final class DeflateCodec {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private DeflateCodec() {
+    }
+
+    public static byte[] compress(byte[] data, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Распаковывает данные.
+     * @param data         сжатые данные
+     * @param originalSize размер исходных данных
+     */
+    public static byte[] decompress(byte[] data, int originalSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[originalSize];
+            int offset = 0;
+            while (offset < originalSize && !inflater.finished()) {
+                int length = inflater.inflate(result, offset, originalSize - offset);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += length;
+            }
+            if (offset != originalSize) {
+                throw new IllegalStateException("Размер распакованных данных " + offset + " не совпадает с ожидаемым " + originalSize);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Поврежденные сжатые данные: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
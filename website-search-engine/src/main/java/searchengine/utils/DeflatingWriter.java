@@ -0,0 +1,109 @@
+package searchengine.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Сжимает текст в формате {@link DeflateCodec} по мере записи: в памяти хранятся только сжатые байты.
+ * Текст кодируется в UTF-8, как при {@link DeflateCodec#compress}.
+ */
+public final class DeflatingWriter extends Writer {
+
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final Deflater deflater;
+    private final CountingStream counting;
+    private final Writer writer;
+    private long compressNanos;
+    private boolean closed;
+
+    public DeflatingWriter(int level) {
+        this.deflater = new Deflater(level);
+        this.counting = new CountingStream(new DeflaterOutputStream(compressed, deflater));
+        this.writer = new OutputStreamWriter(counting, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        writer.write(buffer, offset, length);
+        compressNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Завершает сжатие. После закрытия доступны {@link #toByteArray()} и {@link #getOriginalSize()}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long start = System.nanoTime();
+        try {
+            writer.close();
+        } finally {
+            deflater.end();
+            compressNanos += System.nanoTime() - start;
+        }
+    }
+
+    public byte[] toByteArray() {
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return размер исходного текста в UTF-8
+     */
+    public int getOriginalSize() {
+        return (int) counting.count;
+    }
+
+    /**
+     * @return время, затраченное на кодирование и сжатие
+     */
+    public long getCompressNanos() {
+        return compressNanos;
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package searchengine.utils;
+
+/**
+ * Расстояние редактирования между строками.
+ */
+public final class EditDistance {
+
+    private EditDistance() {
+    }
+
+    /**
+     * Вычисляет расстояние Дамерау-Левенштейна (вариант с ограниченной транспозицией соседних символов).
+     * Вычисление прекращается досрочно, если расстояние заведомо превышает порог.
+     * @param a           первая строка
+     * @param b           вторая строка
+     * @param maxDistance порог расстояния
+     * @return расстояние или {@code maxDistance + 1}, если оно больше порога
+     */
+    public static int damerauLevenshtein(String a, String b, int maxDistance) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previousPrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] rotated = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = rotated;
+        }
+        return Math.min(previous[m], maxDistance + 1);
+    }
+}
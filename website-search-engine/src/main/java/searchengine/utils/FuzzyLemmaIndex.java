@@ -0,0 +1,157 @@
+package searchengine.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Индекс удалений в стиле SymSpell для поиска лемм словаря на расстоянии редактирования 1-2.
+ * <p>
+ * Для каждой леммы заранее строятся все варианты ее префикса длины {@value #PREFIX_LENGTH}
+ * с удаленными символами (не более {@code maxEditDistance}). Запрос порождает такие же удаления,
+ * и кандидатами считаются леммы, у которых есть общее удаление. Кандидаты проверяются точным
+ * расстоянием Дамерау-Левенштейна. Время поиска не зависит от размера словаря.
+ * <p>
+ * Для экономии памяти удаления хранятся не строками, а в отсортированном массиве long:
+ * старшие 32 бита - хэш удаления, младшие - порядковый номер леммы в словаре.
+ * Коллизии хэшей отсекаются проверкой расстояния.
+ */
+public final class FuzzyLemmaIndex {
+
+    private static final int PREFIX_LENGTH = 7;
+
+    private final LemmaDictionary dictionary;
+    private final int maxEditDistance;
+    private final long[] deletes;
+
+    private FuzzyLemmaIndex(LemmaDictionary dictionary, int maxEditDistance, long[] deletes) {
+        this.dictionary = dictionary;
+        this.maxEditDistance = maxEditDistance;
+        this.deletes = deletes;
+    }
+
+    /**
+     * Строит индекс удалений для словаря.
+     * @param dictionary      словарь лемм
+     * @param maxEditDistance максимальное расстояние редактирования, которое будет поддерживать индекс
+     * @return индекс
+     */
+    public static FuzzyLemmaIndex build(LemmaDictionary dictionary, int maxEditDistance) {
+        DeleteBuffer buffer = new DeleteBuffer(Math.max(16, dictionary.size() * 8));
+        Set<String> termDeletes = new HashSet<>();
+
+        for (int ordinal = 0; ordinal < dictionary.size(); ordinal++) {
+            termDeletes.clear();
+            collectDeletes(prefix(dictionary.lemmaAt(ordinal)), maxEditDistance, termDeletes);
+            for (String delete : termDeletes) {
+                buffer.add(key(delete.hashCode(), ordinal));
+            }
+        }
+        return new FuzzyLemmaIndex(dictionary, maxEditDistance, buffer.toSortedArray());
+    }
+
+    public LemmaDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    /**
+     * Находит леммы словаря, отличающиеся от слова не более чем на {@code maxDistance} правок.
+     * Само слово в результат не включается.
+     * @param word        слово (лемма запроса)
+     * @param maxDistance максимальное расстояние, не больше заданного при построении
+     * @param limit       максимальное количество результатов
+     * @return найденные леммы, отсортированные по расстоянию и убыванию частоты
+     */
+    public List<FuzzyMatch> lookup(String word, int maxDistance, int limit) {
+        int distanceLimit = Math.min(maxDistance, maxEditDistance);
+        if (distanceLimit <= 0 || limit <= 0) {
+            return List.of();
+        }
+
+        Set<String> queryDeletes = new HashSet<>();
+        collectDeletes(prefix(word), distanceLimit, queryDeletes);
+
+        Set<Integer> checked = new HashSet<>();
+        List<FuzzyMatch> matches = new ArrayList<>();
+        for (String delete : queryDeletes) {
+            int hash = delete.hashCode();
+            for (int i = lowerBound(key(hash, 0)); i < deletes.length && (int) (deletes[i] >>> 32) == hash; i++) {
+                int ordinal = (int) deletes[i];
+                if (!checked.add(ordinal)) {
+                    continue;
+                }
+                String candidate = dictionary.lemmaAt(ordinal);
+                if (Math.abs(candidate.length() - word.length()) > distanceLimit || candidate.equals(word)) {
+                    continue;
+                }
+                int distance = EditDistance.damerauLevenshtein(word, candidate, distanceLimit);
+                if (distance <= distanceLimit) {
+                    matches.add(new FuzzyMatch(dictionary.entryAt(ordinal), distance));
+                }
+            }
+        }
+
+        matches.sort(FuzzyMatch.BEST_FIRST);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private int lowerBound(long key) {
+        int index = Arrays.binarySearch(deletes, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && deletes[index - 1] == key) {
+            index--;
+        }
+        return index;
+    }
+
+    private static long key(int hash, int ordinal) {
+        return ((long) hash << 32) | (ordinal & 0xFFFFFFFFL);
+    }
+
+    private static String prefix(String word) {
+        return word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+    }
+
+    private static void collectDeletes(String word, int distance, Set<String> result) {
+        result.add(word);
+        if (distance == 0 || word.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String delete = word.substring(0, i) + word.substring(i + 1);
+            if (result.add(delete)) {
+                collectDeletes(delete, distance - 1, result);
+            }
+        }
+    }
+
+    private static final class DeleteBuffer {
+        private long[] values;
+        private int size;
+
+        DeleteBuffer(int capacity) {
+            this.values = new long[capacity];
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package searchengine.utils;
+
+import lombok.Value;
+
+import java.util.Comparator;
+
+/**
+ * Похожая лемма словаря и расстояние редактирования до слова запроса.
+ */
+@Value
+public class FuzzyMatch {
+    public static final Comparator<FuzzyMatch> BEST_FIRST = Comparator.comparingInt(FuzzyMatch::getDistance)
+            .thenComparing(match -> match.getEntry().getFrequency(), Comparator.reverseOrder())
+            .thenComparing(match -> match.getEntry().getLemma());
+
+    LemmaEntry entry;
+    int distance;
+}
@@ -0,0 +1,25 @@
+package searchengine.utils;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Содержимое HTML-страницы, извлеченное {@link HtmlStreamExtractor}: заголовок,
+ * видимый текст, основной текст без навигации, шапки, подвала и боковых блоков
+ * и абсолютные адреса ссылок.
+ */
+@Value
+public class HtmlContent {
+    String title;
+    String text;
+    String mainText;
+    List<String> links;
+
+    /**
+     * Текст для лемматизации: заголовок и видимый текст страницы.
+     */
+    public String getTextForLemmas() {
+        return title + " " + text;
+    }
+}
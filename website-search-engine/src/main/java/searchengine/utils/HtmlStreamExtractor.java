@@ -0,0 +1,422 @@
+package searchengine.utils;
+
+import org.jsoup.parser.Parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Потоковое извлечение заголовка, видимого текста и ссылок из HTML за один проход без построения DOM.
+ * <p>
+ * Токенизатор читает символы из {@link Reader}, пропускает комментарии и содержимое
+ * {@code script}, {@code style}, {@code template}, {@code noscript}, текст из {@code <head>}
+ * в видимый текст не попадает. Блочные теги разделяют слова пробелом, пробелы схлопываются,
+ * HTML-сущности декодируются. Результат совпадает с {@code doc.title()} и {@code doc.body().text()}
+ * Jsoup для обычных страниц, но память занимают только строки результата: содержимое пропускаемых
+ * элементов не накапливается, а документ можно читать прямо из потока ответа через {@link #reader}.
+ * <p>
+ * Отдельно собирается основной текст страницы - видимый текст без {@code nav}, {@code header},
+ * {@code footer} и {@code aside}. Шаблонные блоки одинаковы на всех страницах сайта, поэтому
+ * при сравнении страниц учитывается только основной текст.
+ */
+public final class HtmlStreamExtractor {
+
+    private static final Set<String> SKIPPED_ELEMENTS = Set.of("script", "style", "template", "noscript");
+    private static final Set<String> BOILERPLATE_ELEMENTS = Set.of("nav", "header", "footer", "aside");
+    private static final Set<String> INLINE_ELEMENTS = Set.of("a", "abbr", "b", "bdi", "bdo", "cite", "code", "data",
+            "dfn", "em", "font", "i", "kbd", "label", "mark", "q", "s", "samp", "small", "span", "strong", "sub",
+            "sup", "time", "u", "var", "wbr");
+    private static final Pattern HREF_PATTERN = Pattern.compile(
+            "(?:^|\\s)href\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))", Pattern.CASE_INSENSITIVE);
+    private static final Pattern META_CHARSET_PATTERN = Pattern.compile(
+            "<meta[^>]+charset\\s*=\\s*[\"']?\\s*([a-zA-Z0-9_\\-:.]+)", Pattern.CASE_INSENSITIVE);
+    /** Сколько первых байт документа просматривается в поисках {@code <meta charset>}. */
+    private static final int CHARSET_SNIFF_LIMIT = 1024;
+    /** Максимальная длина тега с атрибутами, которая разбирается; остаток пропускается. */
+    private static final int MAX_TAG_LENGTH = 8192;
+    /** Максимальная длина заголовка страницы; остаток пропускается. */
+    private static final int MAX_TITLE_LENGTH = 8192;
+
+    private HtmlStreamExtractor() {
+    }
+
+    /**
+     * Извлекает содержимое страницы.
+     * @param input   HTML-документ
+     * @param baseUrl адрес страницы для разрешения относительных ссылок
+     * @return заголовок, видимый и основной текст и абсолютные адреса ссылок {@code <a href>}
+     */
+    public static HtmlContent extract(Reader input, String baseUrl) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input), baseUrl);
+        tokenizer.run();
+        return new HtmlContent(tokenizer.title == null ? "" : tokenizer.title, tokenizer.text.toString(),
+                tokenizer.mainText.toString(), tokenizer.links);
+    }
+
+    /**
+     * Открывает поток документа для чтения символов без загрузки всего документа в память.
+     * Кодировка определяется по {@link #detectCharset} из первых байт потока.
+     * @param input           поток документа
+     * @param declaredCharset кодировка из заголовка ответа или {@code null}
+     */
+    public static Reader reader(InputStream input, String declaredCharset) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(CHARSET_SNIFF_LIMIT);
+        byte[] head = buffered.readNBytes(CHARSET_SNIFF_LIMIT);
+        buffered.reset();
+        return new InputStreamReader(buffered, detectCharset(head, declaredCharset));
+    }
+
+    /**
+     * Определяет кодировку документа: из заголовка Content-Type, затем из {@code <meta charset>}
+     * в начале документа, по умолчанию UTF-8.
+     * @param bytes           содержимое документа
+     * @param declaredCharset кодировка из заголовка ответа или {@code null}
+     */
+    public static Charset detectCharset(byte[] bytes, String declaredCharset) {
+        Charset charset = charsetForName(declaredCharset);
+        if (charset != null) {
+            return charset;
+        }
+        String head = new String(bytes, 0, Math.min(bytes.length, CHARSET_SNIFF_LIMIT), StandardCharsets.ISO_8859_1);
+        Matcher matcher = META_CHARSET_PATTERN.matcher(head);
+        if (matcher.find()) {
+            charset = charsetForName(matcher.group(1));
+        }
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    private static Charset charsetForName(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return null;
+        }
+    }
+
+    private static final class Tokenizer {
+        private final BufferedReader in;
+        private URL base;
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder mainText = new StringBuilder();
+        private final StringBuilder pendingText = new StringBuilder();
+        private final List<String> links = new ArrayList<>();
+        private String title;
+        private boolean inHead;
+        private boolean pendingSpace;
+        private boolean pendingMainSpace;
+        /** Глубина вложенности шаблонных блоков; текст внутри них в основной текст не попадает. */
+        private int boilerplateDepth;
+        private boolean baseOverridden;
+
+        Tokenizer(BufferedReader in, String baseUrl) {
+            this.in = in;
+            try {
+                this.base = new URL(baseUrl);
+            } catch (MalformedURLException e) {
+                this.base = null;
+            }
+        }
+
+        void run() throws IOException {
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '<') {
+                    flushText();
+                    readMarkup();
+                } else {
+                    pendingText.append((char) c);
+                }
+            }
+            flushText();
+        }
+
+        private void readMarkup() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                pendingText.append('<');
+            } else if (c == '!') {
+                in.mark(2);
+                if (in.read() == '-' && in.read() == '-') {
+                    skipPast("-->");
+                } else {
+                    in.reset();
+                    skipPast(">");
+                }
+            } else if (c == '?') {
+                skipPast(">");
+            } else if (c == '/') {
+                int first = in.read();
+                if (first == '>') {
+                    return;
+                }
+                if (first != -1 && Character.isLetter(first)) {
+                    handleEndTag(readTagName(first));
+                }
+                skipTagRest();
+            } else if (Character.isLetter(c)) {
+                String name = readTagName(c);
+                String attributes = readTagRest();
+                handleStartTag(name, attributes);
+            } else {
+                pendingText.append('<').append((char) c);
+            }
+        }
+
+        private void handleStartTag(String name, String attributes) throws IOException {
+            switch (name) {
+                case "head" -> inHead = true;
+                case "body" -> inHead = false;
+                case "title" -> {
+                    String rawTitle = readRawText(name, MAX_TITLE_LENGTH);
+                    if (title == null) {
+                        title = collapseWhitespace(unescape(rawTitle, false));
+                    }
+                    return;
+                }
+                case "a" -> {
+                    String link = resolve(attributeHref(attributes));
+                    if (!link.isEmpty()) {
+                        links.add(link);
+                    }
+                }
+                case "base" -> {
+                    String href = resolve(attributeHref(attributes));
+                    if (!baseOverridden && !href.isEmpty()) {
+                        try {
+                            base = new URL(href);
+                            baseOverridden = true;
+                        } catch (MalformedURLException ignored) {
+                            // Некорректный <base> игнорируется, как это делает браузер.
+                        }
+                    }
+                }
+                default -> {
+                    if (SKIPPED_ELEMENTS.contains(name)) {
+                        readRawText(name, 0);
+                        return;
+                    }
+                    if (BOILERPLATE_ELEMENTS.contains(name)) {
+                        boilerplateDepth++;
+                    }
+                }
+            }
+            if (!INLINE_ELEMENTS.contains(name)) {
+                pendingSpace = true;
+                pendingMainSpace = true;
+            }
+        }
+
+        private void handleEndTag(String name) {
+            if (name.equals("head")) {
+                inHead = false;
+            }
+            if (BOILERPLATE_ELEMENTS.contains(name) && boilerplateDepth > 0) {
+                boilerplateDepth--;
+            }
+            if (!INLINE_ELEMENTS.contains(name)) {
+                pendingSpace = true;
+                pendingMainSpace = true;
+            }
+        }
+
+        private void flushText() {
+            if (pendingText.isEmpty()) {
+                return;
+            }
+            if (!inHead) {
+                appendText(unescape(pendingText.toString(), false));
+            }
+            pendingText.setLength(0);
+        }
+
+        private void appendText(String chunk) {
+            for (int i = 0; i < chunk.length(); i++) {
+                char ch = chunk.charAt(i);
+                if (Character.isWhitespace(ch) || ch == '\u00A0') {
+                    pendingSpace = true;
+                    pendingMainSpace = true;
+                } else {
+                    if (pendingSpace && !text.isEmpty()) {
+                        text.append(' ');
+                    }
+                    pendingSpace = false;
+                    text.append(ch);
+                    if (boilerplateDepth == 0) {
+                        if (pendingMainSpace && !mainText.isEmpty()) {
+                            mainText.append(' ');
+                        }
+                        pendingMainSpace = false;
+                        mainText.append(ch);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Читает имя тега, первый символ которого (буква) уже прочитан.
+         */
+        private String readTagName(int first) throws IOException {
+            StringBuilder name = new StringBuilder();
+            int c = first;
+            while (c != -1 && c != '>' && c != '/' && !Character.isWhitespace(c)) {
+                name.append(Character.toLowerCase((char) c));
+                in.mark(1);
+                c = in.read();
+            }
+            if (c != -1) {
+                in.reset();
+            }
+            return name.toString();
+        }
+
+        /**
+         * Читает атрибуты тега до закрывающей скобки с учетом кавычек.
+         */
+        private String readTagRest() throws IOException {
+            StringBuilder attributes = new StringBuilder();
+            char quote = 0;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = (char) c;
+                } else if (c == '>') {
+                    break;
+                }
+                if (attributes.length() < MAX_TAG_LENGTH) {
+                    attributes.append((char) c);
+                }
+            }
+            return attributes.toString();
+        }
+
+        private void skipTagRest() throws IOException {
+            int c;
+            while ((c = in.read()) != -1 && c != '>') {
+                // Атрибуты закрывающего тега не нужны.
+            }
+        }
+
+        /**
+         * Читает содержимое элемента с сырым текстом до закрывающего тега {@code </name>}.
+         * Сохраняется не больше {@code limit} первых символов содержимого, при {@code limit = 0}
+         * содержимое только пропускается.
+         */
+        private String readRawText(String name, int limit) throws IOException {
+            String terminator = "</" + name;
+            StringBuilder content = new StringBuilder();
+            int matched = 0;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (content.length() < limit + terminator.length()) {
+                    content.append((char) c);
+                }
+                // Закрывающий тег начинается с '<' и больше нигде не содержит '<', поэтому при несовпадении
+                // поиск продолжается с начала тега или с текущего символа.
+                if (Character.toLowerCase(c) == terminator.charAt(matched)) {
+                    matched++;
+                } else {
+                    matched = c == '<' ? 1 : 0;
+                }
+                if (matched < terminator.length()) {
+                    continue;
+                }
+                in.mark(1);
+                int next = in.read();
+                if (next == -1 || next == '>' || next == '/' || Character.isWhitespace(next)) {
+                    if (next != '>' && next != -1) {
+                        skipTagRest();
+                    }
+                    content.setLength(Math.max(0, content.length() - terminator.length()));
+                    break;
+                }
+                in.reset();
+                matched = 0;
+            }
+            if (content.length() > limit) {
+                content.setLength(limit);
+            }
+            return content.toString();
+        }
+
+        private void skipPast(String terminator) throws IOException {
+            int matched = 0;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == terminator.charAt(matched)) {
+                    matched++;
+                    if (matched == terminator.length()) {
+                        return;
+                    }
+                } else {
+                    matched = c == terminator.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+
+        /**
+         * Значение атрибута href или {@code null}, если атрибута нет.
+         */
+        private String attributeHref(String attributes) {
+            Matcher matcher = HREF_PATTERN.matcher(attributes);
+            if (!matcher.find()) {
+                return null;
+            }
+            for (int group = 1; group <= 3; group++) {
+                if (matcher.group(group) != null) {
+                    return matcher.group(group);
+                }
+            }
+            return "";
+        }
+
+        private String resolve(String href) {
+            if (href == null || base == null) {
+                return "";
+            }
+            String value = unescape(href, true).trim();
+            if (value.isEmpty()) {
+                return base.toExternalForm();
+            }
+            try {
+                return new URL(base, value).toExternalForm();
+            } catch (MalformedURLException e) {
+                return "";
+            }
+        }
+
+        /**
+         * Декодирует HTML-сущности. Парсер Jsoup создает буферы чтения на каждый вызов,
+         * поэтому строки без {@code &} возвращаются как есть.
+         */
+        private static String unescape(String value, boolean inAttribute) {
+            return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, inAttribute);
+        }
+
+        private static String collapseWhitespace(String value) {
+            return value.replace('\u00A0', ' ').trim().replaceAll("\\s+", " ");
+        }
+    }
+}
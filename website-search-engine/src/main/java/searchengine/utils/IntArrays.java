@@ -0,0 +1,101 @@
+package searchengine.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Операции над отсортированными массивами ID без упаковки в {@link Integer}.
+ */
+public final class IntArrays {
+
+    private IntArrays() {
+    }
+
+    /**
+     * @return отсортированный массив уникальных значений коллекции
+     */
+    public static int[] toSortedSet(Collection<Integer> values) {
+        int[] result = new int[values.size()];
+        int count = 0;
+        for (Integer value : values) {
+            result[count++] = value;
+        }
+        Arrays.sort(result);
+        return distinct(result);
+    }
+
+    /**
+     * Пересечение двух отсортированных массивов уникальных значений.
+     */
+    public static int[] intersectSorted(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Представление части массива в виде неизменяемого списка для параметров запросов {@code IN}.
+     * Элементы упаковываются при чтении, копия массива не создается.
+     */
+    public static List<Integer> asList(int[] values, int from, int to) {
+        return new IntListView(values, from, to);
+    }
+
+    public static List<Integer> asList(int[] values) {
+        return asList(values, 0, values.length);
+    }
+
+    private static int[] distinct(int[] sorted) {
+        if (sorted.length < 2) {
+            return sorted;
+        }
+        int count = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    private static final class IntListView extends AbstractList<Integer> implements RandomAccess {
+        private final int[] values;
+        private final int from;
+        private final int size;
+
+        IntListView(int[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.size = to - from;
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return values[from + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package searchengine.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Неизменяемый словарь лемм одного сайта: отсортированный массив с front coding.
+ * <p>
+ * Леммы хранятся блоками по {@value #BLOCK_SIZE} штук. Первая лемма блока хранится целиком,
+ * остальные - как длина общего префикса с предыдущей леммой и оставшийся суффикс.
+ * Поиск выполняется бинарным поиском по первым леммам блоков и последовательным
+ * декодированием внутри одного блока, поэтому не требует обращения к базе данных.
+ */
+public final class LemmaDictionary {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final LemmaDictionary EMPTY = new LemmaDictionary(new String[0], new int[0], new int[0]);
+
+    private final int size;
+    private final String[] blockHeads;
+    private final char[] suffixChars;
+    private final int[] suffixOffsets;
+    private final short[] sharedPrefixLengths;
+    private final int[] ids;
+    private final int[] frequencies;
+
+    private LemmaDictionary(String[] sortedLemmas, int[] ids, int[] frequencies) {
+        this.size = sortedLemmas.length;
+        this.ids = ids;
+        this.frequencies = frequencies;
+        this.blockHeads = new String[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        this.suffixOffsets = new int[size + 1];
+        this.sharedPrefixLengths = new short[size];
+
+        int totalSuffixLength = 0;
+        for (int i = 0; i < size; i++) {
+            int shared = (i % BLOCK_SIZE == 0) ? 0 : commonPrefixLength(sortedLemmas[i - 1], sortedLemmas[i]);
+            sharedPrefixLengths[i] = (short) shared;
+            totalSuffixLength += sortedLemmas[i].length() - shared;
+        }
+
+        this.suffixChars = new char[totalSuffixLength];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            String lemma = sortedLemmas[i];
+            if (i % BLOCK_SIZE == 0) {
+                blockHeads[i / BLOCK_SIZE] = lemma;
+            }
+            suffixOffsets[i] = offset;
+            int shared = sharedPrefixLengths[i];
+            lemma.getChars(shared, lemma.length(), suffixChars, offset);
+            offset += lemma.length() - shared;
+        }
+        suffixOffsets[size] = offset;
+    }
+
+    public static LemmaDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Строит словарь из неотсортированных данных. Массивы должны иметь одинаковую длину,
+     * леммы не должны повторяться.
+     * @param lemmas      леммы
+     * @param ids         ID лемм в базе данных
+     * @param frequencies частоты лемм (количество страниц, на которых встречается лемма)
+     * @return словарь
+     */
+    public static LemmaDictionary build(String[] lemmas, int[] ids, int[] frequencies) {
+        if (lemmas.length != ids.length || lemmas.length != frequencies.length) {
+            throw new IllegalArgumentException("Длины массивов лемм, ID и частот не совпадают");
+        }
+        if (lemmas.length == 0) {
+            return EMPTY;
+        }
+        Integer[] order = new Integer[lemmas.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> lemmas[i]));
+
+        String[] sortedLemmas = new String[lemmas.length];
+        int[] sortedIds = new int[lemmas.length];
+        int[] sortedFrequencies = new int[lemmas.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedLemmas[i] = lemmas[order[i]];
+            sortedIds[i] = ids[order[i]];
+            sortedFrequencies[i] = frequencies[order[i]];
+        }
+        return new LemmaDictionary(sortedLemmas, sortedIds, sortedFrequencies);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Находит порядковый номер леммы в словаре.
+     * @param lemma лемма
+     * @return порядковый номер или -1, если леммы нет в словаре
+     */
+    public int find(String lemma) {
+        int ordinal = lowerBound(lemma);
+        if (ordinal < size && lemmaAt(ordinal).equals(lemma)) {
+            return ordinal;
+        }
+        return -1;
+    }
+
+    public String lemmaAt(int ordinal) {
+        return decode(ordinal, new TermBuffer()).toString();
+    }
+
+    public int idAt(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public int frequencyAt(int ordinal) {
+        return frequencies[ordinal];
+    }
+
+    public LemmaEntry entryAt(int ordinal) {
+        return new LemmaEntry(lemmaAt(ordinal), ids[ordinal], frequencies[ordinal]);
+    }
+
+    /**
+     * Перебирает в лексикографическом порядке все леммы, начинающиеся с префикса.
+     * @param prefix   префикс
+     * @param consumer получатель найденных записей
+     */
+    public void forEachWithPrefix(String prefix, Consumer<LemmaEntry> consumer) {
+        int ordinal = lowerBound(prefix);
+        if (ordinal >= size) {
+            return;
+        }
+        TermBuffer buffer = decode(ordinal, new TermBuffer());
+        while (true) {
+            if (!buffer.startsWith(prefix)) {
+                return;
+            }
+            consumer.accept(new LemmaEntry(buffer.toString(), ids[ordinal], frequencies[ordinal]));
+            ordinal++;
+            if (ordinal >= size) {
+                return;
+            }
+            buffer.advanceTo(ordinal);
+        }
+    }
+
+    /**
+     * Перебирает все записи словаря в лексикографическом порядке.
+     * @param consumer получатель записей
+     */
+    public void forEach(Consumer<LemmaEntry> consumer) {
+        TermBuffer buffer = new TermBuffer();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            buffer.advanceTo(ordinal);
+            consumer.accept(new LemmaEntry(buffer.toString(), ids[ordinal], frequencies[ordinal]));
+        }
+    }
+
+    /**
+     * Возвращает порядковый номер первой леммы, которая не меньше ключа.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = blockHeads.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blockHeads[mid].compareTo(key) <= 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+        int first = block * BLOCK_SIZE;
+        int last = Math.min(first + BLOCK_SIZE, size);
+        TermBuffer buffer = new TermBuffer();
+        for (int ordinal = first; ordinal < last; ordinal++) {
+            buffer.advanceTo(ordinal);
+            if (buffer.compareTo(key) >= 0) {
+                return ordinal;
+            }
+        }
+        return last;
+    }
+
+    private TermBuffer decode(int ordinal, TermBuffer buffer) {
+        int first = ordinal - ordinal % BLOCK_SIZE;
+        for (int i = first; i <= ordinal; i++) {
+            buffer.advanceTo(i);
+        }
+        return buffer;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int max = Math.min(Math.min(a.length(), b.length()), Short.MAX_VALUE);
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Буфер для последовательного декодирования лемм без создания промежуточных строк.
+     */
+    private final class TermBuffer {
+        private char[] chars = new char[32];
+        private int length;
+
+        void advanceTo(int ordinal) {
+            int shared = sharedPrefixLengths[ordinal];
+            int suffixLength = suffixOffsets[ordinal + 1] - suffixOffsets[ordinal];
+            int newLength = shared + suffixLength;
+            if (newLength > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(newLength, chars.length * 2));
+            }
+            System.arraycopy(suffixChars, suffixOffsets[ordinal], chars, shared, suffixLength);
+            length = newLength;
+        }
+
+        int compareTo(String other) {
+            int limit = Math.min(length, other.length());
+            for (int i = 0; i < limit; i++) {
+                char c = chars[i];
+                char o = other.charAt(i);
+                if (c != o) {
+                    return c - o;
+                }
+            }
+            return length - other.length();
+        }
+
+        boolean startsWith(String prefix) {
+            if (prefix.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (chars[i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+}
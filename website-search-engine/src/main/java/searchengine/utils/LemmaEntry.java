@@ -0,0 +1,13 @@
+package searchengine.utils;
+
+import lombok.Value;
+
+/**
+ * Запись словаря лемм: лемма, ее ID в базе данных и частота (количество страниц сайта с этой леммой).
+ */
+@Value
+public class LemmaEntry {
+    String lemma;
+    int id;
+    int frequency;
+}
@@ -0,0 +1,140 @@
+package searchengine.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Отображение объект -> int с открытой адресацией: значения хранятся в массиве примитивов,
+ * поэтому счетчики лемм не создают {@link Integer} на каждое вхождение слова.
+ * Ключ {@code null} не поддерживается.
+ * @param <K> тип ключа
+ */
+public final class ObjectIntHashMap<K> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private Object[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public ObjectIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize ожидаемое количество ключей; таблица не будет увеличиваться, пока оно не превышено
+     */
+    public ObjectIntHashMap(int expectedSize) {
+        allocate(IntFloatHashMap.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Прибавляет значение к значению ключа; отсутствующий ключ считается равным нулю.
+     */
+    public void addTo(K key, int increment) {
+        int slot = slot(key);
+        if (keys[slot] != null) {
+            values[slot] += increment;
+        } else {
+            insert(slot, key, increment);
+        }
+    }
+
+    public void put(K key, int value) {
+        int slot = slot(key);
+        if (keys[slot] != null) {
+            values[slot] = value;
+        } else {
+            insert(slot, key, value);
+        }
+    }
+
+    public int getInt(Object key, int defaultValue) {
+        int slot = slot(key);
+        return keys[slot] != null ? values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return keys[slot(key)] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return ключи в порядке обхода таблицы
+     */
+    @SuppressWarnings("unchecked")
+    public List<K> keys() {
+        List<K> result = new ArrayList<>(size);
+        for (Object key : keys) {
+            if (key != null) {
+                result.add((K) key);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<K> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Ячейка ключа или первая свободная ячейка его цепочки.
+     */
+    private int slot(Object key) {
+        int slot = IntFloatHashMap.mix(key.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, K key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,232 @@
+package searchengine.utils;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Правила robots.txt для одного робота (RFC 9309).
+ * <p>
+ * Из файла выбирается группа с самым длинным именем робота, которое входит в наш User-Agent,
+ * а при ее отсутствии - группа {@code *}. Для пути применяется самое длинное совпавшее правило,
+ * при равной длине побеждает Allow. Поддерживаются шаблоны {@code *} и {@code $}.
+ */
+public final class RobotsRules {
+
+    private static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), List.of(), 0, null);
+    private static final RobotsRules DISALLOW_ALL = new RobotsRules(List.of(new Rule("/", false)), List.of(), 0, null);
+
+    private final List<Rule> rules;
+    private final List<String> sitemaps;
+    private final long crawlDelayMillis;
+    private final String unavailableReason;
+
+    private RobotsRules(List<Rule> rules, List<String> sitemaps, long crawlDelayMillis, String unavailableReason) {
+        this.rules = rules;
+        this.sitemaps = sitemaps;
+        this.crawlDelayMillis = crawlDelayMillis;
+        this.unavailableReason = unavailableReason;
+    }
+
+    public static RobotsRules allowAll() {
+        return ALLOW_ALL;
+    }
+
+    public static RobotsRules disallowAll() {
+        return DISALLOW_ALL;
+    }
+
+    /**
+     * Правила для хоста, robots.txt которого недоступен (ответ 5xx или сетевая ошибка):
+     * по RFC 9309 обход такого хоста запрещен.
+     * @param reason причина для статуса сайта
+     */
+    public static RobotsRules unavailable(String reason) {
+        return new RobotsRules(DISALLOW_ALL.rules, List.of(), 0, reason);
+    }
+
+    /**
+     * Разбирает содержимое robots.txt.
+     * @param content   текст файла
+     * @param userAgent User-Agent нашего робота
+     * @return правила для робота
+     */
+    public static RobotsRules parse(String content, String userAgent) {
+        String agent = userAgent == null ? "" : userAgent.toLowerCase(Locale.ROOT);
+        List<String> sitemaps = new ArrayList<>();
+        List<Group> groups = new ArrayList<>();
+        Group current = null;
+        boolean groupHasRules = false;
+
+        for (String rawLine : content.split("\r\n|\r|\n")) {
+            int commentIndex = rawLine.indexOf('#');
+            String line = (commentIndex >= 0 ? rawLine.substring(0, commentIndex) : rawLine).trim();
+            int colonIndex = line.indexOf(':');
+            if (colonIndex <= 0) {
+                continue;
+            }
+            String key = line.substring(0, colonIndex).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colonIndex + 1).trim();
+
+            switch (key) {
+                case "user-agent" -> {
+                    if (current == null || groupHasRules) {
+                        current = new Group();
+                        groups.add(current);
+                        groupHasRules = false;
+                    }
+                    current.agents.add(value.toLowerCase(Locale.ROOT));
+                }
+                case "allow", "disallow" -> {
+                    if (current == null) {
+                        continue;
+                    }
+                    groupHasRules = true;
+                    if (!value.isEmpty()) {
+                        current.rules.add(new Rule(value, key.equals("allow")));
+                    }
+                }
+                case "crawl-delay" -> {
+                    if (current == null) {
+                        continue;
+                    }
+                    groupHasRules = true;
+                    try {
+                        current.crawlDelayMillis = Math.round(Double.parseDouble(value) * 1000);
+                    } catch (NumberFormatException e) {
+                        // Некорректное значение игнорируется, как и любая неизвестная директива.
+                    }
+                }
+                case "sitemap" -> sitemaps.add(value);
+                default -> {
+                }
+            }
+        }
+
+        Group selected = selectGroup(groups, agent);
+        if (selected == null) {
+            return new RobotsRules(List.of(), List.copyOf(sitemaps), 0, null);
+        }
+        return new RobotsRules(List.copyOf(selected.rules), List.copyOf(sitemaps), selected.crawlDelayMillis, null);
+    }
+
+    /**
+     * Проверяет, разрешен ли путь.
+     * @param pathAndQuery путь страницы вместе со строкой запроса
+     */
+    public boolean isAllowed(String pathAndQuery) {
+        String path = pathAndQuery == null || pathAndQuery.isEmpty() ? "/" : pathAndQuery;
+        Rule best = null;
+        for (Rule rule : rules) {
+            if (rule.matches(path) && (best == null
+                    || rule.length() > best.length()
+                    || (rule.length() == best.length() && rule.allow))) {
+                best = rule;
+            }
+        }
+        return best == null || best.allow;
+    }
+
+    /**
+     * Проверяет, разрешен ли адрес страницы. Некорректные адреса считаются разрешенными:
+     * их отбросит загрузка страницы.
+     * @param url полный адрес страницы
+     */
+    public boolean isUrlAllowed(String url) {
+        if (rules.isEmpty()) {
+            return true;
+        }
+        try {
+            URI uri = new URI(url);
+            String path = uri.getRawPath();
+            String query = uri.getRawQuery();
+            return isAllowed((path == null ? "" : path) + (query == null ? "" : "?" + query));
+        } catch (URISyntaxException e) {
+            return true;
+        }
+    }
+
+    public List<String> getSitemaps() {
+        return Collections.unmodifiableList(sitemaps);
+    }
+
+    /**
+     * Задержка между запросами из директивы Crawl-delay.
+     * @return миллисекунды или 0, если директива не задана
+     */
+    public long getCrawlDelayMillis() {
+        return crawlDelayMillis;
+    }
+
+    /**
+     * @return причина, по которой robots.txt не удалось получить, или {@code null}, если файл получен или отсутствует
+     */
+    public String getUnavailableReason() {
+        return unavailableReason;
+    }
+
+    private static Group selectGroup(List<Group> groups, String agent) {
+        Group wildcard = null;
+        Group best = null;
+        int bestLength = 0;
+        for (Group group : groups) {
+            for (String name : group.agents) {
+                if (name.equals("*")) {
+                    if (wildcard == null) {
+                        wildcard = group;
+                    }
+                } else if (!name.isEmpty() && agent.contains(name) && name.length() > bestLength) {
+                    best = group;
+                    bestLength = name.length();
+                }
+            }
+        }
+        return best != null ? best : wildcard;
+    }
+
+    private static final class Group {
+        private final List<String> agents = new ArrayList<>();
+        private final List<Rule> rules = new ArrayList<>();
+        private long crawlDelayMillis;
+    }
+
+    private static final class Rule {
+        private final String pattern;
+        private final boolean allow;
+        private final Pattern regex;
+
+        Rule(String pattern, boolean allow) {
+            this.pattern = pattern;
+            this.allow = allow;
+            this.regex = pattern.contains("*") || pattern.endsWith("$") ? compile(pattern) : null;
+        }
+
+        int length() {
+            return pattern.length();
+        }
+
+        boolean matches(String path) {
+            return regex == null ? path.startsWith(pattern) : regex.matcher(path).lookingAt();
+        }
+
+        private static Pattern compile(String pattern) {
+            boolean anchored = pattern.endsWith("$");
+            String body = anchored ? pattern.substring(0, pattern.length() - 1) : pattern;
+            StringBuilder regex = new StringBuilder();
+            for (String part : body.split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(part));
+            }
+            if (anchored) {
+                regex.append('$');
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package searchengine.utils;
+
+/**
+ * 64-битный отпечаток текста SimHash (Charikar). У текстов, отличающихся немногими словами,
+ * отпечатки отличаются немногими битами, поэтому почти одинаковые страницы находятся
+ * по расстоянию Хэмминга между отпечатками.
+ * <p>
+ * Признаками служат слова в нижнем регистре; повторяющиеся слова имеют больший вес.
+ */
+public final class SimHash {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long fingerprint;
+    private final int wordCount;
+
+    private SimHash(long fingerprint, int wordCount) {
+        this.fingerprint = fingerprint;
+        this.wordCount = wordCount;
+    }
+
+    /**
+     * Вычисляет отпечаток текста.
+     * @param text видимый текст страницы
+     */
+    public static SimHash of(CharSequence text) {
+        int[] weights = new int[64];
+        int wordCount = 0;
+        long word = FNV_OFFSET_BASIS;
+        boolean inWord = false;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char ch = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                word = (word ^ Character.toLowerCase(ch)) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                addFeature(weights, mix(word));
+                wordCount++;
+                word = FNV_OFFSET_BASIS;
+                inWord = false;
+            }
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return new SimHash(fingerprint, wordCount);
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Расстояние Хэмминга между отпечатками.
+     */
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    private static void addFeature(int[] weights, long hash) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((hash >>> bit) & 1) == 1 ? 1 : -1;
+        }
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3: каждый бит результата зависит от всех битов аргумента.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,91 @@
+package searchengine.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Индекс отпечатков {@link SimHash} для поиска почти одинаковых текстов (LSH по полосам битов).
+ * <p>
+ * Отпечаток делится на {@code maxDistance + 1} полос. Если два отпечатка отличаются не более чем
+ * в {@code maxDistance} битах, то хотя бы одна полоса у них совпадает целиком, поэтому кандидаты
+ * ищутся только в корзинах с совпавшими полосами, а не перебором всех отпечатков сайта.
+ * @param <T> значение, связанное с отпечатком (например, ID страницы)
+ */
+public final class SimHashIndex<T> {
+
+    private final int maxDistance;
+    private final int[] bandShifts;
+    private final long[] bandMasks;
+    private final List<Map<Long, List<Entry<T>>>> bands;
+
+    /**
+     * @param maxDistance максимальное расстояние Хэмминга, при котором тексты считаются дубликатами (0..7)
+     */
+    public SimHashIndex(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > 7) {
+            throw new IllegalArgumentException("Расстояние должно быть в интервале 0..7: " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+        int bandCount = maxDistance + 1;
+        this.bandShifts = new int[bandCount];
+        this.bandMasks = new long[bandCount];
+        this.bands = new ArrayList<>(bandCount);
+        int shift = 0;
+        for (int band = 0; band < bandCount; band++) {
+            int width = 64 / bandCount + (band < 64 % bandCount ? 1 : 0);
+            bandShifts[band] = shift;
+            bandMasks[band] = width == 64 ? -1L : (1L << width) - 1;
+            bands.add(new HashMap<>());
+            shift += width;
+        }
+    }
+
+    /**
+     * Ищет ранее добавленный отпечаток на расстоянии не больше {@code maxDistance}.
+     * @param fingerprint отпечаток текста
+     * @return значение найденного отпечатка или пустой Optional
+     */
+    public synchronized Optional<T> find(long fingerprint) {
+        for (int band = 0; band < bands.size(); band++) {
+            List<Entry<T>> bucket = bands.get(band).get(bandKey(fingerprint, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (Entry<T> entry : bucket) {
+                if (SimHash.distance(entry.fingerprint, fingerprint) <= maxDistance) {
+                    return Optional.of(entry.value);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Добавляет отпечаток в индекс.
+     * @param fingerprint отпечаток текста
+     * @param value       значение, связанное с отпечатком
+     */
+    public synchronized void add(long fingerprint, T value) {
+        Entry<T> entry = new Entry<>(fingerprint, value);
+        for (int band = 0; band < bands.size(); band++) {
+            bands.get(band).computeIfAbsent(bandKey(fingerprint, band), key -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    private long bandKey(long fingerprint, int band) {
+        return (fingerprint >>> bandShifts[band]) & bandMasks[band];
+    }
+
+    private static final class Entry<T> {
+        private final long fingerprint;
+        private final T value;
+
+        Entry(long fingerprint, T value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+    }
+}
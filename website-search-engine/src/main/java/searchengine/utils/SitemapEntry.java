@@ -0,0 +1,19 @@
+package searchengine.utils;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Адрес страницы из sitemap.xml и дата ее последнего изменения ({@code null}, если не указана).
+ */
+@Value
+public class SitemapEntry {
+    /** Сначала недавно измененные страницы, страницы без даты - в конце. */
+    public static final Comparator<SitemapEntry> NEWEST_FIRST = Comparator.comparing(SitemapEntry::getLastModified,
+            Comparator.nullsLast(Comparator.reverseOrder()));
+
+    String location;
+    Instant lastModified;
+}
@@ -0,0 +1,112 @@
+package searchengine.utils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Потоковый разбор sitemap.xml (StAX). Файл не загружается в память целиком, поэтому
+ * подходят и sitemap на 50 000 адресов. Поддерживаются сжатые gzip файлы (определяются по
+ * сигнатуре) и индексы sitemap ({@code <sitemapindex>}), адреса вложенных файлов передаются отдельно.
+ */
+public final class SitemapParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private SitemapParser() {
+    }
+
+    /**
+     * Разбирает sitemap или индекс sitemap.
+     * @param input          содержимое файла, возможно сжатое gzip
+     * @param pageConsumer   получатель адресов страниц из {@code <urlset>}
+     * @param sitemapConsumer получатель адресов вложенных sitemap из {@code <sitemapindex>}
+     */
+    public static void parse(InputStream input, Consumer<SitemapEntry> pageConsumer, Consumer<String> sitemapConsumer)
+            throws IOException {
+        InputStream stream = decompressIfNeeded(input);
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(stream);
+            String location = null;
+            Instant lastModified = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "url", "sitemap" -> {
+                            location = null;
+                            lastModified = null;
+                        }
+                        case "loc" -> location = reader.getElementText().trim();
+                        case "lastmod" -> lastModified = parseDate(reader.getElementText().trim());
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && location != null && !location.isEmpty()) {
+                    switch (reader.getLocalName()) {
+                        case "url" -> pageConsumer.accept(new SitemapEntry(location, lastModified));
+                        case "sitemap" -> sitemapConsumer.accept(location);
+                        default -> {
+                        }
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Некорректный sitemap: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Поток закрывает вызывающий код.
+                }
+            }
+        }
+    }
+
+    private static InputStream decompressIfNeeded(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(buffered);
+        }
+        return buffered;
+    }
+
+    /**
+     * Разбирает дату в формате W3C Datetime: полную дату-время со смещением или только дату.
+     */
+    private static Instant parseDate(String value) {
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay().toInstant(ZoneOffset.UTC);
+            }
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+}
@@ -0,0 +1,39 @@
+-- Выполняется перед schema.sql на MySQL (spring.sql.init.platform=mysql).
+-- Переход с исходной схемы, в которой содержимое страницы хранилось в page.content: она пересоздавала
+-- таблицы при каждом запуске, поэтому сохранять в них нечего. Если столбец page.content есть, таблицы
+-- индекса удаляются и создаются заново по schema.sql; в остальных случаях скрипт ничего не меняет.
+SET @legacy_schema = (SELECT COUNT(*)
+                      FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE()
+                        AND TABLE_NAME = 'page'
+                        AND COLUMN_NAME = 'content');
+
+SET @upgrade = IF(@legacy_schema > 0, 'DROP TABLE IF EXISTS `crawl_frontier`', 'DO 0');
+PREPARE upgrade FROM @upgrade;
+EXECUTE upgrade;
+DEALLOCATE PREPARE upgrade;
+
+SET @upgrade = IF(@legacy_schema > 0, 'DROP TABLE IF EXISTS `index`', 'DO 0');
+PREPARE upgrade FROM @upgrade;
+EXECUTE upgrade;
+DEALLOCATE PREPARE upgrade;
+
+SET @upgrade = IF(@legacy_schema > 0, 'DROP TABLE IF EXISTS `lemma`', 'DO 0');
+PREPARE upgrade FROM @upgrade;
+EXECUTE upgrade;
+DEALLOCATE PREPARE upgrade;
+
+SET @upgrade = IF(@legacy_schema > 0, 'DROP TABLE IF EXISTS `page_content`', 'DO 0');
+PREPARE upgrade FROM @upgrade;
+EXECUTE upgrade;
+DEALLOCATE PREPARE upgrade;
+
+SET @upgrade = IF(@legacy_schema > 0, 'DROP TABLE IF EXISTS `page`', 'DO 0');
+PREPARE upgrade FROM @upgrade;
+EXECUTE upgrade;
+DEALLOCATE PREPARE upgrade;
+
+SET @upgrade = IF(@legacy_schema > 0, 'DROP TABLE IF EXISTS `site`', 'DO 0');
+PREPARE upgrade FROM @upgrade;
+EXECUTE upgrade;
+DEALLOCATE PREPARE upgrade;
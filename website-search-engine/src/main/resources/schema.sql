@@ -1,12 +1,9 @@
--- Удаляем таблицы в обратном порядке зависимостей
-DROP TABLE IF EXISTS `index`;
-DROP TABLE IF EXISTS `lemma`;
-DROP TABLE IF EXISTS `page`;
-DROP TABLE IF EXISTS `site`;
-
+-- Таблицы создаются, только если их еще нет: данные индекса и общая очередь распределенного
+-- обхода сохраняются при перезапуске узлов. База исходной схемы (со столбцом page.content)
+-- переводится на эту схему скриптом schema-mysql.sql, который выполняется перед этим.
 
 -- Создаем таблицу site
-CREATE TABLE `site`
+CREATE TABLE IF NOT EXISTS `site`
 (
     `id`          INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
     `status`      VARCHAR(255) NOT NULL,
@@ -17,21 +14,32 @@ CREATE TABLE `site`
 );
 
 -- Создаем таблицу page
-CREATE TABLE `page`
+CREATE TABLE IF NOT EXISTS `page`
 (
     `id`      INT      NOT NULL AUTO_INCREMENT PRIMARY KEY,
     `site_id` INT      NOT NULL,
     `path`    VARCHAR(512) NOT NULL,
     `code`    INT      NOT NULL,
-    `content` MEDIUMTEXT NOT NULL,
-    FOREIGN KEY (`site_id`) REFERENCES `site` (`id`) ON DELETE CASCADE
+    `title`   TEXT,
+    `canonical_page_id` INT,
+    FOREIGN KEY (`site_id`) REFERENCES `site` (`id`) ON DELETE CASCADE,
+    FOREIGN KEY (`canonical_page_id`) REFERENCES `page` (`id`) ON DELETE SET NULL,
+    INDEX `path_index` (`path`, `site_id`)
+);
+
+-- Создаем таблицу page_content: сжатое (deflate) содержимое страниц хранится отдельно,
+-- чтобы запросы к page не читали его
+CREATE TABLE IF NOT EXISTS `page_content`
+(
+    `page_id`       INT      NOT NULL PRIMARY KEY,
+    `original_size` INT      NOT NULL,
+    `data`          LONGBLOB NOT NULL,
+    FOREIGN KEY (`page_id`) REFERENCES `page` (`id`) ON DELETE CASCADE
 );
--- Добавляем индекс на path
-CREATE INDEX `path_index` ON `page` (`path`, `site_id`);
 
 
 -- Создаем таблицу lemma
-CREATE TABLE `lemma`
+CREATE TABLE IF NOT EXISTS `lemma`
 (
     `id`        INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
     `site_id`   INT          NOT NULL,
@@ -42,7 +50,7 @@ CREATE TABLE `lemma`
 );
 
 -- Создаем таблицу index
-CREATE TABLE `index`
+CREATE TABLE IF NOT EXISTS `index`
 (
     `id`       INT   NOT NULL AUTO_INCREMENT PRIMARY KEY,
     `page_id`  INT   NOT NULL,
@@ -50,4 +58,47 @@ CREATE TABLE `index`
     `rank`     FLOAT NOT NULL,
     FOREIGN KEY (`page_id`) REFERENCES `page` (`id`) ON DELETE CASCADE,
     FOREIGN KEY (`lemma_id`) REFERENCES `lemma` (`id`) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Таблицы распределенного обхода (crawler.cluster.enabled=true)
+
+-- Общая очередь обхода: адрес берет узел, арендующий раздел partition_no
+CREATE TABLE IF NOT EXISTS `crawl_frontier`
+(
+    `id`           BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    `site_id`      INT          NOT NULL,
+    `url`          TEXT         NOT NULL,
+    `url_hash`     BIGINT       NOT NULL,
+    `partition_no` INT          NOT NULL,
+    `status`       VARCHAR(16)  NOT NULL,
+    `lease_owner`  VARCHAR(64),
+    `lease_until`  DATETIME,
+    `attempts`     INT          NOT NULL,
+    FOREIGN KEY (`site_id`) REFERENCES `site` (`id`) ON DELETE CASCADE,
+    CONSTRAINT `uk_frontier_site_url` UNIQUE (`site_id`, `url_hash`),
+    INDEX `frontier_claim_index` (`status`, `partition_no`)
+);
+
+-- Аренда разделов адресного пространства узлами
+CREATE TABLE IF NOT EXISTS `crawl_partition_lease`
+(
+    `partition_no` INT NOT NULL PRIMARY KEY,
+    `lease_owner`  VARCHAR(64),
+    `lease_until`  DATETIME
+);
+
+-- Узлы кластера и время их последней отметки
+CREATE TABLE IF NOT EXISTS `crawl_node`
+(
+    `node_id`   VARCHAR(64) NOT NULL PRIMARY KEY,
+    `last_seen` DATETIME    NOT NULL
+);
+
+-- Состояние индексации, общее для всех узлов (одна строка)
+CREATE TABLE IF NOT EXISTS `crawl_run`
+(
+    `id`          INT          NOT NULL PRIMARY KEY,
+    `status`      VARCHAR(16)  NOT NULL,
+    `status_time` DATETIME     NOT NULL,
+    `started_by`  VARCHAR(64)
+);
@@ -0,0 +1,90 @@
+package searchengine.analysis;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.component.MorphologyProvider;
+import searchengine.config.MorphologyConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LanguageAnalyzersTest {
+
+    private final MorphologyConfig config = new MorphologyConfig();
+    private final MorphologyProvider morphologyProvider = new MorphologyProvider(config);
+    private final RussianAnalyzer russian = new RussianAnalyzer(morphologyProvider);
+    private final EnglishAnalyzer english = new EnglishAnalyzer(morphologyProvider);
+
+    @Test
+    @DisplayName("Разбиение текста: слова выделяются по алфавиту языка, смена алфавита разделяет слово.")
+    void tokenize_shouldSplitWordsByScript() {
+        LanguageAnalyzers analyzers = new LanguageAnalyzers(List.of(russian, english), config);
+
+        List<String> words = new ArrayList<>();
+        List<String> languages = new ArrayList<>();
+        analyzers.tokenize("Новый iPhone-у, Windows10 и смартфонiphone: Ёлка!", (word, analyzer) -> {
+            words.add(word);
+            languages.add(analyzer.language());
+        });
+
+        assertEquals(List.of("новый", "iphone", "windows", "смартфон", "iphone", "елка"), words);
+        assertEquals(List.of("russian", "english", "english", "russian", "english", "russian"), languages);
+    }
+
+    @Test
+    @DisplayName("Разбиение текста: \"ё\" приводится к \"е\", слова с \"ё\" и \"е\" совпадают.")
+    void tokenize_shouldNormalizeYo() {
+        LanguageAnalyzers analyzers = new LanguageAnalyzers(List.of(russian, english), config);
+
+        List<String> withYo = new ArrayList<>();
+        analyzers.tokenize("Ёжик пришёл к ЁЛКЕ", (word, analyzer) -> withYo.add(word));
+        List<String> withYe = new ArrayList<>();
+        analyzers.tokenize("Ежик пришел к ЕЛКЕ", (word, analyzer) -> withYe.add(word));
+
+        assertEquals(List.of("ежик", "пришел", "елке"), withYo);
+        assertEquals(withYe, withYo);
+    }
+
+    @Test
+    @DisplayName("Разбиение текста: слово со сменой алфавита делится на части, короткие обрывки отбрасываются.")
+    void tokenize_shouldSplitMixedScriptWords() {
+        LanguageAnalyzers analyzers = new LanguageAnalyzers(List.of(russian, english), config);
+
+        List<String> words = new ArrayList<>();
+        List<String> languages = new ArrayList<>();
+        // "мoлоко" написано с латинской "o": "м" и "o" короче двух букв и отбрасываются.
+        analyzers.tokenize("чехол для iPhoneа, мoлоко", (word, analyzer) -> {
+            words.add(word);
+            languages.add(analyzer.language());
+        });
+
+        assertEquals(List.of("чехол", "для", "iphone", "локо"), words);
+        assertEquals(List.of("russian", "russian", "english", "russian"), languages);
+    }
+
+    @Test
+    @DisplayName("Разбиение текста: слова языков, анализаторы которых не подключены, пропускаются.")
+    void tokenize_shouldSkipWordsOfDisabledLanguages() {
+        config.setAnalyzers(List.of("russian"));
+        LanguageAnalyzers analyzers = new LanguageAnalyzers(List.of(russian, english), config);
+
+        List<String> words = new ArrayList<>();
+        analyzers.tokenize("Леопард leopard Леопарды", (word, analyzer) -> words.add(word));
+
+        assertEquals(List.of("леопард", "леопарды"), words);
+        assertNull(analyzers.forWord("leopard"));
+        assertSame(russian, analyzers.forWord("леопард"));
+    }
+
+    @Test
+    @DisplayName("Настройка: неизвестный анализатор языка - ошибка при запуске.")
+    void constructor_shouldRejectUnknownLanguage() {
+        config.setAnalyzers(List.of("russian", "klingon"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new LanguageAnalyzers(List.of(russian, english), config));
+        assertTrue(e.getMessage().contains("klingon"));
+    }
+}
@@ -0,0 +1,130 @@
+package searchengine.analysis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.component.MorphologyProvider;
+import searchengine.component.SearchEngineMetrics;
+import searchengine.config.MorphologyConfig;
+import searchengine.services.LemmaService;
+import searchengine.services.LemmaServiceImpl;
+import searchengine.utils.ObjectIntHashMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение лемматизации с набором стоп-слов и лемматизации только по словарю морфологии.
+ * <p>
+ * Корпус - отрывки русской и английской прозы из {@code corpus/}, README, тестовые страницы
+ * и сами списки кандидатов в стоп-слова. Большой корпус (например, выгрузку Википедии)
+ * можно подключить свойством {@code -Dstopwords.corpus=<файл или каталог с .txt>}.
+ */
+public class StopWordsConsistencyTest {
+
+    /**
+     * Нижняя граница числа различных слов встроенного корпуса: проверка не должна незаметно
+     * выродиться в проверку нескольких слов.
+     */
+    private static final int MIN_DISTINCT_WORDS = 1500;
+
+    private final MorphologyConfig config = new MorphologyConfig();
+    private final MorphologyProvider morphologyProvider = new MorphologyProvider(config);
+    private final LanguageAnalyzers analyzers = new LanguageAnalyzers(
+            List.of(new RussianAnalyzer(morphologyProvider), new EnglishAnalyzer(morphologyProvider)), config);
+
+    @Test
+    @DisplayName("Стоп-слова: лемма каждого слова корпуса совпадает с леммой по словарю морфологии.")
+    void lemma_shouldMatchDictionaryLemma() throws IOException {
+        Map<String, LanguageAnalyzer> words = new LinkedHashMap<>();
+        for (String text : corpus()) {
+            analyzers.tokenize(text, words::putIfAbsent);
+        }
+
+        int stopWords = 0;
+        List<String> mismatches = new ArrayList<>();
+        for (Map.Entry<String, LanguageAnalyzer> entry : words.entrySet()) {
+            String word = entry.getKey();
+            MorphologyAnalyzer analyzer = (MorphologyAnalyzer) entry.getValue();
+            if (analyzer.isStopWord(word)) {
+                stopWords++;
+            }
+            String expected = analyzer.dictionaryLemma(word);
+            String actual = analyzer.lemma(word);
+            if (!String.valueOf(expected).equals(String.valueOf(actual))) {
+                mismatches.add(word + ": " + expected + " -> " + actual);
+            }
+        }
+
+        assertTrue(words.size() >= MIN_DISTINCT_WORDS, "В корпусе слишком мало слов: " + words.size());
+        assertTrue(stopWords > 0, "В корпусе нет стоп-слов");
+        assertEquals(List.of(), mismatches);
+    }
+
+    @Test
+    @DisplayName("Стоп-слова: леммы текста из LemmaService совпадают с лемматизацией по словарю каждого слова.")
+    void collectLemmas_shouldMatchDictionaryLemmas() throws IOException {
+        LemmaService lemmaService = new LemmaServiceImpl(null, null, analyzers, null, null,
+                new SearchEngineMetrics(new SimpleMeterRegistry()), null, null, null, config);
+
+        for (String text : corpus()) {
+            Map<String, Integer> expected = new TreeMap<>();
+            analyzers.tokenize(text, (word, analyzer) -> {
+                String lemma = ((MorphologyAnalyzer) analyzer).dictionaryLemma(word);
+                if (lemma != null) {
+                    expected.merge(lemma, 1, Integer::sum);
+                }
+            });
+
+            assertEquals(expected, toMap(lemmaService.collectLemmas(text)));
+        }
+    }
+
+    private List<String> corpus() throws IOException {
+        List<String> texts = new ArrayList<>();
+        addTexts(Paths.get("src/test/resources/corpus"), texts);
+        texts.add(Files.readString(Paths.get("README.md"), StandardCharsets.UTF_8));
+        try (Stream<Path> pages = Files.list(Paths.get("src/test/resources/test-site"))) {
+            for (Path page : pages.filter(p -> p.toString().endsWith(".html")).sorted().toList()) {
+                texts.add(Jsoup.parse(Files.readString(page, StandardCharsets.UTF_8)).text());
+            }
+        }
+        texts.add(Files.readString(Paths.get("src/main/resources/stopwords/russian.txt"), StandardCharsets.UTF_8));
+        texts.add(Files.readString(Paths.get("src/main/resources/stopwords/english.txt"), StandardCharsets.UTF_8));
+        String external = System.getProperty("stopwords.corpus");
+        if (external != null && !external.isBlank()) {
+            addTexts(Paths.get(external), texts);
+        }
+        return texts;
+    }
+
+    private static void addTexts(Path path, List<String> texts) throws IOException {
+        if (Files.isRegularFile(path)) {
+            texts.add(Files.readString(path, StandardCharsets.UTF_8));
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(".txt")).sorted().toList()) {
+                texts.add(Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static Map<String, Integer> toMap(ObjectIntHashMap<String> lemmas) {
+        Map<String, Integer> result = new TreeMap<>();
+        lemmas.forEach(result::put);
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package searchengine.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.CancellationToken;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostConcurrencyLimiterTest {
+
+    private static final long CRAWL_DELAY_MILLIS = 100;
+    private static final int TASKS = 4;
+
+    private final HostConcurrencyLimiter limiter =
+            new HostConcurrencyLimiter(new CrawlerConfig(), new SearchEngineMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    @DisplayName("Crawl-delay: одновременные задачи одного хоста начинают запросы не чаще одного раза в интервал.")
+    void awaitTurn_shouldSpaceRequestsToHost() throws InterruptedException {
+        CancellationToken cancellation = new CancellationToken();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> turns = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    assertTrue(limiter.awaitTurn("https://example.com/page", CRAWL_DELAY_MILLIS, cancellation));
+                    turns.add(System.nanoTime());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<Long> sorted = new ArrayList<>(turns);
+        Collections.sort(sorted);
+        assertEquals(TASKS, sorted.size());
+        long spanMillis = (sorted.get(TASKS - 1) - sorted.get(0)) / 1_000_000;
+        assertTrue(spanMillis >= (TASKS - 1) * CRAWL_DELAY_MILLIS - 20, "Запросы к хосту начались слишком часто: " + spanMillis + " мс");
+    }
+
+    @Test
+    @DisplayName("Crawl-delay: ожидание очереди прекращается при отмене обхода.")
+    void awaitTurn_shouldStopWaitingOnCancel() throws InterruptedException {
+        CancellationToken cancellation = new CancellationToken();
+        assertTrue(limiter.awaitTurn("https://example.com/a", 10_000, cancellation));
+        cancellation.cancel();
+
+        assertFalse(limiter.awaitTurn("https://example.com/b", 10_000, cancellation));
+    }
+}
@@ -0,0 +1,130 @@
+package searchengine.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import searchengine.config.IndexConfig;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.repository.BulkInsertRepository;
+import searchengine.repository.LemmaRepository;
+import searchengine.services.LemmaDictionaryService;
+import searchengine.services.LemmaService;
+import searchengine.utils.ObjectIntHashMap;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IndexWriteBufferTest {
+
+    private final LemmaService lemmaService = mock(LemmaService.class);
+    private final LemmaRepository lemmaRepository = mock(LemmaRepository.class);
+    private final BulkInsertRepository bulkInsertRepository = mock(BulkInsertRepository.class);
+    private final LemmaDictionaryService lemmaDictionaryService = mock(LemmaDictionaryService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final IndexConfig indexConfig = new IndexConfig();
+    private final IndexWriteBuffer buffer = new IndexWriteBuffer(lemmaService, new LemmaIdCache(lemmaRepository, indexConfig),
+            bulkInsertRepository, lemmaDictionaryService, new SearchEngineMetrics(new SimpleMeterRegistry()),
+            indexConfig, transactionManager);
+
+    @Test
+    @DisplayName("Буфер индекса: после ошибки записи сброс повторяется, и страницы не теряются.")
+    void flush_shouldRetryFailedWrite() {
+        doThrow(new DataIntegrityViolationException("lemma_id"))
+                .doNothing()
+                .when(bulkInsertRepository).insertRows(anyString(), anyString(), any(), anyInt());
+        buffer.add(page(1, 10), "лес");
+
+        buffer.flush();
+
+        verify(bulkInsertRepository, times(2)).insertRows(anyString(), anyString(), any(), anyInt());
+        verify(lemmaDictionaryService).refreshFrequencies(anyInt(), any());
+        assertEquals(Set.of(), buffer.takeUnindexedPages(1));
+    }
+
+    @Test
+    @DisplayName("Буфер индекса: страницы, индекс которых записать не удалось, возвращаются для пометки сайта.")
+    void flush_shouldRememberUnindexedPages() {
+        buffer.add(page(1, 10), "лес");
+        buffer.add(page(1, 11), "лес");
+        buffer.add(page(2, 20), "лес");
+        // Сайты сбрасываются по возрастанию ID: все попытки первого сайта не удаются, второй записывается.
+        doThrow(new TransactionSystemException("commit failed"))
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        assertThrows(TransactionSystemException.class, buffer::flush);
+
+        verify(transactionManager, times(IndexWriteBuffer.MAX_FLUSH_ATTEMPTS + 1)).commit(any());
+        assertEquals(Set.of(10, 11), buffer.takeUnindexedPages(1));
+        assertEquals(Set.of(), buffer.takeUnindexedPages(2));
+        assertEquals(Set.of(), buffer.takeUnindexedPages(1), "Страницы возвращаются один раз");
+    }
+
+    @Test
+    @DisplayName("Буфер индекса: ошибка записи одного сайта не выбрасывается обходу другого сайта, заполнившему буфер.")
+    void add_shouldNotThrowOtherSiteFailure() {
+        indexConfig.getWriteBuffer().setMaxPages(2);
+        doThrow(new TransactionSystemException("commit failed"))
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+        buffer.add(page(1, 10), "лес");
+
+        // Страница второго сайта заполняет буфер, и запись первого сайта не удается во всех попытках.
+        assertDoesNotThrow(() -> buffer.add(page(2, 20), "лес"));
+
+        verify(transactionManager, times(IndexWriteBuffer.MAX_FLUSH_ATTEMPTS + 1)).commit(any());
+        assertEquals(Set.of(10), buffer.takeUnindexedPages(1));
+        assertEquals(Set.of(), buffer.takeUnindexedPages(2));
+    }
+
+    @Test
+    @DisplayName("Буфер индекса: сброс при завершении обхода выбрасывает только ошибку своего сайта.")
+    void flushForSite_shouldThrowOnlyOwnFailure() {
+        doThrow(new TransactionSystemException("commit failed"))
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doThrow(new TransactionSystemException("commit failed"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+        buffer.add(page(1, 10), "лес");
+        buffer.add(page(2, 20), "лес");
+
+        assertDoesNotThrow(() -> buffer.flush(2));
+        assertEquals(Set.of(10), buffer.takeUnindexedPages(1));
+
+        doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(any());
+        buffer.add(page(1, 11), "лес");
+        assertThrows(TransactionSystemException.class, () -> buffer.flush(1));
+        assertEquals(Set.of(11), buffer.takeUnindexedPages(1));
+    }
+
+    private Page page(int siteId, int pageId) {
+        Site site = new Site();
+        site.setId(siteId);
+        site.setName("Site " + siteId);
+        Page page = new Page();
+        page.setId(pageId);
+        page.setSite(site);
+        page.setPath("/" + pageId);
+        ObjectIntHashMap<String> lemmas = new ObjectIntHashMap<>();
+        lemmas.put("лес", 1);
+        when(lemmaService.collectLemmas("лес")).thenReturn(lemmas);
+        return page;
+    }
+}
@@ -0,0 +1,55 @@
+package searchengine.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.component.IndexingProgressTracker.SiteProgress;
+import searchengine.model.Site;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexingProgressTrackerTest {
+
+    private static final int THREADS = 8;
+    private static final int FETCHES_PER_THREAD = 10_000;
+
+    @Test
+    @DisplayName("Прогресс: загрузки из многих потоков учитываются в скорости без потерь.")
+    void pageFetched_shouldCountConcurrentFetches() throws InterruptedException {
+        Site site = new Site();
+        site.setUrl("https://example.com");
+        site.setName("Example");
+        SiteProgress progress = new IndexingProgressTracker(new SearchEngineMetrics(new SimpleMeterRegistry())).start(site);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < FETCHES_PER_THREAD; j++) {
+                    progress.pageFetched();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = (long) THREADS * FETCHES_PER_THREAD;
+        assertEquals(total, progress.getFetched().get());
+        // Окно скорости в первые секунды обхода равно одной секунде, поэтому скорость равна числу загрузок.
+        assertEquals(total, progress.getFetchRate() * Math.min(10, Math.max(1, progress.getElapsedMillis() / 1000.0)), 0.5);
+    }
+}
@@ -0,0 +1,34 @@
+package searchengine.component;
+
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class MorphologyProviderTest {
+
+    @Test
+    @DisplayName("Словарь морфологии: неудачная загрузка выбрасывает IllegalStateException и повторяется при следующем обращении.")
+    void get_shouldRetryFailedLoad() {
+        LuceneMorphology morphology = mock(LuceneMorphology.class);
+        AtomicInteger loads = new AtomicInteger();
+        MorphologyProvider.LazyMorphology lazy = new MorphologyProvider.LazyMorphology("russian", () -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("словарь недоступен");
+            }
+            return morphology;
+        });
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, lazy::get);
+        assertInstanceOf(IOException.class, error.getCause());
+
+        assertSame(morphology, lazy.get());
+        assertSame(morphology, lazy.get());
+        assertEquals(2, loads.get(), "Загруженный словарь не должен загружаться повторно");
+    }
+}
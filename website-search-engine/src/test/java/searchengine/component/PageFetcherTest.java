@@ -0,0 +1,113 @@
+package searchengine.component;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.CancellationToken;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageFetcherTest {
+
+    private WireMockServer wireMockServer;
+    private final CrawlerConfig crawlerConfig = new CrawlerConfig();
+    private PageFetcher fetcher;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+        crawlerConfig.setUserAgent("TestSearchBot/1.0");
+        crawlerConfig.setTimeout(10_000);
+        crawlerConfig.setMaxBodySize(1024);
+        fetcher = new PageFetcher(crawlerConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetcher.shutdown();
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Загрузка страницы: перенаправления выполняются, кодировка берется из Content-Type, тело ограничено.")
+    void open_shouldFollowRedirectsAndLimitBody() throws Exception {
+        stubFor(get(urlEqualTo("/old")).willReturn(aResponse().withStatus(301).withHeader("Location", "/new")));
+        stubFor(get(urlEqualTo("/new")).withHeader("User-Agent", equalTo("TestSearchBot/1.0")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html; charset=windows-1251")
+                .withBody("а".repeat(4096))));
+
+        try (PageFetcher.Response response = fetcher.open(wireMockServer.baseUrl() + "/old", new CancellationToken())) {
+            assertEquals(200, response.getStatusCode());
+            assertEquals(wireMockServer.baseUrl() + "/new", response.getUrl());
+            assertEquals("windows-1251", response.getCharset());
+            assertEquals(1024, response.getBody().readAllBytes().length);
+        }
+    }
+
+    @Test
+    @DisplayName("Загрузка страницы: ошибки HTTP и содержимое не HTML обрабатываются, как в Jsoup.")
+    void open_shouldRejectErrorsAndUnsupportedContent() {
+        stubFor(get(urlEqualTo("/missing")).willReturn(aResponse().withStatus(404)));
+        stubFor(get(urlEqualTo("/file.bin")).willReturn(aResponse().withHeader("Content-Type", "application/octet-stream")));
+
+        HttpStatusException status = assertThrows(HttpStatusException.class,
+                () -> fetcher.open(wireMockServer.baseUrl() + "/missing", new CancellationToken()));
+        assertEquals(404, status.getStatusCode());
+        assertThrows(UnsupportedMimeTypeException.class,
+                () -> fetcher.open(wireMockServer.baseUrl() + "/file.bin", new CancellationToken()));
+    }
+
+    @Test
+    @DisplayName("Загрузка страницы: отмена прерывает запрос, ожидающий заголовки ответа.")
+    void open_shouldAbortWhileWaitingForHeaders() {
+        stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withFixedDelay(5000).withBody("<p>поздно</p>")));
+        CancellationToken cancellation = new CancellationToken();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(cancellation::cancel, 200, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+
+            assertThrows(CancellationException.class, () -> fetcher.open(wireMockServer.baseUrl() + "/slow", cancellation));
+
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "Отмена должна прервать запрос сразу");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Загрузка страницы: таймаут ограничивает и ожидание ответа, и чтение тела.")
+    void open_shouldTimeOut() throws IOException, InterruptedException {
+        fetcher.shutdown();
+        crawlerConfig.setTimeout(300);
+        fetcher = new PageFetcher(crawlerConfig);
+        stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withFixedDelay(2000)));
+        stubFor(get(urlEqualTo("/slow-body")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody("<p>" + "медленно ".repeat(50) + "</p>")
+                .withChunkedDribbleDelay(10, 2000)));
+
+        assertThrows(HttpTimeoutException.class, () -> fetcher.open(wireMockServer.baseUrl() + "/slow", new CancellationToken()));
+        try (PageFetcher.Response response = fetcher.open(wireMockServer.baseUrl() + "/slow-body", new CancellationToken())) {
+            assertThrows(SocketTimeoutException.class, () -> new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
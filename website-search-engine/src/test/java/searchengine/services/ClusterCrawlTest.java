@@ -0,0 +1,236 @@
+package searchengine.services;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import searchengine.config.CrawlerConfig;
+import searchengine.config.SiteConfig;
+import searchengine.config.SitesListConfig;
+import searchengine.model.CrawlRun;
+import searchengine.model.CrawlRunStatus;
+import searchengine.model.FrontierStatus;
+import searchengine.model.FrontierUrl;
+import searchengine.model.Site;
+import searchengine.model.Status;
+import searchengine.repository.BulkInsertRepository;
+import searchengine.repository.CrawlNodeRepository;
+import searchengine.repository.CrawlRunRepository;
+import searchengine.repository.FrontierUrlRepository;
+import searchengine.repository.PageRepository;
+import searchengine.repository.PartitionLeaseRepository;
+import searchengine.repository.SiteRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "crawler.cluster.enabled=true",
+        "crawler.cluster.node-id=test-node",
+        "crawler.cluster.partitions=8",
+        "crawler.cluster.poll-millis=100",
+        "crawler.cluster.lease-seconds=5"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@Slf4j
+public class ClusterCrawlTest {
+
+    @Autowired private IndexingService indexingService;
+    @Autowired private SiteRepository siteRepository;
+    @Autowired private PageRepository pageRepository;
+    @Autowired private FrontierUrlRepository frontierRepository;
+    @Autowired private BulkInsertRepository bulkInsertRepository;
+    @Autowired private PartitionLeaseRepository leaseRepository;
+    @Autowired private CrawlNodeRepository nodeRepository;
+    @Autowired private CrawlRunRepository runRepository;
+    @Autowired private CrawlerConfig crawlerConfig;
+
+    @MockBean
+    private SitesListConfig sitesListConfig;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer();
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+
+        siteRepository.deleteAll();
+
+        SiteConfig siteConfig = new SiteConfig();
+        siteConfig.setUrl(wireMockServer.baseUrl());
+        siteConfig.setName("Test Site");
+        siteConfig.setEnabled(true);
+        when(sitesListConfig.getSites()).thenReturn(Collections.singletonList(siteConfig));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Распределенный режим: страницы обходятся через общую очередь, сайт и индексация завершаются.")
+    void shouldCrawlSiteThroughSharedFrontier() throws Exception {
+        stubTestSite(0);
+
+        assertTrue(indexingService.startIndexing());
+        assertFalse(indexingService.startIndexing(), "Повторный запуск должен быть отклонен, пока индексация идет в кластере");
+        waitForIndexingToComplete();
+
+        assertEquals(3, pageRepository.count());
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        assertEquals(Status.INDEXED, site.getStatus());
+
+        List<FrontierUrl> frontier = frontierRepository.findAll();
+        assertEquals(3, frontier.size(), "Каждая страница должна попасть в очередь ровно один раз");
+        assertTrue(frontier.stream().allMatch(url -> url.getStatus() == FrontierStatus.DONE));
+        assertEquals(CrawlRunStatus.FINISHED, runRepository.findById(CrawlRun.SINGLETON_ID).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Распределенный режим: остановка переводит индексацию кластера в STOPPED, а сайт - в FAILED.")
+    void shouldStopIndexingClusterWide() throws Exception {
+        stubTestSite(1000);
+
+        assertTrue(indexingService.startIndexing());
+        Thread.sleep(500);
+        assertTrue(indexingService.isIndexing());
+
+        assertTrue(indexingService.stopIndexing());
+        assertFalse(indexingService.isIndexing());
+        assertEquals(CrawlRunStatus.STOPPED, runRepository.findById(CrawlRun.SINGLETON_ID).orElseThrow().getStatus());
+
+        Thread.sleep(2500);
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        assertEquals(Status.FAILED, site.getStatus());
+        assertEquals("Индексация остановлена пользователем", site.getLastError());
+    }
+
+    @Test
+    @DisplayName("Аренда разделов: узлы делят разделы поровну и забирают разделы выбывшего узла.")
+    void shouldShareAndTakeOverPartitions() throws InterruptedException {
+        waitForNodeToReleasePartitions();
+        CrawlerConfig.Cluster config = crawlerConfig.getCluster();
+        PartitionLeaseManager first = new PartitionLeaseManager(leaseRepository, nodeRepository, config, "test-node-a");
+        PartitionLeaseManager second = new PartitionLeaseManager(leaseRepository, nodeRepository, config, "test-node-b");
+        try {
+            first.heartbeat();
+            second.heartbeat();
+
+            // Живы три узла (включая узел приложения), доля каждого - ceil(8 / 3) = 3.
+            List<Integer> firstPartitions = first.refresh();
+            List<Integer> secondPartitions = second.refresh();
+            assertEquals(3, firstPartitions.size());
+            assertEquals(3, secondPartitions.size());
+            Set<Integer> overlap = new HashSet<>(firstPartitions);
+            overlap.retainAll(secondPartitions);
+            assertTrue(overlap.isEmpty(), "Один раздел не может принадлежать двум узлам");
+
+            second.releaseAll();
+            nodeRepository.deleteById("test-node-b");
+            assertEquals(4, first.refresh().size(), "После выбывания узла доля оставшихся растет до ceil(8 / 2)");
+        } finally {
+            first.releaseAll();
+            second.releaseAll();
+            nodeRepository.deleteById("test-node-a");
+        }
+    }
+
+    @Test
+    @DisplayName("Очередь обхода: повторные ссылки не дублируются, адрес с ошибкой возвращается в очередь и после всех попыток становится FAILED.")
+    void shouldRequeueFailedUrlsUntilAttemptsAreExhausted() {
+        Site site = new Site();
+        site.setUrl(wireMockServer.baseUrl());
+        site.setName("Test Site");
+        site.setStatus(Status.INDEXING);
+        site.setStatusTime(LocalDateTime.now());
+        siteRepository.save(site);
+        String first = wireMockServer.baseUrl() + "/page2";
+        String second = wireMockServer.baseUrl() + "/page3";
+        bulkInsertRepository.enqueueFrontierUrls(List.of(row(site, first), row(site, second)), 1);
+        bulkInsertRepository.enqueueFrontierUrls(List.of(row(site, second), row(site, first), row(site, first)), 10);
+
+        List<FrontierUrl> frontier = frontierRepository.findAll();
+        assertEquals(2, frontier.size(), "Повторные ссылки не должны попадать в очередь");
+        long failedId = frontier.get(0).getId();
+        long otherId = frontier.get(1).getId();
+        int maxAttempts = crawlerConfig.getCluster().getMaxAttempts();
+        LocalDateTime until = LocalDateTime.now().plusMinutes(1);
+
+        assertEquals(2, frontierRepository.claim(List.of(failedId, otherId), "other-node", until, FrontierStatus.CLAIMED, FrontierStatus.QUEUED));
+        assertEquals(1, frontierRepository.renewClaims(List.of(otherId), "other-node", until.plusMinutes(1), FrontierStatus.CLAIMED),
+                "Аренда продлевается только для переданных адресов");
+        assertEquals(until.withNano(0), frontierRepository.findById(failedId).orElseThrow().getLeaseUntil().withNano(0));
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                assertEquals(1, frontierRepository.claim(List.of(failedId), "other-node", until, FrontierStatus.CLAIMED, FrontierStatus.QUEUED));
+            }
+            assertEquals(1, frontierRepository.releaseFailed(failedId, "other-node", maxAttempts,
+                    FrontierStatus.CLAIMED, FrontierStatus.QUEUED, FrontierStatus.FAILED));
+            FrontierUrl released = frontierRepository.findById(failedId).orElseThrow();
+            assertEquals(attempt, released.getAttempts());
+            assertEquals(attempt < maxAttempts ? FrontierStatus.QUEUED : FrontierStatus.FAILED, released.getStatus());
+            assertNull(released.getLeaseOwner());
+        }
+        siteRepository.delete(site);
+    }
+
+    private static Object[] row(Site site, String url) {
+        return new Object[]{site.getId(), url, ClusterCrawler.urlHash(url), ClusterCrawler.partitionOf(url, 8)};
+    }
+
+    private void stubTestSite(int delayMillis) throws IOException {
+        stubFor(get(urlEqualTo("/")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withFixedDelay(delayMillis)
+                .withBody(readTestResource("test-site/index.html"))));
+        stubFor(get(urlEqualTo("/page2")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withFixedDelay(delayMillis)
+                .withBody(readTestResource("test-site/page2.html"))));
+        stubFor(get(urlEqualTo("/page3")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withFixedDelay(delayMillis)
+                .withBody(readTestResource("test-site/page3.html"))));
+    }
+
+    private void waitForIndexingToComplete() throws InterruptedException {
+        int maxWaitTimeSeconds = 30;
+        while (indexingService.isIndexing() && maxWaitTimeSeconds > 0) {
+            Thread.sleep(1000);
+            maxWaitTimeSeconds--;
+        }
+        if (indexingService.isIndexing()) {
+            fail("Индексация не завершилась за 30 секунд.");
+        }
+    }
+
+    private void waitForNodeToReleasePartitions() throws InterruptedException {
+        for (int i = 0; i < 50 && !leaseRepository.findOwned("test-node", LocalDateTime.now()).isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    private String readTestResource(String path) throws IOException {
+        return Files.readString(Paths.get("src/test/resources/" + path), StandardCharsets.UTF_8);
+    }
+}
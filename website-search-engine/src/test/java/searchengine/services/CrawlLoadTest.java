@@ -0,0 +1,191 @@
+package searchengine.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import searchengine.config.SiteConfig;
+import searchengine.config.SitesListConfig;
+import searchengine.repository.IndexRepository;
+import searchengine.repository.LemmaRepository;
+import searchengine.repository.PageRepository;
+import searchengine.repository.SiteRepository;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.when;
+
+/**
+ * Нагрузочный тест обхода: {@link IndexingService#startIndexing} обходит синтетический сайт
+ * из {@link SyntheticSiteGenerator}, который раздает WireMock. В отчет попадают скорость обхода,
+ * число SQL-операторов по статистике Hibernate, использование кучи и работа GC.
+ * <p>
+ * Тест помечен тегом {@code load} и не входит в {@code test}; запускается задачей {@code loadTest},
+ * параметры сайта задаются системными свойствами {@code loadtest.*}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "logging.level.searchengine=INFO"
+})
+@ActiveProfiles("test")
+@Tag("load")
+@Slf4j
+public class CrawlLoadTest {
+
+    @Autowired private IndexingService indexingService;
+    @Autowired private SiteRepository siteRepository;
+    @Autowired private PageRepository pageRepository;
+    @Autowired private LemmaRepository lemmaRepository;
+    @Autowired private IndexRepository indexRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private SitesListConfig sitesListConfig;
+
+    private WireMockServer wireMockServer;
+    private SyntheticSiteGenerator site;
+
+    @BeforeEach
+    void setUp() {
+        SyntheticSiteGenerator.Settings settings = SyntheticSiteGenerator.Settings.builder()
+                .pages(Integer.getInteger("loadtest.pages", 1000))
+                .fanOut(Integer.getInteger("loadtest.fan-out", 8))
+                .medianWords(Integer.getInteger("loadtest.median-words", 300))
+                .slowRatio(Double.parseDouble(System.getProperty("loadtest.slow-ratio", "0.02")))
+                .slowDelayMillis(Integer.getInteger("loadtest.slow-delay-ms", 500))
+                .errorRatio(Double.parseDouble(System.getProperty("loadtest.error-ratio", "0.02")))
+                .seed(Long.getLong("loadtest.seed", 42L))
+                .build();
+        site = new SyntheticSiteGenerator(settings);
+
+        wireMockServer = new WireMockServer();
+        wireMockServer.start();
+        site.serve(wireMockServer);
+
+        siteRepository.deleteAll();
+
+        SiteConfig siteConfig = new SiteConfig();
+        siteConfig.setUrl(wireMockServer.baseUrl());
+        siteConfig.setName("Synthetic Site");
+        siteConfig.setEnabled(true);
+        when(sitesListConfig.getSites()).thenReturn(Collections.singletonList(siteConfig));
+        log.info("Сгенерирован синтетический сайт: {} страниц, {} КБ, достижимо страниц с кодом 200: {}",
+                site.getPages().size(), site.totalBytes() / 1024, site.countReachablePages());
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Нагрузочный тест: обход синтетического сайта с отчетом о скорости, SQL и памяти.")
+    void crawlSyntheticSite() throws InterruptedException, IOException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        resetHeapPeaks();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+
+        long start = System.nanoTime();
+        assertTrue(indexingService.startIndexing(), "Запуск индексации должен вернуть true");
+        waitForIndexingToComplete(Integer.getInteger("loadtest.timeout-seconds", 600));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long pages = pageRepository.count();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedPages", site.getPages().size());
+        report.put("reachablePages", site.countReachablePages());
+        report.put("generatedKilobytes", site.totalBytes() / 1024);
+        report.put("indexedPages", pages);
+        report.put("lemmas", lemmaRepository.count());
+        report.put("indexEntries", indexRepository.count());
+        report.put("seconds", Math.round(seconds * 100) / 100.0);
+        report.put("pagesPerSecond", Math.round(pages / seconds * 10) / 10.0);
+        report.put("preparedStatements", statistics.getPrepareStatementCount());
+        report.put("statementsPerPage", pages == 0 ? 0 : Math.round(10.0 * statistics.getPrepareStatementCount() / pages) / 10.0);
+        report.put("queries", statistics.getQueryExecutionCount());
+        report.put("entityInserts", statistics.getEntityInsertCount());
+        report.put("entityUpdates", statistics.getEntityUpdateCount());
+        report.put("entityDeletes", statistics.getEntityDeleteCount());
+        report.put("transactions", statistics.getTransactionCount());
+        report.put("heapPeakMegabytes", heapPeakBytes() / (1024 * 1024));
+        report.put("heapUsedMegabytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024));
+        report.put("gcCount", gcCount() - gcCountBefore);
+        report.put("gcMillis", gcTimeMillis() - gcTimeBefore);
+
+        log.info("Результаты нагрузочного теста обхода: {}", report);
+        writeReport(report);
+
+        assertEquals(site.countReachablePages(), pages, "Должны быть сохранены все достижимые страницы с кодом 200");
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path path = Paths.get(System.getProperty("loadtest.report", "build/reports/load-test/crawl-load.json"));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        log.info("Отчет нагрузочного теста сохранен в {}", path.toAbsolutePath());
+    }
+
+    private void waitForIndexingToComplete(int maxWaitTimeSeconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitTimeSeconds);
+        while (indexingService.isIndexing() && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+        if (indexingService.isIndexing()) {
+            fail("Индексация не завершилась за " + maxWaitTimeSeconds + " секунд.");
+        }
+    }
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long heapPeakBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
@@ -0,0 +1,139 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.CrawlerConfig;
+import searchengine.utils.CancellationToken;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrawlSchedulerTest {
+
+    private static final int THREADS = 4;
+
+    private final CrawlScheduler scheduler = new CrawlScheduler(config());
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Общий пул: задачи, добавленные задачами сайта, выполняются до завершения обхода.")
+    void run_shouldProcessDiscoveredTasks() throws InterruptedException {
+        AtomicInteger processed = new AtomicInteger();
+
+        scheduler.run("tree", List.of(1), node -> {
+            processed.incrementAndGet();
+            return node < 64 ? List.of(node * 2, node * 2 + 1) : List.of();
+        }, new CancellationToken());
+
+        assertEquals(127, processed.get());
+    }
+
+    @Test
+    @DisplayName("Общий пул: сайты делят потоки поровну, доля завершенного сайта сразу переходит к оставшимся.")
+    void run_shouldShareThreadsFairlyBetweenSites() throws InterruptedException {
+        ConcurrencyProbe big = new ConcurrencyProbe();
+        ConcurrencyProbe small = new ConcurrencyProbe();
+        AtomicInteger bigWhileShared = new AtomicInteger();
+        CountDownLatch smallStarted = new CountDownLatch(1);
+
+        Thread smallSite = new Thread(() -> {
+            try {
+                scheduler.run("small", IntStream.range(0, 20).boxed().toList(), small.task(item -> {
+                    smallStarted.countDown();
+                    bigWhileShared.accumulateAndGet(big.current.get(), Math::max);
+                    return List.of();
+                }), new CancellationToken());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        smallSite.start();
+        assertTrue(smallStarted.await(5, TimeUnit.SECONDS));
+
+        scheduler.run("big", IntStream.range(0, 200).boxed().toList(), big.task(item -> List.of()), new CancellationToken());
+        smallSite.join();
+
+        assertTrue(bigWhileShared.get() <= THREADS / 2, "Большой сайт занял больше своей доли: " + bigWhileShared.get());
+        assertEquals(THREADS, big.max.get());
+    }
+
+    @Test
+    @DisplayName("Общий пул: отмена сразу завершает обход, не дожидаясь выполняющихся задач, и отбрасывает очередь.")
+    void run_shouldReturnImmediatelyWhenCancelled() throws InterruptedException {
+        CancellationToken cancellation = new CancellationToken();
+        CountDownLatch started = new CountDownLatch(THREADS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+
+        Thread canceller = new Thread(() -> {
+            try {
+                started.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            cancellation.cancel();
+        });
+        canceller.start();
+
+        long start = System.nanoTime();
+        scheduler.run("slow", IntStream.range(0, 100).boxed().toList(), item -> {
+            processed.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of();
+        }, cancellation);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        canceller.join();
+
+        assertTrue(elapsedMillis < 2000, "Обход завершился через " + elapsedMillis + " мс после запуска");
+        assertEquals(THREADS, processed.get());
+
+        scheduler.run("next", List.of(1), item -> {
+            processed.incrementAndGet();
+            return List.of();
+        }, new CancellationToken());
+        assertEquals(THREADS + 1, processed.get());
+    }
+
+    private static CrawlerConfig config() {
+        CrawlerConfig config = new CrawlerConfig();
+        config.getScheduler().setThreads(THREADS);
+        return config;
+    }
+
+    private static class ConcurrencyProbe {
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+
+        Function<Integer, List<Integer>> task(Function<Integer, List<Integer>> body) {
+            return item -> {
+                max.accumulateAndGet(current.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                    return body.apply(item);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return List.of();
+                } finally {
+                    current.decrementAndGet();
+                }
+            };
+        }
+    }
+}
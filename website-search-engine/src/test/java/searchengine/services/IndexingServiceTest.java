@@ -9,10 +9,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import searchengine.config.SiteConfig;
 import searchengine.config.SitesListConfig;
+import searchengine.dto.indexing.IndexingProgressDTO;
+import searchengine.dto.indexing.SiteProgressDTO;
+import searchengine.model.Lemma;
+import searchengine.model.Page;
+import searchengine.model.PageContent;
 import searchengine.model.Site;
 import searchengine.model.Status;
 import searchengine.repository.IndexRepository;
 import searchengine.repository.LemmaRepository;
+import searchengine.repository.PageContentRepository;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
 
@@ -21,7 +27,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,9 +52,18 @@ public class IndexingServiceTest {
     @Autowired
     private IndexRepository indexRepository;
 
+    @Autowired
+    private PageContentRepository pageContentRepository;
+
+    @Autowired
+    private PageContentService pageContentService;
+
     @Autowired
     private IndexingService indexingService;
 
+    @Autowired
+    private IndexingProgressService indexingProgressService;
+
     @MockBean
     private SitesListConfig sitesListConfig;
 
@@ -97,6 +114,133 @@ public class IndexingServiceTest {
         assertEquals(expectedPageCount, actualPageCount, "Количество проиндексированных страниц должно быть равно 3.");
     }
 
+    @Test
+    @DisplayName("Прогресс индексации: после обхода счетчики в памяти должны совпадать с количеством страниц сайта, очередь должна быть пуста.")
+    void shouldReportIndexingProgress() throws InterruptedException {
+        stubFor(get(urlEqualTo("/page3")).willReturn(aResponse().withStatus(404)));
+
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        IndexingProgressDTO progress = indexingProgressService.getProgress();
+        assertTrue(progress.isResult());
+        assertFalse(progress.isIndexing(), "Индексация должна быть завершена");
+
+        SiteProgressDTO siteProgress = progress.getSites().stream()
+                .filter(site -> site.getUrl().equals(wireMockServer.baseUrl()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Прогресс для тестового сайта не найден"));
+        log.info("Прогресс индексации: {}", siteProgress);
+
+        assertTrue(siteProgress.isFinished(), "Обход сайта должен быть отмечен завершенным");
+        assertEquals(2, siteProgress.getFetched(), "Должны быть загружены 2 страницы (index и page2)");
+        assertEquals(2, siteProgress.getIndexed(), "Должны быть проиндексированы 2 страницы");
+        assertEquals(1, siteProgress.getFailed(), "Страница page3 с кодом 404 должна быть учтена как ошибка");
+        assertEquals(0, siteProgress.getQueued(), "Очередь обхода должна быть пуста");
+        assertEquals(0L, siteProgress.getEtaSeconds());
+    }
+
+    @Test
+    @DisplayName("robots.txt и sitemap.xml: запрещенная страница не загружается, а страница из sitemap находится без ссылок на нее.")
+    void shouldRespectRobotsAndSeedFromSitemap() throws InterruptedException {
+        stubFor(get(urlEqualTo("/robots.txt")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/plain")
+                .withBody("User-agent: *\nDisallow: /page2\nSitemap: " + wireMockServer.baseUrl() + "/sitemap.xml\n")));
+        stubFor(get(urlEqualTo("/sitemap.xml")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/xml")
+                .withBody("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                        + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+                        + "<url><loc>" + wireMockServer.baseUrl() + "/page3</loc><lastmod>2024-05-01</lastmod></url>"
+                        + "<url><loc>" + wireMockServer.baseUrl() + "/page2</loc></url>"
+                        + "</urlset>")));
+
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        assertTrue(pageRepository.findByPathAndSite("/", site).isPresent(), "Главная страница должна быть сохранена");
+        assertTrue(pageRepository.findByPathAndSite("/page3", site).isPresent(), "Страница из sitemap должна быть сохранена");
+        assertTrue(pageRepository.findByPathAndSite("/page2", site).isEmpty(), "Страница, запрещенная в robots.txt, не должна загружаться");
+        verify(0, getRequestedFor(urlEqualTo("/page2")));
+    }
+
+    @Test
+    @DisplayName("robots.txt: если файл недоступен (5xx), сайт не обходится и получает статус FAILED с причиной.")
+    void shouldFailSiteWhenRobotsIsUnavailable() throws InterruptedException {
+        stubFor(get(urlEqualTo("/robots.txt")).willReturn(aResponse().withStatus(503)));
+
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        assertEquals(Status.FAILED, site.getStatus());
+        assertTrue(site.getLastError().contains("robots.txt"), "В ошибке сайта должна быть указана причина: " + site.getLastError());
+        assertEquals(0, pageRepository.count());
+        verify(0, getRequestedFor(urlEqualTo("/page2")));
+    }
+
+    @Test
+    @DisplayName("Дубликаты: версия страницы для печати сохраняется со ссылкой на оригинал и не индексируется.")
+    void shouldSkipNearDuplicatePages() throws InterruptedException {
+        stubPageWithPrintVersion();
+
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        Page original = pageRepository.findByPathAndSite("/", site).orElseThrow();
+        Page printVersion = pageRepository.findByPathAndSite("/print", site).orElseThrow();
+        assertNull(original.getCanonicalPageId());
+        assertEquals(original.getId(), printVersion.getCanonicalPageId(), "Дубликат должен ссылаться на оригинал");
+        assertFalse(indexRepository.findByPage(original).isEmpty());
+        assertTrue(indexRepository.findByPage(printVersion).isEmpty(), "Дубликат не должен индексироваться");
+        assertTrue(pageContentRepository.findById(printVersion.getId()).isEmpty(), "Содержимое дубликата не должно сохраняться");
+    }
+
+    @Test
+    @DisplayName("Дубликаты: после повторной индексации оригинала отдельной страницей дубликат ссылается на его новую версию.")
+    void indexPage_shouldKeepDuplicatesOfReindexedPage() throws InterruptedException {
+        stubPageWithPrintVersion();
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        int oldOriginalId = pageRepository.findByPathAndSite("/", site).orElseThrow().getId();
+
+        assertTrue(indexingService.indexPage(wireMockServer.baseUrl() + "/"));
+
+        Page original = pageRepository.findByPathAndSite("/", site).orElseThrow();
+        Page printVersion = pageRepository.findByPathAndSite("/print", site).orElseThrow(
+                () -> new AssertionError("Дубликат не должен удаляться вместе со старой версией оригинала"));
+        assertNotEquals(oldOriginalId, original.getId());
+        assertEquals(original.getId(), printVersion.getCanonicalPageId(), "Дубликат должен ссылаться на новую версию оригинала");
+    }
+
+    @Test
+    @DisplayName("Дубликаты: разные страницы с общими навигацией и подвалом дубликатами не считаются.")
+    void shouldNotTreatSharedTemplateAsDuplicate() throws InterruptedException {
+        String footer = "<footer><p>Национальный парк Земля леопарда расположен на юге Приморского края. Парк охраняет"
+                + " дальневосточного леопарда, амурского тигра и других редких животных. Посетители могут пройти по"
+                + " экологическим тропам, увидеть следы зверей и узнать об истории заповедных территорий. Экскурсии"
+                + " проводятся круглый год по предварительной записи в визит-центре парка. Все права защищены.</p></footer>";
+        String nav = "<nav><a href=\"/\">Главная</a> <a href=\"/tiger\">Тигр</a></nav>";
+        stubFor(get(urlEqualTo("/")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody("<html><head><title>Леопард</title></head><body>" + nav
+                        + "<p>Леопард охотится из засады.</p>" + footer + "</body></html>")));
+        stubFor(get(urlEqualTo("/tiger")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody("<html><head><title>Тигр</title></head><body>" + nav
+                        + "<p>Тигр переплывает реки.</p>" + footer + "</body></html>")));
+
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        Page tiger = pageRepository.findByPathAndSite("/tiger", site).orElseThrow();
+        assertNull(tiger.getCanonicalPageId(), "Общий шаблон не должен делать страницы дубликатами");
+        assertFalse(indexRepository.findByPage(tiger).isEmpty());
+    }
+
     @Test
     @DisplayName("Повторная индексация: при повторном запуске сервис должен сначала удалить старые данные, а затем проиндексировать сайт заново. Итоговое количество страниц не должно измениться.")
     void shouldReIndexSiteCorrectly() throws InterruptedException {
@@ -170,6 +314,98 @@ public class IndexingServiceTest {
         assertEquals("/page2", pageRepository.findAll().get(0).getPath(), "Путь сохраненной страницы должен быть /page2.");
     }
 
+    @Test
+    @DisplayName("Сжатое содержимое: разметка страницы хранится отдельно в сжатом виде и восстанавливается без потерь.")
+    void shouldStoreCompressedPageContent() throws IOException {
+        assertTrue(indexingService.indexPage(wireMockServer.baseUrl() + "/page2"));
+
+        Page page = pageRepository.findAll().get(0);
+        String expected = readTestResource("test-site/page2.html");
+        PageContent stored = pageContentRepository.findById(page.getId()).orElseThrow();
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, stored.getOriginalSize());
+        assertTrue(stored.getData().length < stored.getOriginalSize(), "Сохраненные данные должны быть сжаты.");
+        assertEquals(expected, pageContentService.load(page.getId()).orElseThrow());
+
+        siteRepository.deleteAll();
+        assertEquals(0, pageContentRepository.count(), "Содержимое должно удаляться вместе со страницей.");
+    }
+
+    @Test
+    @DisplayName("Перестройка индекса: леммы и индекс восстанавливаются из сохраненных страниц без обращения к сайту.")
+    void shouldRebuildIndexFromStoredPages() throws InterruptedException {
+        assertTrue(indexingService.startIndexing());
+        waitForIndexingToComplete();
+        Map<String, Integer> expectedLemmas = lemmaFrequencies();
+        long expectedIndexCount = indexRepository.count();
+        assertFalse(expectedLemmas.isEmpty());
+
+        indexRepository.deleteAll();
+        lemmaRepository.deleteAll();
+        wireMockServer.resetRequests();
+
+        assertTrue(indexingService.startReindexing(), "Запуск перестройки должен вернуть true");
+        assertFalse(indexingService.startIndexing(), "Индексация не должна запускаться во время перестройки");
+        waitForIndexingToComplete();
+
+        assertEquals(expectedLemmas, lemmaFrequencies());
+        assertEquals(expectedIndexCount, indexRepository.count());
+        assertTrue(wireMockServer.getAllServeEvents().isEmpty(), "Перестройка не должна обращаться к сайту");
+
+        assertTrue(indexingService.indexPage(wireMockServer.baseUrl() + "/page2"), "После перестройки страница должна индексироваться");
+        assertEquals(expectedLemmas, lemmaFrequencies());
+    }
+
+    @Test
+    @DisplayName("Перестройка индекса: остановка дожидается перестройки, и следующая перестройка не пересекается с ней.")
+    void stopIndexing_shouldWaitForReindex() throws InterruptedException {
+        assertTrue(indexingService.startIndexing());
+        waitForIndexingToComplete();
+        Map<String, Integer> expectedLemmas = lemmaFrequencies();
+        long expectedIndexCount = indexRepository.count();
+
+        assertTrue(indexingService.startReindexing());
+        assertTrue(indexingService.stopIndexing());
+        assertFalse(indexingService.isIndexing(), "Остановка должна вернуться после завершения перестройки");
+        assertEquals(expectedLemmas, lemmaFrequencies(), "Прерванная или завершенная перестройка сохраняет леммы");
+
+        assertTrue(indexingService.startReindexing());
+        assertFalse(indexingService.startReindexing(), "Вторая перестройка не должна запускаться во время первой");
+        assertFalse(indexingService.indexPage(wireMockServer.baseUrl() + "/page2"),
+                "Страница не должна индексироваться во время перестройки");
+        waitForIndexingToComplete();
+
+        assertEquals(expectedLemmas, lemmaFrequencies());
+        assertEquals(expectedIndexCount, indexRepository.count());
+    }
+
+    @Test
+    @DisplayName("Буфер записи индекса: после обхода частота каждой леммы равна количеству страниц с ней в индексе.")
+    void shouldKeepLemmaFrequenciesConsistentWithIndex() throws InterruptedException {
+        assertTrue(indexingService.startIndexing());
+        waitForIndexingToComplete();
+
+        assertEquals(Status.INDEXED, siteRepository.findByUrl(wireMockServer.baseUrl()).map(Site::getStatus).orElse(null));
+        assertFalse(lemmaRepository.findAll().isEmpty());
+        for (Lemma lemma : lemmaRepository.findAll()) {
+            assertEquals(lemma.getFrequency(), indexRepository.countPagesForLemmaId(lemma.getId()),
+                    "Частота леммы '" + lemma.getLemma() + "' должна совпадать с индексом");
+        }
+    }
+
+    private void stubPageWithPrintVersion() {
+        String article = "<p>Дальневосточный леопард - один из самых редких подвидов крупных кошек на планете. Он обитает"
+                + " в смешанных лесах на юге Приморского края, на границе России и Китая. Взрослый леопард весит"
+                + " от тридцати до пятидесяти килограммов, а его густой мех защищает от сильных морозов. Зимой"
+                + " шерсть становится длиннее и светлее, чем летом. Основу питания составляют косули, пятнистые"
+                + " олени и кабаны. Леопард охотится из засады и может преследовать добычу на крутых склонах.</p>";
+        stubFor(get(urlEqualTo("/")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody("<html><head><title>Леопард</title></head><body><a href=\"/print\">Печать</a>" + article + "</body></html>")));
+        stubFor(get(urlEqualTo("/print")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody("<html><head><title>Леопард - версия для печати</title></head><body>" + article + "</body></html>")));
+    }
+
     private void waitForIndexingToComplete() throws InterruptedException {
         int maxWaitTimeSeconds = 30;
         while (indexingService.isIndexing() && maxWaitTimeSeconds > 0) {
@@ -181,6 +417,10 @@ public class IndexingServiceTest {
         }
     }
 
+    private Map<String, Integer> lemmaFrequencies() {
+        return lemmaRepository.findAll().stream().collect(Collectors.toMap(Lemma::getLemma, Lemma::getFrequency));
+    }
+
     private Site waitForSiteStatus(String url, Status expectedStatus, int maxWaitSeconds) throws InterruptedException {
         long startTime = System.currentTimeMillis();
         while ((System.currentTimeMillis() - startTime) < maxWaitSeconds * 1000) {
@@ -0,0 +1,176 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import searchengine.config.IndexConfig;
+import searchengine.model.Lemma;
+import searchengine.repository.LemmaRepository;
+import searchengine.repository.projection.LemmaView;
+import searchengine.utils.LemmaEntry;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LemmaDictionaryServiceTest {
+
+    private static final int SITE_ID = 1;
+
+    private final LemmaRepository lemmaRepository = mock(LemmaRepository.class);
+    private final LemmaDictionaryServiceImpl service = new LemmaDictionaryServiceImpl(lemmaRepository, new IndexConfig());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Словарь лемм: изменения внутри транзакции применяются только после ее фиксации.")
+    void refreshFrequencies_shouldApplyOnlyAfterCommit() {
+        when(lemmaRepository.findViewsBySiteId(SITE_ID)).thenReturn(List.of(view(1, "лес", 2)));
+        when(lemmaRepository.findViewsBySiteIdAndLemmaIn(eq(SITE_ID), any())).thenReturn(List.of(view(1, "лес", 5)));
+        assertEquals(2, frequency("лес"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.refreshFrequencies(SITE_ID, List.of("лес"));
+        assertEquals(2, frequency("лес"), "До фиксации транзакции словарь не меняется");
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(2, frequency("лес"), "Откат транзакции не меняет словарь");
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.refreshFrequencies(SITE_ID, List.of("лес"));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(5, frequency("лес"));
+    }
+
+    @Test
+    @DisplayName("Словарь лемм: изменения, зафиксированные во время загрузки словаря, не теряются.")
+    void refreshFrequencies_shouldNotLoseUpdatesDuringLoad() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        when(lemmaRepository.findViewsBySiteId(SITE_ID)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            assertTrue(updated.await(5, TimeUnit.SECONDS));
+            return List.of(view(1, "лес", 2));
+        });
+        when(lemmaRepository.findViewsBySiteIdAndLemmaIn(eq(SITE_ID), any())).thenReturn(List.of(view(2, "гора", 1)));
+
+        CompletableFuture<Integer> load = CompletableFuture.supplyAsync(() -> frequency("лес"));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        service.refreshFrequencies(SITE_ID, List.of("гора"));
+        updated.countDown();
+
+        assertEquals(2, load.get(5, TimeUnit.SECONDS));
+        assertEquals(1, frequency("гора"));
+    }
+
+    @Test
+    @DisplayName("Словарь лемм: изменение, уже попавшее в снимок загружаемого словаря, не учитывается дважды.")
+    void refreshFrequencies_shouldNotDoubleCountUpdatesInLoadedSnapshot() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        when(lemmaRepository.findViewsBySiteId(SITE_ID)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            assertTrue(updated.await(5, TimeUnit.SECONDS));
+            // Снимок прочитан после фиксации изменения и уже содержит его.
+            return List.of(view(1, "лес", 3));
+        });
+        when(lemmaRepository.findViewsBySiteIdAndLemmaIn(eq(SITE_ID), any())).thenReturn(List.of(view(1, "лес", 3)));
+
+        CompletableFuture<Integer> load = CompletableFuture.supplyAsync(() -> frequency("лес"));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        service.refreshFrequencies(SITE_ID, List.of("лес"));
+        updated.countDown();
+
+        assertEquals(3, load.get(5, TimeUnit.SECONDS));
+        assertEquals(3, frequency("лес"));
+    }
+
+    @Test
+    @DisplayName("Словарь лемм: словарь, загруженный во время транзакции записи, строится заново после ее фиксации.")
+    void refreshFrequencies_shouldReloadDictionaryLoadedDuringWrite() {
+        when(lemmaRepository.findViewsBySiteId(SITE_ID))
+                .thenReturn(List.of(view(1, "лес", 2)))
+                .thenReturn(List.of(view(1, "лес", 3)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.refreshFrequencies(SITE_ID, List.of("лес"));
+        verify(lemmaRepository, never()).findViewsBySiteIdAndLemmaIn(anyInt(), any());
+        // Снимок прочитан до фиксации транзакции записи.
+        assertEquals(2, frequency("лес"));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(3, frequency("лес"));
+    }
+
+    @Test
+    @DisplayName("Словарь лемм: удаленные леммы основной части не вытесняют из похожих оставшиеся.")
+    void findSimilar_shouldNotLoseMatchesShadowedByDeletedLemmas() {
+        when(lemmaRepository.findViewsBySiteId(SITE_ID)).thenReturn(List.of(view(1, "лиса", 10), view(2, "леса", 5)));
+        assertEquals(List.of("лиса"), similar("лоса", 1));
+
+        Lemma deleted = new Lemma();
+        deleted.setId(1);
+        deleted.setLemma("лиса");
+        deleted.setFrequency(0);
+        service.applyUpdates(SITE_ID, List.of(deleted));
+
+        assertEquals(List.of("леса"), similar("лоса", 1));
+    }
+
+    private List<String> similar(String word, int limit) {
+        return service.findSimilar(SITE_ID, word, 1, limit).stream()
+                .map(match -> match.getEntry().getLemma())
+                .toList();
+    }
+
+    private int frequency(String lemma) {
+        List<LemmaEntry> entries = service.findLemmas(SITE_ID, List.of(lemma));
+        return entries.isEmpty() ? 0 : entries.get(0).getFrequency();
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static LemmaView view(int id, String lemma, int frequency) {
+        return new LemmaView() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public String getLemma() {
+                return lemma;
+            }
+
+            @Override
+            public int getFrequency() {
+                return frequency;
+            }
+        };
+    }
+}
@@ -27,6 +27,8 @@ import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.when;
 
@@ -120,6 +122,50 @@ public class LemmaServiceTest {
         assertEquals(45, indexRepository.count());
     }
 
+    @Test
+    @DisplayName("Кэш ID лемм: лемма, удаленная при переиндексации страницы, создается заново с новым ID")
+    void reindexPage_ShouldNotReuseIdOfDeletedLemma() throws InterruptedException {
+
+        stubFor(get(urlEqualTo("/")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody(readTestResource("test-site/index.html"))));
+        stubFor(get(urlEqualTo("/page2")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody(readTestResource("test-site/page2.html"))));
+        stubFor(get(urlEqualTo("/page3")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody(readTestResource("test-site/page3.html"))));
+
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        Site site = siteRepository.findByUrl(wireMockServer.baseUrl()).orElseThrow();
+        String pageWithNewLemma = "<html><head><title>Третья страница</title></head><body><p>Дальневосточный леопард</p></body></html>";
+
+        stubFor(get(urlEqualTo("/page3")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody(pageWithNewLemma)));
+        assertTrue(indexingService.indexPage(wireMockServer.baseUrl() + "/page3"));
+        Lemma removedLemma = lemmaRepository.findByLemmaAndSite("дальневосточный", site).orElseThrow();
+
+        stubFor(get(urlEqualTo("/page3")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody(readTestResource("test-site/page3.html"))));
+        assertTrue(indexingService.indexPage(wireMockServer.baseUrl() + "/page3"));
+        assertTrue(lemmaRepository.findByLemmaAndSite("дальневосточный", site).isEmpty());
+
+        stubFor(get(urlEqualTo("/page3")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/html")
+                .withBody(pageWithNewLemma)));
+        assertTrue(indexingService.indexPage(wireMockServer.baseUrl() + "/page3"));
+
+        Lemma recreatedLemma = lemmaRepository.findByLemmaAndSite("дальневосточный", site).orElseThrow();
+        assertNotEquals(removedLemma.getId(), recreatedLemma.getId());
+        assertEquals(1, recreatedLemma.getFrequency());
+        Page page = pageRepository.findByPathAndSite("/page3", site).orElseThrow();
+        assertTrue(indexRepository.findByLemmaAndPage(recreatedLemma, page).isPresent());
+    }
+
     private void waitForIndexingToComplete() throws InterruptedException {
         int maxWaitTimeSeconds = 30;
         while (indexingService.isIndexing() && maxWaitTimeSeconds > 0) {
@@ -0,0 +1,42 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import searchengine.config.SearchConfig;
+import searchengine.utils.LemmaEntry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchPlannerTest {
+
+    private final SearchPlanner planner = new SearchPlanner(new SearchConfig());
+
+    @Test
+    @DisplayName("Планировщик: редкий термин ведет поиск, а термин почти со всех страниц пропускается.")
+    void plan_shouldDriveByRareTermAndSkipFrequentOnes() {
+        SearchPlan plan = planner.plan(List.of(term("страница", 1, 9_800), term("леопард", 2, 40), term("осетия", 3, 2_000)), 10_000);
+
+        assertEquals(SearchPlan.Strategy.RARE_TERM_DRIVEN, plan.getStrategy());
+        assertEquals(List.of("леопард", "осетия"), plan.getTerms().stream().map(QueryTerm::getQueryLemma).toList());
+        assertEquals(List.of("страница"), plan.getSkippedTerms().stream().map(QueryTerm::getQueryLemma).toList());
+        assertEquals(8, plan.getEstimatedResults());
+    }
+
+    @Test
+    @DisplayName("Планировщик: для точных терминов средней частоты выбирается SQL, самый редкий термин не пропускается.")
+    void plan_shouldPreferSqlForSimilarFrequencies() {
+        SearchPlan plan = planner.plan(List.of(term("появление", 1, 3_000), term("леопард", 2, 2_500)), 10_000);
+        assertEquals(SearchPlan.Strategy.SQL_INTERSECTION, plan.getStrategy());
+        assertTrue(plan.getSkippedTerms().isEmpty());
+
+        SearchPlan frequentOnly = planner.plan(List.of(term("страница", 1, 9_900), term("сайт", 2, 9_950)), 10_000);
+        assertEquals(List.of("страница"), frequentOnly.getTerms().stream().map(QueryTerm::getQueryLemma).toList());
+        assertEquals(SearchPlan.Strategy.IN_MEMORY_INTERSECTION, frequentOnly.getStrategy());
+    }
+
+    private static QueryTerm term(String lemma, int id, int frequency) {
+        return new QueryTerm(lemma, List.of(new LemmaEntry(lemma, id, frequency)), List.of(1.0f));
+    }
+}
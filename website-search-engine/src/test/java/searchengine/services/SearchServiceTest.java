@@ -6,11 +6,16 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.ActiveProfiles;
 import searchengine.config.SiteConfig;
 import searchengine.config.SitesListConfig;
 import searchengine.dto.search.SearchDataDTO;
+import searchengine.dto.search.SearchExplainResponseDTO;
+import searchengine.dto.search.SearchPlanDTO;
 import searchengine.dto.search.SearchResponseDTO;
+import searchengine.dto.search.SuggestResponseDTO;
+import searchengine.dto.search.TermEstimateDTO;
 import searchengine.repository.IndexRepository;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
@@ -26,7 +31,9 @@ import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -43,6 +50,9 @@ public class SearchServiceTest {
     @MockBean
     private SitesListConfig sitesListConfig;
 
+    @SpyBean
+    private PageContentService pageContentService;
+
     private WireMockServer wireMockServer;
 
     @BeforeEach
@@ -151,6 +161,87 @@ public class SearchServiceTest {
         assertTrue(snippet.contains(word2));
     }
 
+    @Test
+    @DisplayName("Поиск с опечаткой: запрос 'леопорд' должен найти страницы со словом 'леопард'.")
+    void searchWithTypo_shouldExpandToSimilarLemma() {
+        SearchResponseDTO response = searchService.search("леопорд", null, 0, 20);
+
+        assertTrue(response.isResult());
+        assertEquals(3, response.getCount());
+        assertTrue(response.getData().get(0).getSnippet().contains("<b>леопард</b>"));
+    }
+
+    @Test
+    @DisplayName("Подсказки по префиксу: запрос 'леоп' должен вернуть проиндексированную лемму 'леопард'.")
+    void suggestByPrefix_shouldReturnIndexedLemma() {
+        SuggestResponseDTO response = searchService.suggest("появление леоп", null, 10);
+
+        assertTrue(response.isResult());
+        assertEquals(List.of("леопард"), response.getData());
+    }
+
+    @Test
+    @DisplayName("План поиска: для запроса 'вторая страница' возвращаются частоты обеих лемм и выбранная стратегия.")
+    void explain_shouldReturnPlanWithTermEstimates() {
+        SearchExplainResponseDTO response = searchService.explain("вторая страница", null);
+
+        assertTrue(response.isResult());
+        assertEquals(1, response.getPlans().size());
+        SearchPlanDTO plan = response.getPlans().get(0);
+        assertEquals(3, plan.getTotalPages());
+        assertNotNull(plan.getStrategy());
+        assertTrue(plan.getCosts().containsKey(plan.getStrategy()));
+        assertEquals(List.of("вторая", "страница"), plan.getTerms().stream().map(TermEstimateDTO::getQueryLemma).sorted().collect(Collectors.toList()));
+        assertTrue(plan.getTerms().stream().allMatch(term -> term.getFrequency() > 0 && !term.isSkipped()));
+    }
+
+    @Test
+    @DisplayName("Пагинация: содержимое страниц загружается и разбирается только для страниц текущей выдачи.")
+    void searchWithPagination_shouldLoadContentOnlyForWindow() {
+        SearchResponseDTO warmUp = searchService.search("появление леопарда", null, 0, 20);
+        assertEquals(3, warmUp.getCount());
+        clearInvocations(pageContentService);
+
+        SearchResponseDTO response = searchService.search("появление леопарда", null, 1, 1);
+
+        assertEquals(3, response.getCount());
+        assertEquals(1, response.getData().size());
+        assertEquals(warmUp.getData().get(1).getUri(), response.getData().get(0).getUri());
+        verify(pageContentService).loadAll(argThat(ids -> ids.size() == 1));
+        verify(pageContentService, times(1)).loadAll(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Шарды: выдача по двум сайтам в разных шардах объединяется и совпадает при любой пагинации.")
+    void searchAcrossShards_shouldMergeResultsConsistently() throws InterruptedException {
+        SiteConfig firstSite = new SiteConfig();
+        firstSite.setUrl(wireMockServer.baseUrl());
+        firstSite.setName("Test Site");
+        firstSite.setEnabled(true);
+        SiteConfig secondSite = new SiteConfig();
+        secondSite.setUrl("http://127.0.0.1:" + wireMockServer.port());
+        secondSite.setName("Test Site Copy");
+        secondSite.setEnabled(true);
+        when(sitesListConfig.getSites()).thenReturn(List.of(firstSite, secondSite));
+        indexingService.startIndexing();
+        waitForIndexingToComplete();
+
+        SearchResponseDTO all = searchService.search("появление леопарда", null, 0, 20);
+        assertTrue(all.isResult());
+        assertEquals(6, all.getCount());
+        assertEquals(2, all.getData().stream().map(SearchDataDTO::getSite).distinct().count());
+        assertEquals(1.0f, all.getData().get(0).getRelevance());
+
+        for (int offset = 0; offset < all.getCount(); offset++) {
+            SearchResponseDTO window = searchService.search("появление леопарда", null, offset, 1);
+            assertEquals(6, window.getCount());
+            SearchDataDTO expected = all.getData().get(offset);
+            SearchDataDTO actual = window.getData().get(0);
+            assertEquals(expected.getSite() + expected.getUri(), actual.getSite() + actual.getUri());
+            assertEquals(expected.getRelevance(), actual.getRelevance());
+        }
+    }
+
     private void waitForIndexingToComplete() throws InterruptedException {
         int maxWaitTimeSeconds = 30;
         while (indexingService.isIndexing() && maxWaitTimeSeconds > 0) {
@@ -0,0 +1,41 @@
+package searchengine.services;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SiteCrawlerTest {
+
+    private static final String URL = "https://example.com/page";
+
+    @Test
+    @DisplayName("Перегрузка хоста: таймауты, отказы в соединении и ответы 429/503.")
+    void isOverload_shouldDetectHostOverload() {
+        assertTrue(SiteCrawler.isOverload(new SocketTimeoutException("Read timed out")));
+        assertTrue(SiteCrawler.isOverload(new ConnectException("Connection refused")));
+        assertTrue(SiteCrawler.isOverload(new HttpTimeoutException("request timed out")));
+        assertTrue(SiteCrawler.isOverload(new HttpConnectTimeoutException("HTTP connect timed out")));
+        assertTrue(SiteCrawler.isOverload(new HttpStatusException("Too Many Requests", 429, URL)));
+        assertTrue(SiteCrawler.isOverload(new HttpStatusException("Service Unavailable", 503, URL)));
+    }
+
+    @Test
+    @DisplayName("Перегрузка хоста: ошибки отдельной страницы лимит хоста не уменьшают.")
+    void isOverload_shouldIgnorePageErrors() {
+        assertFalse(SiteCrawler.isOverload(new HttpStatusException("Not Found", 404, URL)));
+        assertFalse(SiteCrawler.isOverload(new HttpStatusException("Internal Server Error", 500, URL)));
+        assertFalse(SiteCrawler.isOverload(new UnsupportedMimeTypeException("Unhandled content type", "application/pdf", URL)));
+        assertFalse(SiteCrawler.isOverload(new MalformedURLException("no protocol")));
+        assertFalse(SiteCrawler.isOverload(new IOException("Connection reset")));
+    }
+}
@@ -0,0 +1,210 @@
+package searchengine.services;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+/**
+ * Генератор синтетического сайта для нагрузочного теста обхода.
+ * <p>
+ * Страницы образуют дерево с коэффициентом ветвления {@code fanOut}, к которому добавлено
+ * столько же случайных ссылок на страницу. Текст составляется из русских и английских слов,
+ * у каждой страницы своя "тема" из нескольких слов, чтобы страницы не выглядели почти
+ * дубликатами. Число слов на странице распределено логнормально. Часть страниц отвечает
+ * с задержкой, часть - ошибками 404 и 500. Генерация детерминирована при одинаковом {@code seed}.
+ */
+class SyntheticSiteGenerator {
+
+    private static final String[] RUSSIAN_WORDS = ("леопард обитает район горный кавказ осетия заповедник зверь "
+            + "появление постоянно предположить охрана природа лес река долина склон тропа след камера "
+            + "наблюдение учёный исследование популяция численность добыча олень кабан косуля зима лето "
+            + "весна осень снег дождь погода климат граница территория страна город село житель дорога "
+            + "путешествие маршрут турист экскурсия музей история культура традиция праздник народ язык "
+            + "книга статья журнал новость сообщение событие время год месяц неделя день утро вечер ночь "
+            + "работа компания проект система данные поиск индекс страница сайт ссылка запрос результат "
+            + "красивый большой маленький новый старый высокий быстрый медленный редкий дикий опасный "
+            + "смотреть видеть знать думать говорить писать читать искать находить жить ходить бежать")
+            .split(" ");
+    private static final String[] ENGLISH_WORDS = ("leopard mountain river forest valley wildlife reserve camera "
+            + "research population winter summer weather border travel route museum history culture language "
+            + "book article journal news event search index page site link query result system data project "
+            + "large small new old high fast slow rare wild dangerous find read write know think look")
+            .split(" ");
+    private static final int TOPIC_WORDS = 12;
+
+    private final Settings settings;
+    private final List<GeneratedPage> pages = new ArrayList<>();
+
+    SyntheticSiteGenerator(Settings settings) {
+        this.settings = settings;
+        Random random = new Random(settings.getSeed());
+        for (int i = 0; i < settings.getPages(); i++) {
+            pages.add(generatePage(i, random));
+        }
+    }
+
+    /**
+     * Регистрирует все страницы сайта в WireMock.
+     */
+    void serve(WireMockServer server) {
+        for (GeneratedPage page : pages) {
+            if (page.getStatus() != 200) {
+                server.stubFor(get(urlEqualTo(page.getPath())).willReturn(aResponse().withStatus(page.getStatus())));
+                continue;
+            }
+            server.stubFor(get(urlEqualTo(page.getPath())).willReturn(aResponse()
+                    .withHeader("Content-Type", "text/html; charset=utf-8")
+                    .withFixedDelay(page.getDelayMillis())
+                    .withBody(page.getHtml())));
+        }
+    }
+
+    List<GeneratedPage> getPages() {
+        return pages;
+    }
+
+    /**
+     * Число страниц с кодом 200, достижимых с главной: ссылки со страниц с ошибкой не обходятся.
+     */
+    int countReachablePages() {
+        BitSet visited = new BitSet(pages.size());
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        visited.set(0);
+        int reachable = 0;
+        while (!queue.isEmpty()) {
+            GeneratedPage page = pages.get(queue.poll());
+            if (page.getStatus() != 200) {
+                continue;
+            }
+            reachable++;
+            for (int target : page.getLinks()) {
+                if (!visited.get(target)) {
+                    visited.set(target);
+                    queue.add(target);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    long totalBytes() {
+        return pages.stream().mapToLong(page -> page.getHtml().getBytes(StandardCharsets.UTF_8).length).sum();
+    }
+
+    private GeneratedPage generatePage(int index, Random random) {
+        List<Integer> links = new ArrayList<>();
+        for (int child = index * settings.getFanOut() + 1;
+             child <= index * settings.getFanOut() + settings.getFanOut() && child < settings.getPages(); child++) {
+            links.add(child);
+        }
+        for (int i = 0; i < settings.getFanOut(); i++) {
+            links.add(random.nextInt(settings.getPages()));
+        }
+
+        // Главная страница всегда отвечает быстро и без ошибок, иначе обход не начнется.
+        double roll = index == 0 ? 1.0 : random.nextDouble();
+        int status = 200;
+        int delay = 0;
+        if (roll < settings.getErrorRatio()) {
+            status = random.nextBoolean() ? 404 : 500;
+        } else if (roll < settings.getErrorRatio() + settings.getSlowRatio()) {
+            delay = settings.getSlowDelayMillis();
+        }
+
+        String title = "Страница " + index + " " + randomWord(random, RUSSIAN_WORDS);
+        StringBuilder html = new StringBuilder(4096)
+                .append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>").append(title)
+                .append("</title></head><body><h1>").append(title).append("</h1>");
+        appendText(html, random);
+        html.append("<ul>");
+        for (int target : links) {
+            html.append("<li><a href=\"").append(pathOf(target)).append("\">")
+                    .append(randomWord(random, RUSSIAN_WORDS)).append("</a></li>");
+        }
+        html.append("</ul></body></html>");
+        return new GeneratedPage(pathOf(index), status, delay, html.toString(), links);
+    }
+
+    /**
+     * Текст страницы: абзацы из предложений по 6-15 слов. Около половины слов берется из темы страницы,
+     * остальные - из общего словаря с перекосом в сторону частых слов.
+     */
+    private void appendText(StringBuilder html, Random random) {
+        int wordCount = (int) Math.min(settings.getMaxWords(),
+                Math.max(20, Math.round(Math.exp(Math.log(settings.getMedianWords()) + 0.8 * random.nextGaussian()))));
+        String[] topic = new String[TOPIC_WORDS];
+        for (int i = 0; i < topic.length; i++) {
+            topic[i] = randomWord(random, random.nextDouble() < settings.getEnglishRatio() ? ENGLISH_WORDS : RUSSIAN_WORDS)
+                    + (random.nextInt(4) == 0 ? "-" + random.nextInt(1000) : "");
+        }
+
+        html.append("<p>");
+        int sentenceLength = 0;
+        for (int i = 0; i < wordCount; i++) {
+            String word;
+            if (random.nextBoolean()) {
+                word = topic[random.nextInt(topic.length)];
+            } else {
+                String[] vocabulary = random.nextDouble() < settings.getEnglishRatio() ? ENGLISH_WORDS : RUSSIAN_WORDS;
+                word = vocabulary[(int) (vocabulary.length * Math.pow(random.nextDouble(), 1.5))];
+            }
+            html.append(sentenceLength == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            sentenceLength++;
+            if (sentenceLength >= 6 + random.nextInt(10)) {
+                html.append(random.nextInt(8) == 0 ? ".</p><p>" : ". ");
+                sentenceLength = 0;
+            } else {
+                html.append(' ');
+            }
+        }
+        html.append("</p>");
+    }
+
+    private static String randomWord(Random random, String[] vocabulary) {
+        return vocabulary[random.nextInt(vocabulary.length)];
+    }
+
+    private static String pathOf(int index) {
+        return index == 0 ? "/" : "/section-" + (index % 17) + "/page-" + index;
+    }
+
+    /**
+     * Параметры генерации. Значения по умолчанию соответствуют сайту средней величины,
+     * который обходится за несколько десятков секунд.
+     */
+    @Value
+    @Builder
+    static class Settings {
+        @Builder.Default int pages = 1000;
+        @Builder.Default int fanOut = 8;
+        @Builder.Default int medianWords = 300;
+        @Builder.Default int maxWords = 5000;
+        @Builder.Default double englishRatio = 0.2;
+        @Builder.Default double slowRatio = 0.02;
+        @Builder.Default int slowDelayMillis = 500;
+        @Builder.Default double errorRatio = 0.02;
+        @Builder.Default long seed = 42;
+    }
+
+    @Value
+    static class GeneratedPage {
+        String path;
+        int status;
+        int delayMillis;
+        String html;
+        List<Integer> links;
+    }
+}
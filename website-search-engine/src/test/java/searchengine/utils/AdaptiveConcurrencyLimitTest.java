@@ -0,0 +1,58 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long LATENCY = 100_000_000L;
+
+    @Test
+    @DisplayName("Адаптивный лимит: при стабильной задержке и полной загрузке лимит растет до верхней границы.")
+    void onSuccess_shouldIncreaseLimitWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, 0.5, 3.0);
+
+        for (int i = 0; i < 100; i++) {
+            int slots = limit.getLimit();
+            long start = System.nanoTime();
+            for (int j = 0; j < slots; j++) {
+                assertTrue(limit.tryAcquire());
+            }
+            assertFalse(limit.tryAcquire(), "Нельзя занять больше слотов, чем позволяет лимит");
+            for (int j = 0; j < slots; j++) {
+                limit.onSuccess(start, LATENCY);
+            }
+        }
+
+        assertEquals(4, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Адаптивный лимит: ошибки одного поколения запросов уменьшают лимит один раз, рост задержки тоже уменьшает лимит.")
+    void onOverload_shouldDecreaseLimitOncePerGeneration() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 16, 0.5, 3.0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < 4; i++) {
+            limit.onOverload(start);
+        }
+        assertEquals(4, limit.getLimit());
+
+        assertTrue(limit.tryAcquire());
+        limit.onSuccess(System.nanoTime(), LATENCY);
+        assertTrue(limit.tryAcquire());
+        limit.onSuccess(System.nanoTime(), LATENCY * 10);
+        assertEquals(2, limit.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.onOverload(System.nanoTime());
+        }
+        assertEquals(1, limit.getLimit(), "Лимит не должен опускаться ниже нижней границы");
+    }
+}
@@ -0,0 +1,66 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CancellationTokenTest {
+
+    @Test
+    @DisplayName("Отмена: обработчики вызываются один раз, закрытые регистрации не вызываются.")
+    void cancel_shouldRunRegisteredCallbacksOnce() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger called = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        token.onCancel(called::incrementAndGet);
+        token.onCancel(closed::incrementAndGet).close();
+
+        token.cancel();
+        token.cancel();
+
+        assertTrue(token.isCancelled());
+        assertEquals(1, called.get());
+        assertEquals(0, closed.get());
+        assertThrows(CancellationException.class, token::throwIfCancelled);
+    }
+
+    @Test
+    @DisplayName("Отмена: обработчик, зарегистрированный после отмены, вызывается сразу.")
+    void onCancel_shouldRunImmediatelyWhenAlreadyCancelled() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        AtomicInteger called = new AtomicInteger();
+
+        token.onCancel(called::incrementAndGet);
+
+        assertEquals(1, called.get());
+    }
+
+    @Test
+    @DisplayName("Отмена: ожидание прерывается отменой из другого потока.")
+    void sleep_shouldWakeUpOnCancel() throws InterruptedException {
+        CancellationToken token = new CancellationToken();
+        assertTrue(token.sleep(1));
+
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            token.cancel();
+        });
+        canceller.start();
+        long start = System.nanoTime();
+        boolean elapsed = token.sleep(10_000);
+        canceller.join();
+
+        assertFalse(elapsed);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+    }
+}
@@ -0,0 +1,61 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingLruCacheTest {
+
+    @Test
+    @DisplayName("Кэш: значение вычисляется один раз, повторные обращения считаются попаданиями.")
+    void get_shouldComputeOnceAndCountHits() {
+        AtomicInteger calls = new AtomicInteger();
+        CountingLruCache<String, String> cache = new CountingLruCache<>(10, key -> {
+            calls.incrementAndGet();
+            return key.toUpperCase();
+        });
+
+        assertEquals("ЛЕС", cache.get("лес"));
+        assertEquals("ЛЕС", cache.get("лес"));
+        assertEquals("ЛЕС", cache.get("лес"));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.missCount());
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Кэш: размер не превышает емкость, давно не использованные ключи вытесняются.")
+    void get_shouldEvictLeastRecentlyUsed() {
+        CountingLruCache<Integer, Integer> cache = new CountingLruCache<>(2, key -> key * 2);
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        cache.get(3);
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.missCount());
+        cache.get(1);
+        assertEquals(3, cache.missCount());
+        cache.get(2);
+        assertEquals(4, cache.missCount());
+    }
+
+    @Test
+    @DisplayName("Кэш: емкость 0 отключает кэширование.")
+    void get_shouldComputeEveryTimeWhenDisabled() {
+        CountingLruCache<String, Integer> cache = new CountingLruCache<>(0, String::length);
+
+        assertEquals(3, cache.get("кот"));
+        assertEquals(3, cache.get("кот"));
+
+        assertEquals(2, cache.missCount());
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,29 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeflatingWriterTest {
+
+    @Test
+    @DisplayName("Сжатие при записи: результат распаковывается DeflateCodec в исходный текст в UTF-8.")
+    void write_shouldProduceDeflateCodecData() throws IOException {
+        String text = "<p>Дальневосточный леопард обитает в Приморье.</p>".repeat(1000);
+        DeflatingWriter writer = new DeflatingWriter(Deflater.DEFAULT_COMPRESSION);
+        for (int i = 0; i < text.length(); i += 777) {
+            writer.write(text, i, Math.min(777, text.length() - i));
+        }
+        writer.close();
+
+        byte[] original = text.getBytes(StandardCharsets.UTF_8);
+        assertEquals(original.length, writer.getOriginalSize());
+        assertTrue(writer.toByteArray().length < original.length / 4);
+        assertEquals(text, new String(DeflateCodec.decompress(writer.toByteArray(), writer.getOriginalSize()), StandardCharsets.UTF_8));
+    }
+}
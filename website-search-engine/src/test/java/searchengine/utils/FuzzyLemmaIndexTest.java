@@ -0,0 +1,38 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzyLemmaIndexTest {
+
+    private final FuzzyLemmaIndex index = FuzzyLemmaIndex.build(LemmaDictionary.build(
+            new String[]{"леопард", "леопардовый", "кавказ", "район", "страница", "странник"},
+            new int[]{1, 2, 3, 4, 5, 6},
+            new int[]{30, 1, 10, 10, 50, 2}), 2);
+
+    @Test
+    @DisplayName("Нечеткий поиск: замена, пропуск и перестановка букв находятся на расстоянии 1.")
+    void lookup_shouldFindSingleEditTypos() {
+        assertEquals("леопард", index.lookup("леопорд", 1, 3).get(0).getEntry().getLemma());
+        assertEquals("кавказ", index.lookup("кавкз", 1, 3).get(0).getEntry().getLemma());
+        assertEquals("район", index.lookup("раойн", 1, 3).get(0).getEntry().getLemma());
+    }
+
+    @Test
+    @DisplayName("Нечеткий поиск: результаты ограничены расстоянием и отсортированы по расстоянию и частоте.")
+    void lookup_shouldRespectDistanceAndOrdering() {
+        assertTrue(index.lookup("странца", 1, 3).stream().allMatch(match -> match.getDistance() <= 1));
+
+        List<FuzzyMatch> matches = index.lookup("странниц", 2, 3);
+        assertEquals("странник", matches.get(0).getEntry().getLemma());
+        assertEquals(1, matches.get(0).getDistance());
+        assertEquals("страница", matches.get(1).getEntry().getLemma());
+
+        assertTrue(index.lookup("динозавр", 2, 3).isEmpty());
+        assertTrue(index.lookup("леопард", 2, 3).stream().noneMatch(match -> match.getEntry().getLemma().equals("леопард")));
+    }
+}
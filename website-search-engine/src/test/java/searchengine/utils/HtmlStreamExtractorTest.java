@@ -0,0 +1,112 @@
+package searchengine.utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HtmlStreamExtractorTest {
+
+    private static final String BASE_URL = "http://example.com/dir/page";
+
+    @Test
+    @DisplayName("Потоковое извлечение: заголовок, текст и ссылки тестовых страниц совпадают с результатом Jsoup.")
+    void extract_shouldMatchJsoupOnTestPages() throws IOException {
+        for (String name : List.of("index.html", "page2.html", "page3.html")) {
+            String html = Files.readString(Paths.get("src/test/resources/test-site/" + name), StandardCharsets.UTF_8);
+            Document document = Jsoup.parse(html, BASE_URL);
+
+            HtmlContent content = HtmlStreamExtractor.extract(new StringReader(html), BASE_URL);
+
+            assertEquals(document.title(), content.getTitle(), name);
+            assertEquals(document.body().text(), content.getText(), name);
+            assertEquals(document.select("a[href]").stream().map(link -> link.absUrl("href")).filter(link -> !link.isEmpty()).toList(),
+                    content.getLinks(), name);
+        }
+    }
+
+    @Test
+    @DisplayName("Потоковое извлечение: скрипты, стили и комментарии пропускаются, сущности декодируются, учитывается <base>.")
+    void extract_shouldSkipNonVisibleContent() throws IOException {
+        String html = """
+                <!DOCTYPE html>
+                <html><head><title>Леопард &amp; барс</title><base href="http://cdn.example.com/root/">
+                <style>p { color: red; }</style></head>
+                <body><!-- <a href="/hidden">скрыто</a> -->
+                <script>var s = "</div><a href='/x'>";</script>
+                <h1>Кавказ</h1><p>Горный<br>леопард&nbsp;обитает <b>здесь</b>.</p>
+                <a href='relative.html'>ссылка</a>
+                <a href=/abs?q=1&amp;p=2>вторая</a>
+                </body></html>
+                """;
+
+        HtmlContent content = HtmlStreamExtractor.extract(new StringReader(html), BASE_URL);
+
+        assertEquals("Леопард & барс", content.getTitle());
+        assertEquals("Кавказ Горный леопард обитает здесь. ссылка вторая", content.getText());
+        assertEquals(List.of("http://cdn.example.com/root/relative.html", "http://cdn.example.com/abs?q=1&p=2"), content.getLinks());
+    }
+
+    @Test
+    @DisplayName("Кодировка: берется из заголовка ответа, затем из <meta charset>, по умолчанию UTF-8.")
+    void detectCharset_shouldUseHeaderThenMeta() {
+        byte[] page = "<html><head><meta charset=\"windows-1251\"></head></html>".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(StandardCharsets.UTF_8, HtmlStreamExtractor.detectCharset(page, "utf-8"));
+        assertEquals(Charset.forName("windows-1251"), HtmlStreamExtractor.detectCharset(page, null));
+        assertEquals(StandardCharsets.UTF_8, HtmlStreamExtractor.detectCharset(new byte[0], null));
+    }
+
+    @Test
+    @DisplayName("Потоковое чтение: документ читается из потока байтов в кодировке из <meta charset>.")
+    void reader_shouldDecodeStreamWithDetectedCharset() throws IOException {
+        Charset windows1251 = Charset.forName("windows-1251");
+        byte[] page = ("<html><head><meta charset=\"windows-1251\"><title>Барс</title></head>"
+                + "<body><p>Снежный барс</p></body></html>").getBytes(windows1251);
+
+        HtmlContent content = HtmlStreamExtractor.extract(HtmlStreamExtractor.reader(new ByteArrayInputStream(page), null), BASE_URL);
+
+        assertEquals("Барс", content.getTitle());
+        assertEquals("Снежный барс", content.getText());
+    }
+
+    @Test
+    @DisplayName("Потоковое извлечение: большие скрипты пропускаются, заголовок ограничен по длине.")
+    void extract_shouldSkipLargeRawTextElements() throws IOException {
+        String script = "var s = '</scrip' + '<' + 't';".repeat(100_000);
+        String longTitle = "а".repeat(20_000);
+        String html = "<html><head><title>" + longTitle + "</title><script>" + script + "</script ></head>"
+                + "<body><p>Текст</p><a href=\"/next\">далее</a></body></html>";
+
+        HtmlContent content = HtmlStreamExtractor.extract(new StringReader(html), BASE_URL);
+
+        assertEquals(8192, content.getTitle().length());
+        assertEquals("Текст далее", content.getText());
+        assertEquals(List.of("http://example.com/next"), content.getLinks());
+    }
+
+    @Test
+    @DisplayName("Потоковое извлечение: основной текст не содержит навигации, шапки, подвала и боковых блоков.")
+    void extract_shouldSeparateMainText() throws IOException {
+        String html = "<html><body><header><nav><a href=\"/\">Главная</a> <a href=\"/news\">Новости</a></nav></header>"
+                + "<main><h1>Барс</h1><p>Снежный барс живет в горах.</p><aside>Реклама</aside></main>"
+                + "<footer>Все права защищены</footer></body></html>";
+
+        HtmlContent content = HtmlStreamExtractor.extract(new StringReader(html), BASE_URL);
+
+        assertEquals("Главная Новости Барс Снежный барс живет в горах. Реклама Все права защищены", content.getText());
+        assertEquals("Барс Снежный барс живет в горах.", content.getMainText());
+        assertEquals(List.of("http://example.com/", "http://example.com/news"), content.getLinks());
+    }
+}
@@ -0,0 +1,32 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArraysTest {
+
+    @Test
+    @DisplayName("Пересечение: отсортированные массивы без повторов пересекаются без упаковки значений.")
+    void intersectSorted_shouldReturnCommonValues() {
+        int[] a = IntArrays.toSortedSet(List.of(9, 3, 1, 3, 7, 5));
+        int[] b = IntArrays.toSortedSet(List.of(2, 3, 5, 8, 9, 9));
+
+        assertArrayEquals(new int[]{1, 3, 5, 7, 9}, a);
+        assertArrayEquals(new int[]{3, 5, 9}, IntArrays.intersectSorted(a, b));
+        assertArrayEquals(new int[0], IntArrays.intersectSorted(a, new int[0]));
+    }
+
+    @Test
+    @DisplayName("Представление части массива: список содержит только элементы диапазона.")
+    void asList_shouldViewRange() {
+        int[] values = {4, 8, 15, 16, 23, 42};
+
+        assertEquals(List.of(15, 16, 23), IntArrays.asList(values, 2, 5));
+        assertEquals(6, IntArrays.asList(values).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> IntArrays.asList(values, 2, 5).get(3));
+    }
+}
@@ -0,0 +1,50 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntFloatHashMapTest {
+
+    @Test
+    @DisplayName("Накопление сумм: результат совпадает с HashMap, включая ключ 0, отрицательные ключи и увеличение таблицы.")
+    void addTo_shouldMatchHashMap() {
+        Random random = new Random(7);
+        IntFloatHashMap map = new IntFloatHashMap();
+        Map<Integer, Float> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(5000) - 100;
+            float value = random.nextInt(10);
+            map.addTo(key, value);
+            expected.merge(key, value, Float::sum);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key, -1), "Ключ " + key));
+        Map<Integer, Float> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertEquals(expected.size(), map.keys().length);
+        assertFalse(map.containsKey(10_000));
+        assertEquals(-1, map.get(10_000, -1));
+    }
+
+    @Test
+    @DisplayName("putMax: сохраняется наибольшее значение ключа.")
+    void putMax_shouldKeepLargestValue() {
+        IntFloatHashMap map = new IntFloatHashMap(1);
+        map.putMax(5, 0.5f);
+        map.putMax(5, 1.0f);
+        map.putMax(5, 0.25f);
+        map.putMax(0, -2.0f);
+
+        assertEquals(1.0f, map.get(5, 0));
+        assertEquals(-2.0f, map.get(0, 0));
+        assertEquals(2, map.size());
+    }
+}
@@ -0,0 +1,69 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LemmaDictionaryTest {
+
+    @Test
+    @DisplayName("Точный поиск: каждая лемма находится со своими ID и частотой, отсутствующие леммы не находятся.")
+    void find_shouldReturnEveryLemmaWithItsIdAndFrequency() {
+        List<String> lemmas = generateLemmas();
+        LemmaDictionary dictionary = build(lemmas);
+
+        assertEquals(lemmas.size(), dictionary.size());
+        for (int i = 0; i < lemmas.size(); i++) {
+            int ordinal = dictionary.find(lemmas.get(i));
+            assertTrue(ordinal >= 0, "Лемма должна быть найдена: " + lemmas.get(i));
+            assertEquals(lemmas.get(i), dictionary.lemmaAt(ordinal));
+            assertEquals(i + 1, dictionary.idAt(ordinal));
+            assertEquals(i * 10, dictionary.frequencyAt(ordinal));
+        }
+        assertEquals(-1, dictionary.find("несуществующий"));
+        assertEquals(-1, dictionary.find(""));
+        assertEquals(-1, dictionary.find("яяяя"));
+    }
+
+    @Test
+    @DisplayName("Поиск по префиксу: возвращаются все леммы с префиксом в лексикографическом порядке.")
+    void forEachWithPrefix_shouldReturnAllMatchingLemmasInOrder() {
+        List<String> lemmas = generateLemmas();
+        LemmaDictionary dictionary = build(lemmas);
+
+        for (String prefix : List.of("лес", "лесн", "пар", "а", "лесничий", "ъ")) {
+            List<String> expected = new TreeSet<>(lemmas).stream().filter(l -> l.startsWith(prefix)).toList();
+            List<String> actual = new ArrayList<>();
+            dictionary.forEachWithPrefix(prefix, entry -> actual.add(entry.getLemma()));
+            assertEquals(expected, actual, "Префикс: " + prefix);
+        }
+    }
+
+    private LemmaDictionary build(List<String> lemmas) {
+        String[] array = lemmas.toArray(new String[0]);
+        int[] ids = new int[array.length];
+        int[] frequencies = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            ids[i] = i + 1;
+            frequencies[i] = i * 10;
+        }
+        return LemmaDictionary.build(array, ids, frequencies);
+    }
+
+    private List<String> generateLemmas() {
+        List<String> lemmas = new ArrayList<>();
+        for (String root : List.of("лес", "лесник", "лесничий", "лесной", "парк", "парус", "арка", "абрикос")) {
+            lemmas.add(root);
+            for (char suffix = 'а'; suffix <= 'е'; suffix++) {
+                lemmas.add(root + suffix);
+                lemmas.add(root + suffix + suffix);
+            }
+        }
+        return lemmas;
+    }
+}
@@ -0,0 +1,40 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectIntHashMapTest {
+
+    @Test
+    @DisplayName("Счетчики: результат совпадает с HashMap после увеличения таблицы, отсутствующие ключи не находятся.")
+    void addTo_shouldMatchHashMap() {
+        Random random = new Random(11);
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String key = "лемма" + random.nextInt(3000);
+            map.addTo(key, 1);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.getInt(key, -1), "Ключ " + key));
+        Map<String, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertEquals(expected.keySet(), new HashSet<>(map.keys()));
+        assertFalse(map.containsKey("отсутствует"));
+        assertEquals(-1, map.getInt("отсутствует", -1));
+
+        map.put("лемма1", 100);
+        assertEquals(100, map.getInt("лемма1", -1));
+        assertEquals(expected.size(), map.size());
+    }
+}
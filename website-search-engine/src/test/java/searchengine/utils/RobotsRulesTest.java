@@ -0,0 +1,54 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RobotsRulesTest {
+
+    private static final String ROBOTS = """
+            # Пример robots.txt
+            User-agent: *
+            Disallow: /admin
+            Disallow: /*.pdf$
+            Allow: /admin/public
+
+            User-agent: OtherBot
+            Disallow: /
+
+            User-agent: HeliontSearchBot
+            Disallow: /private
+            Crawl-delay: 1.5
+
+            Sitemap: http://example.com/sitemap.xml
+            """;
+
+    @Test
+    @DisplayName("robots.txt: для известного робота выбирается его группа, для остальных - группа *.")
+    void parse_shouldSelectMostSpecificGroup() {
+        RobotsRules ownRules = RobotsRules.parse(ROBOTS, "HeliontSearchBot/1.0");
+        assertFalse(ownRules.isAllowed("/private/page"));
+        assertTrue(ownRules.isAllowed("/admin"), "Правила группы * не применяются, если есть своя группа");
+        assertEquals(1500, ownRules.getCrawlDelayMillis());
+        assertEquals(List.of("http://example.com/sitemap.xml"), ownRules.getSitemaps());
+
+        RobotsRules defaultRules = RobotsRules.parse(ROBOTS, "TestSearchBot/1.0");
+        assertEquals(0, defaultRules.getCrawlDelayMillis());
+        assertTrue(defaultRules.isUrlAllowed("http://example.com/"));
+    }
+
+    @Test
+    @DisplayName("robots.txt: побеждает самое длинное правило, поддерживаются шаблоны * и $.")
+    void isAllowed_shouldApplyLongestMatchAndWildcards() {
+        RobotsRules rules = RobotsRules.parse(ROBOTS, "TestSearchBot/1.0");
+
+        assertFalse(rules.isAllowed("/admin/users"));
+        assertTrue(rules.isAllowed("/admin/public/index.html"));
+        assertFalse(rules.isUrlAllowed("http://example.com/files/report.pdf"));
+        assertTrue(rules.isUrlAllowed("http://example.com/files/report.pdf?download=1"));
+        assertFalse(RobotsRules.disallowAll().isAllowed("/"));
+    }
+}
@@ -0,0 +1,54 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimHashTest {
+
+    private static final String ARTICLE = """
+            Дальневосточный леопард - один из самых редких подвидов крупных кошек на планете. Он обитает
+            в смешанных лесах на юге Приморского края, на границе России и Китая. Взрослый леопард весит
+            от тридцати до пятидесяти килограммов, а его густой мех защищает от сильных морозов. Зимой
+            шерсть становится длиннее и светлее, чем летом. Основу питания составляют косули, пятнистые
+            олени и кабаны. Леопард охотится из засады и может преследовать добычу на крутых склонах.
+            Благодаря работе национального парка численность популяции за последние годы заметно выросла.
+            """;
+    private static final String OTHER_ARTICLE = """
+            Кавказский леопард встречается в горах Северной Осетии, Дагестана и Кабардино-Балкарии. После
+            долгого перерыва зверя снова заметили фотоловушки в заповеднике, и специалисты начали программу
+            восстановления. Молодых животных выпускают в природу после обучения охоте в вольерах центра.
+            Каждый выпущенный зверь носит спутниковый ошейник, по сигналам которого ученые следят за тем,
+            как леопард осваивает новую территорию, и вовремя замечают конфликты с местными жителями.
+            """;
+
+    @Test
+    @DisplayName("SimHash: копия с мелкой правкой близка к оригиналу, другой текст далек от него.")
+    void of_shouldBeCloseForNearDuplicates() {
+        SimHash original = SimHash.of(ARTICLE);
+        SimHash printVersion = SimHash.of(ARTICLE.replace('\n', ' ').replace("заметно", "значительно"));
+        SimHash other = SimHash.of(OTHER_ARTICLE);
+
+        assertTrue(original.getWordCount() > 50);
+        assertEquals(original.getFingerprint(), SimHash.of(ARTICLE.toUpperCase()).getFingerprint(), "Регистр не должен влиять на отпечаток");
+        assertTrue(SimHash.distance(original.getFingerprint(), printVersion.getFingerprint()) <= 3);
+        assertTrue(SimHash.distance(original.getFingerprint(), other.getFingerprint()) > 10);
+    }
+
+    @Test
+    @DisplayName("Индекс SimHash: находит отпечаток на расстоянии до maxDistance в любых битах и не находит дальний.")
+    void find_shouldFindFingerprintsWithinDistance() {
+        SimHashIndex<Integer> index = new SimHashIndex<>(3);
+        long fingerprint = SimHash.of(ARTICLE).getFingerprint();
+
+        assertEquals(Optional.empty(), index.find(fingerprint));
+        index.add(fingerprint, 1);
+        assertEquals(Optional.of(1), index.find(fingerprint ^ (1L | 1L << 20 | 1L << 63)));
+        assertEquals(Optional.empty(), index.find(fingerprint ^ 0xF000_0000_0000_000FL));
+        index.add(fingerprint ^ 0xF000_0000_0000_000FL, 3);
+        assertEquals(Optional.of(3), index.find(fingerprint ^ 0xF000_0000_0000_000EL));
+    }
+}
@@ -0,0 +1,69 @@
+package searchengine.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SitemapParserTest {
+
+    @Test
+    @DisplayName("Sitemap: сжатый gzip файл разбирается, даты lastmod в разных форматах читаются.")
+    void parse_shouldReadGzipUrlset() throws IOException {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>http://example.com/old</loc><lastmod>2020-01-01</lastmod></url>
+                  <url><loc>http://example.com/none</loc></url>
+                  <url><loc> http://example.com/new </loc><lastmod>2024-03-10T12:00:00+03:00</lastmod></url>
+                </urlset>
+                """;
+        List<SitemapEntry> entries = new ArrayList<>();
+        List<String> sitemaps = new ArrayList<>();
+
+        SitemapParser.parse(new ByteArrayInputStream(gzip(xml)), entries::add, sitemaps::add);
+
+        assertEquals(3, entries.size());
+        assertTrue(sitemaps.isEmpty());
+        assertEquals(Instant.parse("2024-03-10T09:00:00Z"), entries.get(2).getLastModified());
+
+        entries.sort(SitemapEntry.NEWEST_FIRST);
+        assertEquals(List.of("http://example.com/new", "http://example.com/old", "http://example.com/none"),
+                entries.stream().map(SitemapEntry::getLocation).toList());
+    }
+
+    @Test
+    @DisplayName("Sitemap: адреса из индекса sitemap передаются как вложенные файлы, а не как страницы.")
+    void parse_shouldReportNestedSitemapsFromIndex() throws IOException {
+        String xml = """
+                <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <sitemap><loc>http://example.com/sitemap-1.xml.gz</loc><lastmod>2024-01-01</lastmod></sitemap>
+                  <sitemap><loc>http://example.com/sitemap-2.xml</loc></sitemap>
+                </sitemapindex>
+                """;
+        List<SitemapEntry> entries = new ArrayList<>();
+        List<String> sitemaps = new ArrayList<>();
+
+        SitemapParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), entries::add, sitemaps::add);
+
+        assertTrue(entries.isEmpty());
+        assertEquals(List.of("http://example.com/sitemap-1.xml.gz", "http://example.com/sitemap-2.xml"), sitemaps);
+    }
+
+    private byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}